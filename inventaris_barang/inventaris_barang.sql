@@ -61,9 +61,15 @@ CREATE TABLE `barang` (
   `foto_barang` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci DEFAULT NULL,
   `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   `updated_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `id_instansi` int DEFAULT NULL,
   PRIMARY KEY (`id_barang`),
   UNIQUE KEY `kode_barang` (`kode_barang`),
-  KEY `idx_barang_status` (`status`)
+  KEY `idx_barang_status` (`status`),
+  KEY `idx_barang_updated` (`updated_at`),
+  KEY `idx_barang_instansi` (`id_instansi`,`nama_barang`),
+  KEY `idx_barang_created` (`created_at`,`id_barang`),
+  CONSTRAINT `barang_ibfk_1` FOREIGN KEY (`id_instansi`) REFERENCES `instansi` (`id_instansi`) ON DELETE SET NULL,
+  CONSTRAINT `chk_barang_tersedia` CHECK ((`jumlah_tersedia` >= 0))
 ) ENGINE=InnoDB AUTO_INCREMENT=7 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -73,7 +79,7 @@ CREATE TABLE `barang` (
 
 LOCK TABLES `barang` WRITE;
 /*!40000 ALTER TABLE `barang` DISABLE KEYS */;
-INSERT INTO `barang` VALUES (1,'BRG-001','Proyektor Epson','Ruang Lab 1',5,5,'Proyektor untuk presentasi','baik','tersedia','https://drive.google.com/file/d/1dYJjiFHbBYzFkETk1xwZzTAteCgwmQLa/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26'),(2,'BRG-002','Laptop Dell Latitude','Ruang Admin',10,8,'Laptop untuk mahasiswa','baik','tersedia','https://drive.google.com/file/d/1dq7wLgLu_Y1j2LT3rKrfVFq-fwC01GgW/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26'),(3,'BRG-003','Kamera Canon EOS','Ruang Media',3,3,'Kamera DSLR untuk dokumentasi','baik','tersedia','https://drive.google.com/file/d/1f8CNfSgIFEJzX0HuQLZzNI95J_gpCOhU/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26'),(4,'BRG-004','Sound System','Aula',2,2,'Sound system untuk acara','baik','tersedia','https://drive.google.com/file/d/1kqIMZsmkf7ihGygdvjitirxvChj0-rVO/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26'),(5,'BRG-005','Meja Lipat','Gudang',50,45,'Meja lipat untuk event','baik','tersedia','https://drive.google.com/file/d/1GhTMKLxKbYyRzaTHtn6O_nNjSV8q4A0W/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26'),(6,'BRG-006','Printer','Sekhim',1,1,'Print hima','baik','tersedia',NULL,'2025-11-28 08:49:43','2025-11-28 08:49:43');
+INSERT INTO `barang` VALUES (1,'BRG-001','Proyektor Epson','Ruang Lab 1',5,5,'Proyektor untuk presentasi','baik','tersedia','https://drive.google.com/file/d/1dYJjiFHbBYzFkETk1xwZzTAteCgwmQLa/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26',NULL),(2,'BRG-002','Laptop Dell Latitude','Ruang Admin',10,8,'Laptop untuk mahasiswa','baik','tersedia','https://drive.google.com/file/d/1dq7wLgLu_Y1j2LT3rKrfVFq-fwC01GgW/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26',NULL),(3,'BRG-003','Kamera Canon EOS','Ruang Media',3,3,'Kamera DSLR untuk dokumentasi','baik','tersedia','https://drive.google.com/file/d/1f8CNfSgIFEJzX0HuQLZzNI95J_gpCOhU/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26',NULL),(4,'BRG-004','Sound System','Aula',2,2,'Sound system untuk acara','baik','tersedia','https://drive.google.com/file/d/1kqIMZsmkf7ihGygdvjitirxvChj0-rVO/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26',NULL),(5,'BRG-005','Meja Lipat','Gudang',50,45,'Meja lipat untuk event','baik','tersedia','https://drive.google.com/file/d/1GhTMKLxKbYyRzaTHtn6O_nNjSV8q4A0W/view?usp=sharing','2025-11-15 22:19:00','2025-11-28 13:11:26',NULL),(6,'BRG-006','Printer','Sekhim',1,1,'Print hima','baik','tersedia',NULL,'2025-11-28 08:49:43','2025-11-28 08:49:43',NULL);
 /*!40000 ALTER TABLE `barang` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -96,13 +102,16 @@ CREATE TABLE `borrow` (
   `tgl_kembali` date DEFAULT NULL,
   `dl_kembali` date NOT NULL,
   `foto_pengembalian` varchar(255) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
-  `status_barang` enum('dipinjam','dikembalikan','hilang','rusak','pending') COLLATE utf8mb4_unicode_ci DEFAULT 'pending',
+  `status_barang` enum('dipinjam','dikembalikan','hilang','rusak','pending','ditolak') COLLATE utf8mb4_unicode_ci DEFAULT 'pending',
   `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (`id_peminjaman`),
-  KEY `id_peminjam` (`id_peminjam`),
+  KEY `idx_borrow_peminjam_created` (`id_peminjam`,`created_at`,`id_peminjaman`),
   KEY `id_admin` (`id_admin`),
-  KEY `kode_barang` (`kode_barang`),
-  KEY `idx_borrow_status` (`status_barang`),
+  KEY `idx_borrow_kode_status` (`kode_barang`,`status_barang`),
+  KEY `idx_borrow_status_deadline` (`status_barang`,`dl_kembali`),
+  KEY `idx_borrow_updated` (`updated_at`),
+  KEY `idx_borrow_created` (`created_at`,`id_peminjaman`),
   CONSTRAINT `borrow_ibfk_1` FOREIGN KEY (`id_peminjam`) REFERENCES `peminjam` (`id_peminjam`),
   CONSTRAINT `borrow_ibfk_2` FOREIGN KEY (`id_admin`) REFERENCES `admin` (`id_admin`),
   CONSTRAINT `borrow_ibfk_3` FOREIGN KEY (`kode_barang`) REFERENCES `barang` (`kode_barang`) ON UPDATE CASCADE
@@ -118,6 +127,30 @@ LOCK TABLES `borrow` WRITE;
 /*!40000 ALTER TABLE `borrow` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `data_version`
+--
+
+DROP TABLE IF EXISTS `data_version`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `data_version` (
+  `table_name` varchar(50) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `version` bigint NOT NULL DEFAULT '0',
+  PRIMARY KEY (`table_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `data_version`
+--
+
+LOCK TABLES `data_version` WRITE;
+/*!40000 ALTER TABLE `data_version` DISABLE KEYS */;
+INSERT INTO `data_version` VALUES ('barang',1),('barang.delete',1),('borrow',1),('lapor',1),('user',1);
+/*!40000 ALTER TABLE `data_version` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `instansi`
 --
@@ -145,6 +178,42 @@ INSERT INTO `instansi` VALUES (1,4,'Badan Eksekutif Mahasiswa FIK');
 /*!40000 ALTER TABLE `instansi` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `inventory_summary`
+--
+
+DROP TABLE IF EXISTS `inventory_summary`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `inventory_summary` (
+  `id` tinyint NOT NULL,
+  `total_barang` int NOT NULL DEFAULT '0',
+  `barang_tersedia` int NOT NULL DEFAULT '0',
+  `unit_tersedia` int NOT NULL DEFAULT '0',
+  `borrow_total` int NOT NULL DEFAULT '0',
+  `borrow_pending` int NOT NULL DEFAULT '0',
+  `borrow_aktif` int NOT NULL DEFAULT '0',
+  `borrow_selesai` int NOT NULL DEFAULT '0',
+  `borrow_hilang` int NOT NULL DEFAULT '0',
+  `borrow_rusak` int NOT NULL DEFAULT '0',
+  `lapor_total` int NOT NULL DEFAULT '0',
+  `lapor_diproses` int NOT NULL DEFAULT '0',
+  `lapor_selesai` int NOT NULL DEFAULT '0',
+  `lapor_ditolak` int NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `inventory_summary`
+--
+
+LOCK TABLES `inventory_summary` WRITE;
+/*!40000 ALTER TABLE `inventory_summary` DISABLE KEYS */;
+INSERT INTO `inventory_summary` VALUES (1,6,6,64,0,0,0,0,0,0,0,0,0,0),(2,0,0,0,0,0,0,0,0,0,0,0,0,0),(3,0,0,0,0,0,0,0,0,0,0,0,0,0),(4,0,0,0,0,0,0,0,0,0,0,0,0,0),(5,0,0,0,0,0,0,0,0,0,0,0,0,0),(6,0,0,0,0,0,0,0,0,0,0,0,0,0),(7,0,0,0,0,0,0,0,0,0,0,0,0,0),(8,0,0,0,0,0,0,0,0,0,0,0,0,0),(9,0,0,0,0,0,0,0,0,0,0,0,0,0),(10,0,0,0,0,0,0,0,0,0,0,0,0,0),(11,0,0,0,0,0,0,0,0,0,0,0,0,0),(12,0,0,0,0,0,0,0,0,0,0,0,0,0),(13,0,0,0,0,0,0,0,0,0,0,0,0,0),(14,0,0,0,0,0,0,0,0,0,0,0,0,0),(15,0,0,0,0,0,0,0,0,0,0,0,0,0),(16,0,0,0,0,0,0,0,0,0,0,0,0,0);
+/*!40000 ALTER TABLE `inventory_summary` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `lapor`
 --
@@ -164,6 +233,7 @@ CREATE TABLE `lapor` (
   UNIQUE KEY `no_laporan` (`no_laporan`),
   KEY `id_peminjaman` (`id_peminjaman`),
   KEY `kode_barang` (`kode_barang`),
+  KEY `idx_lapor_created` (`created_at`,`id_laporan`),
   CONSTRAINT `lapor_ibfk_1` FOREIGN KEY (`id_peminjaman`) REFERENCES `borrow` (`id_peminjaman`),
   CONSTRAINT `lapor_ibfk_2` FOREIGN KEY (`kode_barang`) REFERENCES `barang` (`kode_barang`) ON UPDATE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -252,7 +322,9 @@ CREATE TABLE `user` (
   `updated_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
   PRIMARY KEY (`id_user`),
   UNIQUE KEY `username` (`username`),
-  KEY `idx_user_role` (`role`)
+  KEY `idx_user_role` (`role`),
+  KEY `idx_user_created` (`created_at`,`id_user`),
+  KEY `idx_user_nama` (`nama`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1001 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -5,8 +5,15 @@
 package com.inventaris;
 
 import com.inventaris.config.DatabaseConfig;
-import com.inventaris.controller.DashboardController;
-import com.inventaris.controller.PeminjamanController;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.dao.BarangSearchIndex;
+import com.inventaris.dao.InventorySummaryDAO;
+import com.inventaris.dao.QueryCache;
+import com.inventaris.dao.QuickOpenIndex;
+import com.inventaris.util.AutoRefreshable;
+import com.inventaris.util.QuickOpenPalette;
+import com.inventaris.util.RefreshScheduler;
+import com.inventaris.util.SessionManager;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -16,10 +23,12 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
+import java.time.Duration;
+
 /**
  * Main Application Class
  * Entry point untuk aplikasi Inventaris Barang
- * UPDATED: Added cleanup for auto-refresh timelines
+ * UPDATED: Auto-refresh handled by RefreshScheduler
  */
 public class Main extends Application {
     
@@ -27,6 +36,12 @@ public class Main extends Application {
     private static Scene currentScene;
     private static Object currentController; // Store current controller for cleanup
     
+    // Interval pencocokan ulang inventory_summary dengan tabel dasar
+    private static final Duration SUMMARY_RECONCILE_INTERVAL = Duration.ofMinutes(15);
+    
+    // Interval pengecekan data_version untuk membuang cache yang diubah klien lain
+    private static final Duration CACHE_SYNC_INTERVAL = Duration.ofSeconds(10);
+    
     @Override
     public void start(Stage stage) {
         try {
@@ -47,6 +62,16 @@ public class Main extends Application {
                 return;
             }
             
+            // Perbaiki drift counter inventory_summary saat start, lalu berkala
+            InventorySummaryDAO summaryDAO = new InventorySummaryDAO();
+            DbExecutor.schedule(summaryDAO::reconcile, Duration.ZERO, SUMMARY_RECONCILE_INTERVAL);
+            
+            QueryCache queryCache = QueryCache.getInstance();
+            DbExecutor.schedule(queryCache::syncVersions, Duration.ZERO, CACHE_SYNC_INTERVAL);
+            
+            // Index pencarian barang dibangun di background, bukan saat search pertama
+            DbExecutor.run(BarangSearchIndex.getInstance()::warmUp);
+            
             // Load Login Screen
             showLoginScreen();
             
@@ -61,6 +86,9 @@ public class Main extends Application {
                 System.out.println("⚠️  App icon not found, using default");
             }
             
+            // Auto-refresh diperlambat saat window tidak fokus / diminimize
+            RefreshScheduler.getInstance().attachStage(primaryStage);
+            
             // Handle window close event
             primaryStage.setOnCloseRequest(event -> {
                 System.out.println("🔴 Application closing...");
@@ -89,6 +117,9 @@ public class Main extends Application {
         // Cleanup previous controller
         cleanupCurrentController();
         
+        // Index quick-open berisi data semua user, dibuang saat logout
+        QuickOpenIndex.getInstance().clear();
+        
         System.out.println("🔍 Looking for Login.fxml...");
         FXMLLoader loader = new FXMLLoader(Main.class.getResource("/fxml/Login.fxml"));
         
@@ -143,6 +174,11 @@ public class Main extends Application {
             Scene scene = new Scene(root, 1200, 700);
             scene.getStylesheets().add(Main.class.getResource("/css/style.css").toExternalForm());
             
+            // Palette quick-open (Ctrl+K) khusus admin
+            if (SessionManager.getInstance().isAdmin()) {
+                QuickOpenPalette.install(scene);
+            }
+            
             currentScene = scene;
             currentController = loader.getController(); // Store controller
             
@@ -222,26 +258,17 @@ public class Main extends Application {
     }
     
     /**
-     * Cleanup current controller (stop auto-refresh timelines)
-     * CRITICAL: Prevents memory leaks from Timeline threads
+     * Cleanup current controller (stop auto-refresh)
+     * CRITICAL: Prevents refresh tasks from running for screens that are no longer shown
      */
     private static void cleanupCurrentController() {
         if (currentController != null) {
             try {
-                // Stop auto-refresh in DashboardController
-                if (currentController instanceof DashboardController) {
-                    ((DashboardController) currentController).stopAutoRefresh();
-                    System.out.println("🛑 DashboardController auto-refresh stopped");
+                // Controller dengan auto-refresh dilepas dari RefreshScheduler
+                if (currentController instanceof AutoRefreshable) {
+                    RefreshScheduler.getInstance().unregister((AutoRefreshable) currentController);
                 }
                 
-                // Stop auto-refresh in PeminjamanController
-                if (currentController instanceof PeminjamanController) {
-                    ((PeminjamanController) currentController).stopAutoRefresh();
-                    System.out.println("🛑 PeminjamanController auto-refresh stopped");
-                }
-                
-                // Add more controllers here if they have auto-refresh
-                
             } catch (Exception e) {
                 System.err.println("⚠️  Error cleaning up controller: " + e.getMessage());
             }
@@ -328,6 +355,10 @@ public class Main extends Application {
         
         // Cleanup all resources
         cleanupCurrentController();
+        RefreshScheduler.getInstance().shutdown();
+        DbExecutor.getInstance().shutdown();
+        DatabaseConfig.getInstance().shutdown();
+        System.out.println("📊 Query cache: " + QueryCache.getInstance().getStats());
         
         System.out.println("✅ Cleanup completed");
         System.out.println("👋 Goodbye!");
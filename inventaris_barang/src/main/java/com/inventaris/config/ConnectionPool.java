@@ -0,0 +1,711 @@
+// ================================================================
+// File: src/main/java/com/inventaris/config/ConnectionPool.java
+// ================================================================
+package com.inventaris.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionPool - Bounded pool koneksi JDBC
+ * Koneksi fisik dipakai ulang; close() dari DAO mengembalikan koneksi ke pool.
+ * Dilengkapi validasi koneksi idle, deteksi kebocoran, cache prepared statement
+ * per koneksi, dan counter metrik.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int maxSize;
+    private final int minIdle;
+    private final long connectionTimeoutMs;
+    private final int validationTimeoutSec;
+    private final long idleValidationMs;
+    private final long idleTimeoutMs;
+    private final long leakThresholdMs;
+    // Stack trace lokasi borrow hanya direkam jika diaktifkan (mahal per borrow)
+    private final boolean leakTracing;
+    private final int statementCacheSize;
+
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param url JDBC URL
+     * @param username Database username
+     * @param password Database password
+     * @param config Pool properties (db.pool.*)
+     */
+    public ConnectionPool(String url, String username, String password, Properties config) {
+        this.url = url;
+        this.connectionProperties = new Properties();
+        this.connectionProperties.setProperty("user", username);
+        this.connectionProperties.setProperty("password", password != null ? password : "");
+
+        this.maxSize = Math.max(1, intProperty(config, "db.pool.maxSize", 10));
+        this.minIdle = Math.min(maxSize, intProperty(config, "db.pool.minIdle", 2));
+        this.connectionTimeoutMs = intProperty(config, "db.pool.connectionTimeoutMs", 10000);
+        this.validationTimeoutSec = intProperty(config, "db.pool.validationTimeoutSec", 2);
+        this.idleValidationMs = intProperty(config, "db.pool.idleValidationMs", 30000);
+        this.idleTimeoutMs = intProperty(config, "db.pool.idleTimeoutMs", 600000);
+        this.leakThresholdMs = intProperty(config, "db.pool.leakThresholdMs", 30000);
+        this.leakTracing = config != null && Boolean.parseBoolean(config.getProperty("db.pool.leakTracing", "false"));
+        this.statementCacheSize = intProperty(config, "db.pool.statementCacheSize", 64);
+        
+        // Server-side prepare agar statement yang di-cache tidak di-parse ulang oleh MySQL
+        if (statementCacheSize > 0) {
+            this.connectionProperties.setProperty("useServerPrepStmts",
+                config != null ? config.getProperty("db.pool.useServerPrepStmts", "true") : "true");
+        }
+        // Batch JDBC (approve/reject massal) dikirim dalam satu round trip
+        this.connectionProperties.setProperty("rewriteBatchedStatements",
+            config != null ? config.getProperty("db.pool.rewriteBatchedStatements", "true") : "true");
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(leakThresholdMs, 5000));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Pinjam koneksi dari pool
+     * Menunggu maksimal connectionTimeoutMs jika semua koneksi sedang dipakai.
+     *
+     * @return Connection (logical); close() mengembalikannya ke pool
+     * @throws SQLException jika pool habis atau koneksi gagal dibuat
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool sudah ditutup");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                    "Connection pool habis (" + maxSize + " aktif), timeout " + connectionTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                pooled.closePhysical();
+            }
+            if (pooled == null) {
+                pooled = createPooledConnection();
+            }
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = leakTracing ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            active.add(pooled);
+            return pooled.newLogicalConnection();
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Tutup pool beserta semua koneksi fisik yang idle
+     * Koneksi yang masih aktif ditutup saat dikembalikan.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+    }
+
+    /**
+     * Snapshot metrik pool
+     */
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(
+            active.size(),
+            idle.size(),
+            maxSize,
+            permits.getQueueLength(),
+            borrows,
+            borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.get() / borrows),
+            TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+            timeoutCount.get(),
+            createdCount.get(),
+            leakCount.get(),
+            statementCacheHits.get(),
+            statementCacheMisses.get(),
+            statementCacheEvictions.get()
+        );
+    }
+
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+
+    private PooledConnection createPooledConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Validasi koneksi idle; koneksi yang lama idle dicek dengan isValid()
+     */
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            long idleFor = System.currentTimeMillis() - pooled.lastReturnedAt;
+            if (idleFor > idleValidationMs) {
+                return pooled.physical.isValid(validationTimeoutSec);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Kembalikan koneksi ke pool (dipanggil dari close() logical connection)
+     */
+    private void release(PooledConnection pooled) {
+        if (!active.remove(pooled)) {
+            return;
+        }
+
+        try {
+            pooled.closeOpenStatements();
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            pooled.borrowSite = null;
+
+            if (shutdown) {
+                pooled.closePhysical();
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️  Discarding broken pooled connection: " + e.getMessage());
+            pooled.closePhysical();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Housekeeping periodik: deteksi leak, buang koneksi idle lama, isi minIdle
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Leak detection
+        for (PooledConnection pooled : active) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMs) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("⚠️  Possible connection leak: connection held for "
+                    + (now - pooled.borrowedAt) + " ms without being closed");
+                Throwable site = pooled.borrowSite;
+                if (site != null) {
+                    site.printStackTrace();
+                } else {
+                    System.err.println("   Set db.pool.leakTracing=true to log where it was borrowed");
+                }
+            }
+        }
+
+        // Evict idle connections beyond minIdle
+        for (PooledConnection pooled : idle) {
+            if (idle.size() <= minIdle) {
+                break;
+            }
+            if (now - pooled.lastReturnedAt > idleTimeoutMs && idle.remove(pooled)) {
+                pooled.closePhysical();
+            }
+        }
+
+        // Keep minIdle connections warm
+        while (!shutdown && idle.size() < minIdle && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = createPooledConnection();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static int intProperty(Properties config, String key, int defaultValue) {
+        if (config == null) {
+            return defaultValue;
+        }
+        String value = config.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️  Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // ============================================================
+    // POOLED CONNECTION
+    // ============================================================
+
+    /**
+     * Koneksi fisik yang dikelola pool
+     */
+    private final class PooledConnection {
+
+        private final Connection physical;
+        private final List<Statement> openStatements = new ArrayList<>();
+        private final Map<String, PreparedStatement> statementCache =
+            new LinkedHashMap<>(16, 0.75f, true);
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Buat proxy Connection baru untuk satu kali peminjaman
+         */
+        private Connection newLogicalConnection() {
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new LogicalConnectionHandler(this)
+            );
+        }
+
+        private synchronized void trackStatement(Statement statement) {
+            openStatements.add(statement);
+        }
+
+        /**
+         * Tutup statement yang lupa ditutup oleh pemanggil
+         */
+        private synchronized void closeOpenStatements() {
+            for (Statement statement : openStatements) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    // Ignore, connection is being recycled
+                }
+            }
+            openStatements.clear();
+        }
+
+        /**
+         * Ambil prepared statement dari cache (LRU) atau prepare baru
+         * Statement dikeluarkan dari cache selama dipakai, sehingga SQL yang sama
+         * yang di-prepare dua kali sekaligus tetap mendapat statement terpisah.
+         */
+        private synchronized PreparedStatement checkoutStatement(String key, String sql, Integer autoGeneratedKeys)
+                throws SQLException {
+            PreparedStatement cached = statementCache.remove(key);
+            if (cached != null && !cached.isClosed()) {
+                statementCacheHits.incrementAndGet();
+                return cached;
+            }
+            statementCacheMisses.incrementAndGet();
+            return autoGeneratedKeys != null
+                ? physical.prepareStatement(sql, autoGeneratedKeys)
+                : physical.prepareStatement(sql);
+        }
+
+        /**
+         * Kembalikan prepared statement ke cache; eviksi entry paling lama jika penuh
+         * Setting per-eksekusi (query timeout, fetch size, max rows) dikembalikan
+         * ke default, agar tidak terbawa ke pemakai SQL yang sama berikutnya.
+         */
+        private synchronized void returnStatement(String key, PreparedStatement statement) {
+            try {
+                if (statement.isClosed()) {
+                    return;
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                statement.setQueryTimeout(0);
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+            } catch (SQLException e) {
+                closeQuietly(statement);
+                return;
+            }
+
+            if (statementCache.containsKey(key)) {
+                closeQuietly(statement);
+                return;
+            }
+            statementCache.put(key, statement);
+
+            Iterator<PreparedStatement> eldest = statementCache.values().iterator();
+            while (statementCache.size() > statementCacheSize && eldest.hasNext()) {
+                closeQuietly(eldest.next());
+                eldest.remove();
+                statementCacheEvictions.incrementAndGet();
+            }
+        }
+
+        private void closePhysical() {
+            synchronized (this) {
+                statementCache.clear();
+            }
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * InvocationHandler untuk logical connection
+     * close() mengembalikan koneksi ke pool, bukan menutup koneksi fisik.
+     */
+    private final class LogicalConnectionHandler implements InvocationHandler {
+
+        private final PooledConnection pooled;
+        private boolean closed = false;
+
+        private LogicalConnectionHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection sudah dikembalikan ke pool");
+            }
+
+            if (statementCacheSize > 0 && "prepareStatement".equals(name) && isCacheable(method)) {
+                String sql = (String) args[0];
+                Integer autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : null;
+                String key = autoGeneratedKeys != null ? autoGeneratedKeys + "#" + sql : sql;
+                PreparedStatement statement = pooled.checkoutStatement(key, sql, autoGeneratedKeys);
+                PreparedStatement logical = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    new CachedStatementHandler(pooled, key, statement, (Connection) proxy)
+                );
+                pooled.trackStatement(logical);
+                return logical;
+            }
+
+            try {
+                Object result = method.invoke(pooled.physical, args);
+                if (result instanceof Statement) {
+                    pooled.trackStatement((Statement) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Hanya prepareStatement(String) dan prepareStatement(String, int) yang di-cache
+     */
+    private static boolean isCacheable(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        return (types.length == 1 && types[0] == String.class)
+            || (types.length == 2 && types[0] == String.class && types[1] == int.class);
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * InvocationHandler untuk prepared statement yang di-cache
+     * close() menutup result set yang masih terbuka lalu mengembalikan statement ke cache.
+     */
+    private final class CachedStatementHandler implements InvocationHandler {
+
+        private final PooledConnection pooled;
+        private final String key;
+        private final PreparedStatement statement;
+        private final Connection logicalConnection;
+        private final List<ResultSet> openResultSets = new ArrayList<>();
+        private boolean closed = false;
+
+        private CachedStatementHandler(PooledConnection pooled, String key,
+                                       PreparedStatement statement, Connection logicalConnection) {
+            this.pooled = pooled;
+            this.key = key;
+            this.statement = statement;
+            this.logicalConnection = logicalConnection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        for (ResultSet rs : openResultSets) {
+                            closeQuietly(rs);
+                        }
+                        openResultSets.clear();
+                        pooled.returnStatement(key, statement);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return logicalConnection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + key + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement sudah ditutup");
+            }
+
+            try {
+                Object result = method.invoke(statement, args);
+                if (result instanceof ResultSet) {
+                    openResultSets.add((ResultSet) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // ============================================================
+    // POOL STATISTICS
+    // ============================================================
+
+    /**
+     * PoolStats - Snapshot metrik connection pool
+     */
+    public static final class PoolStats {
+
+        private final int active;
+        private final int idle;
+        private final int maxSize;
+        private final int waiting;
+        private final long borrowCount;
+        private final long averageWaitMicros;
+        private final long maxWaitMillis;
+        private final long timeoutCount;
+        private final long createdCount;
+        private final long leakCount;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+
+        private PoolStats(int active, int idle, int maxSize, int waiting, long borrowCount,
+                          long averageWaitMicros, long maxWaitMillis, long timeoutCount,
+                          long createdCount, long leakCount, long statementCacheHits,
+                          long statementCacheMisses, long statementCacheEvictions) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.averageWaitMicros = averageWaitMicros;
+            this.maxWaitMillis = maxWaitMillis;
+            this.timeoutCount = timeoutCount;
+            this.createdCount = createdCount;
+            this.leakCount = leakCount;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        public long getAverageWaitMicros() {
+            return averageWaitMicros;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public long getTimeoutCount() {
+            return timeoutCount;
+        }
+
+        public long getCreatedCount() {
+            return createdCount;
+        }
+
+        public long getLeakCount() {
+            return leakCount;
+        }
+
+        public long getStatementCacheHits() {
+            return statementCacheHits;
+        }
+
+        public long getStatementCacheMisses() {
+            return statementCacheMisses;
+        }
+
+        public long getStatementCacheEvictions() {
+            return statementCacheEvictions;
+        }
+
+        /**
+         * Persentase hit cache prepared statement
+         */
+        public double getStatementCacheHitRate() {
+            long total = statementCacheHits + statementCacheMisses;
+            return total == 0 ? 0 : (double) statementCacheHits * 100 / total;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats{" +
+                    "active=" + active +
+                    ", idle=" + idle +
+                    ", max=" + maxSize +
+                    ", waiting=" + waiting +
+                    ", borrows=" + borrowCount +
+                    ", avgWaitUs=" + averageWaitMicros +
+                    ", maxWaitMs=" + maxWaitMillis +
+                    ", timeouts=" + timeoutCount +
+                    ", created=" + createdCount +
+                    ", leaks=" + leakCount +
+                    ", stmtHits=" + statementCacheHits +
+                    ", stmtMisses=" + statementCacheMisses +
+                    ", stmtEvictions=" + statementCacheEvictions +
+                    '}';
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.inventaris.config;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
@@ -18,9 +17,13 @@ public class DatabaseConfig {
     private static String DB_USERNAME;
     private static String DB_PASSWORD;
     private static String DB_DRIVER;
+    private static final Properties POOL_PROPERTIES = new Properties();
     
     // Singleton instance
-    private static DatabaseConfig instance;
+    private static volatile DatabaseConfig instance;
+    
+    // Connection pool (dibuat sekali per aplikasi)
+    private final ConnectionPool pool;
     
     // Static block untuk load properties
     static {
@@ -37,7 +40,9 @@ public class DatabaseConfig {
     /**
      * Private constructor untuk Singleton pattern
      */
-    private DatabaseConfig() {}
+    private DatabaseConfig() {
+        this.pool = new ConnectionPool(DB_URL, DB_USERNAME, DB_PASSWORD, POOL_PROPERTIES);
+    }
     
     /**
      * Get Singleton instance
@@ -72,6 +77,12 @@ public class DatabaseConfig {
             DB_PASSWORD = properties.getProperty("db.password");
             DB_DRIVER = properties.getProperty("db.driver");
             
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith("db.pool.")) {
+                    POOL_PROPERTIES.setProperty(key, properties.getProperty(key));
+                }
+            }
+            
             System.out.println("✅ Database properties loaded successfully");
             
         } catch (IOException e) {
@@ -93,16 +104,20 @@ public class DatabaseConfig {
     }
     
     /**
-     * Mendapatkan koneksi database baru
+     * Mendapatkan koneksi database dari pool
+     * Koneksi harus ditutup (close) agar kembali ke pool.
      * 
      * @return Connection object
      * @throws SQLException jika koneksi gagal
      */
     public Connection getConnection() throws SQLException {
+        // Di dalam unit of work, pakai koneksi yang sudah terikat ke thread ini
+        Connection bound = TransactionManager.getInstance().currentConnection();
+        if (bound != null) {
+            return bound;
+        }
         try {
-            Connection conn = DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
-            System.out.println("✅ Database connection established");
-            return conn;
+            return pool.getConnection();
         } catch (SQLException e) {
             System.err.println("❌ Failed to connect to database");
             System.err.println("URL: " + DB_URL);
@@ -141,6 +156,21 @@ public class DatabaseConfig {
         }
     }
     
+    /**
+     * Metrik connection pool (active, idle, wait time, leak)
+     */
+    public ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+    
+    /**
+     * Tutup connection pool saat aplikasi berhenti
+     */
+    public void shutdown() {
+        pool.shutdown();
+        System.out.println("✅ Connection pool closed: " + pool.getStats());
+    }
+    
     // Getters
     public static String getDbUrl() {
         return DB_URL;
@@ -156,6 +186,7 @@ public class DatabaseConfig {
         System.out.println("URL: " + DB_URL);
         System.out.println("Username: " + DB_USERNAME);
         System.out.println("Driver: " + DB_DRIVER);
+        System.out.println("Pool: " + pool.getStats());
         System.out.println("==============================");
     }
 }
\ No newline at end of file
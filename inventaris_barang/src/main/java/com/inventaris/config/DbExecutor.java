@@ -0,0 +1,144 @@
+// ================================================================
+// File: src/main/java/com/inventaris/config/DbExecutor.java
+// ================================================================
+package com.inventaris.config;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DbExecutor - Executor untuk menjalankan query database di luar JavaFX Application Thread
+ * Jumlah worker mengikuti ukuran connection pool, sehingga query async
+ * tidak pernah mengantri lebih banyak koneksi daripada yang tersedia.
+ * Antrean tugas juga dibatasi (QUEUE_PER_WORKER per worker); jika penuh,
+ * tugas ditolak dan future-nya langsung gagal dengan RejectedExecutionException,
+ * bukan menumpuk tanpa batas saat database lambat.
+ * Menggunakan Singleton Pattern
+ */
+public class DbExecutor {
+    
+    private static volatile DbExecutor instance;
+    
+    // Kapasitas antrean per worker sebelum tugas baru ditolak
+    private static final int QUEUE_PER_WORKER = 8;
+    
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    
+    private DbExecutor() {
+        int workers = Math.max(2, DatabaseConfig.getInstance().getPoolStats().getMaxSize());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "db-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        
+        this.executor = new ThreadPoolExecutor(
+            workers, workers,
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(workers * QUEUE_PER_WORKER),
+            factory,
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+        
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public static DbExecutor getInstance() {
+        if (instance == null) {
+            synchronized (DbExecutor.class) {
+                if (instance == null) {
+                    instance = new DbExecutor();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Jalankan pekerjaan database secara async
+     * 
+     * @param task Pekerjaan yang mengembalikan hasil
+     * @return CompletableFuture berisi hasil pekerjaan (gagal jika antrean penuh)
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, getInstance().executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Jalankan pekerjaan database tanpa hasil secara async
+     */
+    public static CompletableFuture<Void> run(Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, getInstance().executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Jalankan pekerjaan database secara berkala (job latar belakang)
+     * Pekerjaan tetap dieksekusi di worker pool; scheduler menunggu sampai selesai,
+     * sehingga eksekusi tidak pernah tumpang tindih.
+     * 
+     * @param task Pekerjaan berkala
+     * @param initialDelay Jeda sebelum eksekusi pertama
+     * @param period Jeda antara akhir satu eksekusi dan awal berikutnya
+     * @return ScheduledFuture untuk membatalkan job
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, Duration initialDelay, Duration period) {
+        DbExecutor self = getInstance();
+        return self.scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                run(task).join();
+            } catch (Exception e) {
+                System.err.println("⚠️  Scheduled DB task failed: " + e.getMessage());
+            }
+        }, initialDelay.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Executor mentah, untuk dipakai bersama API CompletableFuture lain
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+    
+    /**
+     * Hentikan semua worker (dipanggil saat aplikasi ditutup)
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(3, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("✅ DB executor stopped");
+    }
+}
@@ -0,0 +1,61 @@
+// ================================================================
+// File: src/main/java/com/inventaris/config/QueryCancellation.java
+// ================================================================
+package com.inventaris.config;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * QueryCancellation - Token untuk membatalkan query yang sedang berjalan
+ * DAO mendaftarkan Statement sebelum executeQuery(); cancel() dari thread lain
+ * memanggil Statement.cancel(), sehingga MySQL menghentikan query (KILL QUERY)
+ * dan worker DbExecutor langsung bebas untuk query berikutnya.
+ */
+public class QueryCancellation {
+    
+    private Statement statement;
+    private boolean cancelled;
+    
+    /**
+     * Daftarkan statement yang akan dieksekusi
+     * 
+     * @return false jika token sudah dibatalkan (query tidak perlu dijalankan)
+     */
+    public synchronized boolean register(Statement statement) {
+        if (cancelled) {
+            return false;
+        }
+        this.statement = statement;
+        return true;
+    }
+    
+    /**
+     * Lepas statement setelah query selesai
+     */
+    public synchronized void unregister(Statement statement) {
+        if (this.statement == statement) {
+            this.statement = null;
+        }
+    }
+    
+    /**
+     * Batalkan query yang terdaftar (jika masih berjalan)
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            System.err.println("⚠️  Failed to cancel query: " + e.getMessage());
+        }
+        statement = null;
+    }
+    
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,251 @@
+// ================================================================
+// File: src/main/java/com/inventaris/config/TransactionManager.java
+// ================================================================
+package com.inventaris.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * TransactionManager - Unit of work di atas satu koneksi pool
+ * inTransaction() mengikat satu koneksi ke thread pemanggil; selama unit of
+ * work berjalan, DatabaseConfig.getConnection() mengembalikan koneksi yang
+ * sama, sehingga beberapa method DAO (dengan signature yang ada) berjalan di
+ * satu transaksi. Commit/rollback hanya dilakukan di sini:
+ * - commit(), setAutoCommit() dan close() dari DAO diabaikan
+ * - rollback() dari DAO menandai unit of work rollback-only
+ * - pemanggilan inTransaction() bersarang ikut transaksi terluar
+ * Tulisan ke baris yang dipakai bersama banyak transaksi (data_version,
+ * inventory_summary) dikumpulkan lewat deferred() dan ditulis tepat sebelum
+ * commit, agar lock barisnya hanya ditahan sebentar dan selalu dalam urutan
+ * yang sama.
+ * Koneksi terikat per thread; kerja yang dilempar ke DbExecutor tidak ikut.
+ * Menggunakan Singleton Pattern
+ */
+public class TransactionManager {
+    
+    private static volatile TransactionManager instance;
+    
+    /**
+     * Kerja yang dijalankan di dalam transaksi
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+    
+    /**
+     * Tulisan yang dikumpulkan selama transaksi dan ditulis sebelum commit
+     */
+    @FunctionalInterface
+    public interface Deferred {
+        void flush(Connection conn) throws SQLException;
+    }
+    
+    private static final class UnitOfWork {
+        private final Connection connection;
+        private final Connection participant;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        // Urut berdasarkan key, sehingga semua transaksi mengunci dalam urutan yang sama
+        private final Map<String, Deferred> deferred = new TreeMap<>();
+        private boolean rollbackOnly;
+        
+        private UnitOfWork(Connection connection) {
+            this.connection = connection;
+            this.participant = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ParticipantHandler(this)
+            );
+        }
+    }
+    
+    private final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+    
+    private TransactionManager() {
+    }
+    
+    public static TransactionManager getInstance() {
+        if (instance == null) {
+            synchronized (TransactionManager.class) {
+                if (instance == null) {
+                    instance = new TransactionManager();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Jalankan kerja dalam satu transaksi
+     * Commit jika kerja selesai normal, rollback jika melempar exception atau
+     * ada DAO di dalamnya yang memanggil rollback().
+     * 
+     * @param work Kerja yang memakai koneksi terikat
+     * @return Hasil kerja
+     * @throws SQLException jika kerja gagal atau transaksi di-rollback
+     */
+    public <T> T inTransaction(Work<T> work) throws SQLException {
+        UnitOfWork active = current.get();
+        if (active != null) {
+            // Bersarang: ikut transaksi terluar
+            return work.execute(active.participant);
+        }
+        
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            UnitOfWork unit = new UnitOfWork(conn);
+            current.set(unit);
+            try {
+                conn.setAutoCommit(false);
+                T result = work.execute(unit.participant);
+                if (!unit.rollbackOnly) {
+                    for (Deferred pending : unit.deferred.values()) {
+                        pending.flush(unit.participant);
+                    }
+                }
+                
+                if (unit.rollbackOnly) {
+                    conn.rollback();
+                    throw new SQLException("Transaction rolled back by a participating DAO");
+                }
+                conn.commit();
+                current.remove();
+                runAfterCommit(unit);
+                return result;
+            
+            } catch (SQLException | RuntimeException e) {
+                rollbackQuietly(conn);
+                throw e;
+            
+            } finally {
+                current.remove();
+            }
+        }
+    }
+    
+    /**
+     * Jalankan aksi setelah transaksi yang sedang berjalan di-commit
+     * (mis. membuang cache). Tanpa unit of work, aksi langsung dijalankan.
+     * Aksi dibuang jika transaksi di-rollback.
+     */
+    public void afterCommit(Runnable action) {
+        UnitOfWork active = current.get();
+        if (active != null) {
+            active.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+    
+    /**
+     * Tulisan tertunda milik transaksi yang sedang berjalan
+     * Dibuat sekali per transaksi dengan factory, lalu di-flush dengan koneksi
+     * transaksi tepat sebelum commit (urut berdasarkan key). Exception dari
+     * flush membatalkan transaksi; jika transaksi di-rollback, tulisan dibuang.
+     * 
+     * @param key Nama tulisan (juga menentukan urutan flush)
+     * @param factory Pembuat tulisan baru
+     * @return Tulisan untuk transaksi ini, atau null jika tidak ada unit of work
+     */
+    @SuppressWarnings("unchecked")
+    public <D extends Deferred> D deferred(String key, Supplier<D> factory) {
+        UnitOfWork active = current.get();
+        if (active == null) {
+            return null;
+        }
+        return (D) active.deferred.computeIfAbsent(key, ignored -> factory.get());
+    }
+    
+    /**
+     * Apakah thread ini sedang berada di dalam unit of work
+     */
+    public boolean isActive() {
+        return current.get() != null;
+    }
+    
+    /**
+     * Koneksi terikat untuk thread ini, null jika tidak ada unit of work
+     * Dipakai DatabaseConfig.getConnection().
+     */
+    Connection currentConnection() {
+        UnitOfWork active = current.get();
+        return active != null ? active.participant : null;
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private static void runAfterCommit(UnitOfWork unit) {
+        for (Runnable action : unit.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️  After-commit action failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            System.err.println("⚠️  Rollback failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * InvocationHandler untuk koneksi yang dibagikan ke DAO di dalam unit of work
+     */
+    private static final class ParticipantHandler implements InvocationHandler {
+        
+        private final UnitOfWork unit;
+        
+        private ParticipantHandler(UnitOfWork unit) {
+            this.unit = unit;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                    return null;
+                case "getAutoCommit":
+                    return false;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        unit.rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "isClosed":
+                    return unit.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWork[" + unit.connection + "]";
+                default:
+                    break;
+            }
+            
+            try {
+                return method.invoke(unit.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -5,10 +5,16 @@
 package com.inventaris.controller;
 
 import com.inventaris.Main;
+import com.inventaris.config.DbExecutor;
 import com.inventaris.dao.BarangDAO;
+import com.inventaris.dao.QuickOpenIndex;
 import com.inventaris.model.Barang;
 import com.inventaris.util.AlertUtil;
+import com.inventaris.util.DebouncedSearch;
+import com.inventaris.util.FxAsync;
 import com.inventaris.util.LogActivityUtil;
+import com.inventaris.util.PagedTableLoader;
+import com.inventaris.util.QuickOpenTarget;
 import com.inventaris.util.SessionManager;
 import com.inventaris.util.ValidationUtil;
 import javafx.collections.FXCollections;
@@ -26,13 +32,14 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.ArrayList;
 
 /**
  * BarangController - Manage CRUD operations for Barang
  * UPDATED: Added instansi ownership & role-based authorization
  */
-public class BarangController implements Initializable {
+public class BarangController implements Initializable, QuickOpenTarget {
     
     // ============================================================
     // FXML FIELDS
@@ -78,6 +85,9 @@ public class BarangController implements Initializable {
     
     private final BarangDAO barangDAO = new BarangDAO();
     private final SessionManager sessionManager = SessionManager.getInstance();
+    private PagedTableLoader<Barang> barangLoader;
+    private DebouncedSearch<List<Barang>> barangSearch;
+    private String pendingRevealKode; // dipilih setelah hasil search tampil (quick-open)
     private Barang selectedBarang;
     private boolean isEditMode = false;
     
@@ -156,10 +166,24 @@ public class BarangController implements Initializable {
                     selectedBarang = newSelection;
                     populateForm(newSelection);
                     setEditMode(true);
+                    loadDetailIfNeeded(newSelection);
                 }
             }
         );
         
+        // Search-as-you-type; keyword kosong kembali ke list biasa
+        barangSearch = new DebouncedSearch<>(searchField, (keyword, cancellation) -> keyword.isEmpty()
+                ? CompletableFuture.completedFuture(null)
+                : DbExecutor.supply(() -> searchForCurrentRole(keyword)),
+            results -> {
+                if (results == null) {
+                    loadBarangData();
+                } else {
+                    barangTable.setItems(FXCollections.observableArrayList(results));
+                    selectPendingReveal();
+                }
+            });
+        
         // Load instansi list (NEW)
         loadInstansiList();
         
@@ -196,8 +220,12 @@ public class BarangController implements Initializable {
             List<Barang> barangList;
             
             if (sessionManager.isAdmin() || sessionManager.isPeminjam()) {
-                // Admin & Peminjam: lihat SEMUA
-                barangList = barangDAO.getAll();
+                // Admin & Peminjam: lihat SEMUA, dimuat per halaman saat tabel di-scroll
+                if (barangLoader == null) {
+                    barangLoader = new PagedTableLoader<>(barangTable, barangDAO::getPage);
+                }
+                barangLoader.reload();
+                return;
             } else if (sessionManager.isInstansi()) {
                 // Instansi: hanya barang sendiri
                 Integer instansiId = sessionManager.getCurrentRoleId();
@@ -476,32 +504,7 @@ public class BarangController implements Initializable {
      */
     @FXML
     private void handleSearch() {
-        String keyword = searchField.getText().trim();
-        
-        if (keyword.isEmpty()) {
-            loadBarangData();
-            return;
-        }
-        
-        try {
-            List<Barang> results = barangDAO.search(keyword);
-            
-            // Filter by instansi if needed
-            if (sessionManager.isInstansi()) {
-                Integer instansiId = sessionManager.getCurrentRoleId();
-                results.removeIf(b -> 
-                    b.getIdInstansi() == null || 
-                    !b.getIdInstansi().equals(instansiId)
-                );
-            }
-            
-            ObservableList<Barang> observableList = FXCollections.observableArrayList(results);
-            barangTable.setItems(observableList);
-            
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Gagal melakukan pencarian!");
-            e.printStackTrace();
-        }
+        barangSearch.runNow();
     }
     
     // ============================================================
@@ -529,6 +532,25 @@ public class BarangController implements Initializable {
         }
     }
     
+    /**
+     * Muat deskripsi & foto untuk barang dari projection ringkas (lazy loading)
+     */
+    private void loadDetailIfNeeded(Barang barang) {
+        if (barang.isDetailLoaded()) {
+            return;
+        }
+        
+        FxAsync.onFx(barangDAO.getDetailAsync(barang.getKodeBarang()), detail -> {
+            if (detail == null) {
+                return;
+            }
+            barang.applyDetail(detail);
+            if (barang == selectedBarang) {
+                deskripsiArea.setText(barang.getDeskripsi());
+            }
+        });
+    }
+    
     /**
      * Clear form
      */
@@ -632,27 +654,47 @@ public class BarangController implements Initializable {
     }
     
     public void searchBarang(String keyword) {
-    searchField.setText(keyword);
+        searchField.setText(keyword);
+        barangSearch.runNow();
+    }
+    
+    /**
+     * Tampilkan barang dari palette quick-open: cari kodenya lalu pilih barisnya
+     */
+    @Override
+    public void reveal(QuickOpenIndex.Item item) {
+        pendingRevealKode = item.key();
+        searchBarang(item.key());
+    }
+    
+    private void selectPendingReveal() {
+        String kode = pendingRevealKode;
+        pendingRevealKode = null;
+        if (kode == null) {
+            return;
+        }
+        for (Barang barang : barangTable.getItems()) {
+            if (kode.equals(barang.getKodeBarang())) {
+                barangTable.getSelectionModel().select(barang);
+                barangTable.scrollTo(barang);
+                return;
+            }
+        }
+    }
+
 
-    try {
-        List<Barang> results = barangDAO.search(keyword);
 
+    /**
+     * Search barang sesuai role; instansi hanya barang miliknya (filter di SQL)
+     */
+    private List<Barang> searchForCurrentRole(String keyword) {
         if (sessionManager.isInstansi()) {
             Integer instansiId = sessionManager.getCurrentRoleId();
-            results.removeIf(b -> b.getIdInstansi() == null ||
-                                   !b.getIdInstansi().equals(instansiId));
+            return instansiId != null ? barangDAO.searchByInstansi(keyword, instansiId) : new ArrayList<>();
         }
-
-        barangTable.setItems(FXCollections.observableArrayList(results));
-
-    } catch (Exception e) {
-        AlertUtil.showError("Error", "Gagal melakukan pencarian!");
-        e.printStackTrace();
+        return barangDAO.search(keyword);
     }
-}
-
-
-
+    
     /**
      * Disable editing for peminjam (read-only)
      */
@@ -4,16 +4,20 @@
 package com.inventaris.controller;
 
 import com.inventaris.Main;
-import com.inventaris.dao.BarangDAO;
+import com.inventaris.config.DbExecutor;
 import com.inventaris.dao.BorrowDAO;
-import com.inventaris.model.Barang;
+import com.inventaris.dao.DataVersionDAO;
+import com.inventaris.dao.StatsDAO;
 import com.inventaris.model.Borrow;
 import com.inventaris.model.User;
 import com.inventaris.util.AlertUtil;
+import com.inventaris.util.AutoRefreshable;
+import com.inventaris.util.DataVersionWatcher;
+import com.inventaris.util.FxAsync;
 import com.inventaris.util.LogActivityUtil;
+import com.inventaris.util.RefreshScheduler;
 import com.inventaris.util.SessionManager;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -22,20 +26,20 @@ import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.animation.Timeline;
-import javafx.animation.KeyFrame;
-import javafx.util.Duration;
 import java.util.stream.Collectors;
 
 import java.net.URL;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * DashboardController - Main dashboard controller
  */
-public class DashboardController implements Initializable {
+public class DashboardController implements Initializable, AutoRefreshable {
     
     
     @FXML private Label welcomeLabel;
@@ -65,10 +69,12 @@ public class DashboardController implements Initializable {
     @FXML private TableColumn<Borrow, String> colStatus;
     
     private final SessionManager sessionManager = SessionManager.getInstance();
-    private final BarangDAO barangDAO = new BarangDAO();
     private final BorrowDAO borrowDAO = new BorrowDAO();
+    private final StatsDAO statsDAO = new StatsDAO();
     private Parent dashboardRoot; 
-    private Timeline refreshTimeline;
+    private final DataVersionWatcher versionWatcher =
+        new DataVersionWatcher(DataVersionDAO.BARANG, DataVersionDAO.BORROW);
+    private volatile LocalDate lastLoadedDate = LocalDate.now();
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -100,7 +106,7 @@ public class DashboardController implements Initializable {
         
         
         // Start auto-refresh
-        startAutoRefresh();
+        RefreshScheduler.getInstance().register(this);
         
         System.out.println("✅ Dashboard initialized for: " + currentUser.getUsername());
     }
@@ -174,62 +180,63 @@ private void handleSearch() {
     /**
      * Load dashboard statistics
      */
-    private void loadDashboardStatistics() {
-        try {
-            List<Barang> allBarang = barangDAO.getAll();
-            
-            int total = allBarang.size();
-            int tersedia = (int) allBarang.stream()
-                .filter(b -> b.getJumlahTersedia() > 0 && "tersedia".equals(b.getStatus()))
-                .count();
-            
-            List<Borrow> activeBorrows = borrowDAO.getActiveBorrows();
-            int dipinjam = activeBorrows.size();
-            
-            List<Borrow> overdueBorrows = borrowDAO.getOverdueBorrows();
-            int overdue = overdueBorrows.size();
+    private CompletableFuture<Void> loadDashboardStatistics() {
+        // Satu query agregat di DbExecutor, label di-update di FX thread
+        return FxAsync.onFx(statsDAO.getDashboardStatsAsync(), stats -> {
+            if (stats == null) {
+                return;
+            }
             
             // Update labels
-            if (totalBarangLabel != null) totalBarangLabel.setText(String.valueOf(total));
-            if (tersediaLabel != null) tersediaLabel.setText(String.valueOf(tersedia));
-            if (dipinjamLabel != null) dipinjamLabel.setText(String.valueOf(dipinjam));
-            if (overdueLabel != null) overdueLabel.setText(String.valueOf(overdue));
+            if (totalBarangLabel != null) totalBarangLabel.setText(String.valueOf(stats.totalBarang()));
+            if (tersediaLabel != null) tersediaLabel.setText(String.valueOf(stats.barangTersedia()));
+            if (dipinjamLabel != null) dipinjamLabel.setText(String.valueOf(stats.dipinjam()));
+            if (overdueLabel != null) overdueLabel.setText(String.valueOf(stats.overdue()));
             
-        } catch (Exception e) {
+        }, e -> {
             System.err.println("Error loading statistics: " + e.getMessage());
             e.printStackTrace();
-        }
+        });
     }
-    /**
- * Start auto-refresh timeline
- */
-    private void startAutoRefresh() {
-        refreshTimeline = new Timeline(new KeyFrame(
-            Duration.seconds(5),
-            event -> {
-                loadDashboardStatistics();
-                loadRecentBorrows();
-            }
-        ));
-        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
-        refreshTimeline.play();
-        System.out.println("✅ Auto-refresh started (every 5 seconds)");
+    
+    @Override
+    public Duration getRefreshInterval() {
+        return Duration.ofSeconds(5);
     }
-
+    
+    @Override
+    public CompletableFuture<?> refreshAsync() {
+        // Query berat hanya jika data berubah (atau tanggal berganti, karena overdue bergantung hari ini)
+        // Versi baru dicatat hanya jika reload berhasil, agar reload yang gagal diulang
+        return DbExecutor.supply(versionWatcher::check)
+            .thenCompose(check -> {
+                LocalDate today = LocalDate.now();
+                if (!check.hasChanged() && today.equals(lastLoadedDate)) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return CompletableFuture.allOf(loadDashboardStatistics(), loadRecentBorrows())
+                    .thenRun(() -> {
+                        lastLoadedDate = today;
+                        versionWatcher.markSeen(check);
+                    });
+            });
+    }
+    
     /**
-     * Stop auto-refresh
+     * Load recent borrows
      */
-    public void stopAutoRefresh() {
-        if (refreshTimeline != null) {
-            refreshTimeline.stop();
-            System.out.println("⏹️ Auto-refresh stopped");
-        }
+    private CompletableFuture<Void> loadRecentBorrows() {
+        return FxAsync.onFx(DbExecutor.supply(this::queryRecentBorrows), borrows -> {
+            if (recentBorrowTable != null) {
+                recentBorrowTable.setItems(FXCollections.observableArrayList(borrows));
+            }
+        }, e -> System.err.println("Error loading recent borrows: " + e.getMessage()));
     }
+    
     /**
-     * Load recent borrows
+     * Query recent borrows sesuai role (dijalankan di DbExecutor)
      */
-    private void loadRecentBorrows() {
-    try {
+    private List<Borrow> queryRecentBorrows() {
         List<Borrow> borrows;
         
         if (sessionManager.isAdmin()) {
@@ -251,17 +258,9 @@ private void handleSearch() {
         } else if (sessionManager.isInstansi()) {
             // Instansi: peminjaman barang milik mereka
             Integer instansiId = sessionManager.getCurrentRoleId();
-            List<Borrow> allBorrows = borrowDAO.getAll();
-            borrows = allBorrows.stream()
-                .filter(b -> {
-                    com.inventaris.model.Barang barang = 
-                        new com.inventaris.dao.BarangDAO().getByKode(b.getKodeBarang());
-                    return barang != null && 
-                           barang.getIdInstansi() != null &&
-                           barang.getIdInstansi().equals(instansiId) &&
-                           "dipinjam".equals(b.getStatusBarang());
-                })
-                .collect(Collectors.toList());
+            borrows = instansiId != null
+                ? borrowDAO.getByInstansiAndStatus(instansiId, "dipinjam")
+                : new ArrayList<>();
                 
         } else {
             borrows = new ArrayList<>();
@@ -269,22 +268,10 @@ private void handleSearch() {
         
         // Limit to 10 recent
         if (borrows.size() > 10) {
-            borrows = borrows.subList(0, 10);
+            borrows = new ArrayList<>(borrows.subList(0, 10));
         }
-        
-        ObservableList<Borrow> observableList = FXCollections.observableArrayList(borrows);
-        
-        if (recentBorrowTable != null) {
-            // Update UI on JavaFX thread
-            javafx.application.Platform.runLater(() -> {
-                recentBorrowTable.setItems(observableList);
-            });
-        }
-        
-    } catch (Exception e) {
-        System.err.println("Error loading recent borrows: " + e.getMessage());
+        return borrows;
     }
-}
     
     /**
      * Handle menu navigation
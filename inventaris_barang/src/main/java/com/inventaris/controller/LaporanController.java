@@ -4,12 +4,21 @@
 package com.inventaris.controller;
 
 import com.inventaris.Main;
+import com.inventaris.config.DbExecutor;
 import com.inventaris.dao.BorrowDAO;
+import com.inventaris.dao.InventorySummaryDAO;
 import com.inventaris.dao.LaporDAO;
+import com.inventaris.dao.LogActivityDAO;
+import com.inventaris.dao.StatsDAO;
 import com.inventaris.model.Borrow;
+import com.inventaris.model.InventorySummary;
 import com.inventaris.model.Lapor;
+import com.inventaris.model.LogActivity;
 import com.inventaris.util.AlertUtil;
+import com.inventaris.util.CsvExporter;
+import com.inventaris.util.FxAsync;
 import com.inventaris.util.LogActivityUtil;
+import com.inventaris.util.PagedTableLoader;
 import com.inventaris.util.SessionManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -18,11 +27,17 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.stream.Stream;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.layout.BorderPane;
@@ -60,6 +75,7 @@ public class LaporanController implements Initializable {
     @FXML private Button btnPeminjaman;
     @FXML private Button btnLaporan;
     @FXML private Button btnUser;
+    @FXML private Button btnExportLog;
     
     @FXML
 private ScrollPane rootPane;
@@ -69,6 +85,10 @@ private ScrollPane rootPane;
     
     private final BorrowDAO borrowDAO = new BorrowDAO();
     private final LaporDAO laporDAO = new LaporDAO();
+    private final InventorySummaryDAO summaryDAO = new InventorySummaryDAO();
+    private final StatsDAO statsDAO = new StatsDAO();
+    private final LogActivityDAO logActivityDAO = new LogActivityDAO();
+    private PagedTableLoader<Lapor> laporLoader;
     private final SessionManager sessionManager = SessionManager.getInstance();
     
     
@@ -133,6 +153,10 @@ private void configureMenuByRole(String role) {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         configureMenuByRole(sessionManager.getCurrentRole());
+        if (btnExportLog != null) {
+            btnExportLog.setVisible(sessionManager.isAdmin());
+            btnExportLog.setManaged(sessionManager.isAdmin());
+        }
         // Setup table
         setupLaporTable();
         
@@ -314,24 +338,32 @@ private void configureMenuByRole(String role) {
      */
     private void loadLaporan() {
         try {
-            List<Lapor> laporList = laporDAO.getAll();
+            if (sessionManager.isAdmin()) {
+                // Admin: semua laporan, dimuat per halaman saat tabel di-scroll
+                if (laporLoader == null) {
+                    laporLoader = new PagedTableLoader<>(laporTable,
+                        (after, limit) -> laporDAO.getPage(null, after, limit));
+                }
+                laporLoader.reload();
+                return;
+            }
             
-            // Filter by user if not admin
-            if (!sessionManager.isAdmin()) {
-                String username = sessionManager.getCurrentUsername();
-                laporList.removeIf(l -> !username.equals(l.getNamaPeminjam()));
+            List<Lapor> laporList;
+            
+            if (sessionManager.isInstansi()) {
+                // Instansi: laporan atas barang miliknya (filter di SQL)
+                Integer instansiId = sessionManager.getCurrentRoleId();
+                laporList = instansiId != null ? laporDAO.getByInstansi(instansiId) : new ArrayList<>();
+            } else {
+                laporList = laporDAO.getAll();
+                
+                // Filter by user if not admin
+                if (!sessionManager.isAdmin()) {
+                    String username = sessionManager.getCurrentUsername();
+                    laporList.removeIf(l -> !username.equals(l.getNamaPeminjam()));
+                }
             }
-            // Filter untuk instansi
-if (sessionManager.isInstansi()) {
-    Integer instansiId = sessionManager.getCurrentRoleId();
-    laporList.removeIf(l -> {
-        com.inventaris.model.Barang barang = 
-            new com.inventaris.dao.BarangDAO().getByKode(l.getKodeBarang());
-        return barang == null || 
-               barang.getIdInstansi() == null || 
-               !barang.getIdInstansi().equals(instansiId);
-    });
-}
+            
             ObservableList<Lapor> observableList = FXCollections.observableArrayList(laporList);
             laporTable.setItems(observableList);
             
@@ -346,6 +378,16 @@ if (sessionManager.isInstansi()) {
      */
     private void loadStatistics() {
         try {
+            if (sessionManager.isAdmin()) {
+                // Admin: counter global dari inventory_summary, tanpa menarik baris
+                InventorySummary summary = summaryDAO.getSummary();
+                if (summary != null) {
+                    updateStatisticLabels(summary.borrowTotal(), summary.borrowAktif(), summary.borrowSelesai(),
+                        statsDAO.getOverdueCount(), summary.laporTotal());
+                    return;
+                }
+            }
+            
             List<Borrow> allBorrows;
             
             if (sessionManager.isAdmin()) {
@@ -378,18 +420,24 @@ if (sessionManager.isInstansi()) {
             }
             int totalLaporan = laporan.size();
             
-            // Update labels
-            if (totalPeminjamanLabel != null) totalPeminjamanLabel.setText(String.valueOf(total));
-            if (aktifLabel != null) aktifLabel.setText(String.valueOf(aktif));
-            if (selesaiLabel != null) selesaiLabel.setText(String.valueOf(selesai));
-            if (terlambatLabel != null) terlambatLabel.setText(String.valueOf(terlambat));
-            if (totalLaporanLabel != null) totalLaporanLabel.setText(String.valueOf(totalLaporan));
+            updateStatisticLabels(total, aktif, selesai, terlambat, totalLaporan);
             
         } catch (Exception e) {
             System.err.println("Error loading statistics: " + e.getMessage());
         }
     }
     
+    /**
+     * Update label statistik
+     */
+    private void updateStatisticLabels(long total, long aktif, long selesai, long terlambat, long totalLaporan) {
+        if (totalPeminjamanLabel != null) totalPeminjamanLabel.setText(String.valueOf(total));
+        if (aktifLabel != null) aktifLabel.setText(String.valueOf(aktif));
+        if (selesaiLabel != null) selesaiLabel.setText(String.valueOf(selesai));
+        if (terlambatLabel != null) terlambatLabel.setText(String.valueOf(terlambat));
+        if (totalLaporanLabel != null) totalLaporanLabel.setText(String.valueOf(totalLaporan));
+    }
+    
     /**
      * Handle submit laporan
      */
@@ -497,12 +545,91 @@ if (sessionManager.isInstansi()) {
     }
     
     /**
-     * Export to CSV (simplified version)
+     * Export riwayat peminjaman ke CSV
+     * Baris di-stream dari database langsung ke file di DbExecutor.
      */
     @FXML
     private void handleExport() {
-        AlertUtil.showInfo("Export", 
-            "Fitur export akan tersedia di versi mendatang.\n" +
-            "Data dapat di-copy dari tabel dan paste ke Excel.");
+        File file = chooseCsvFile("peminjaman-" + LocalDate.now() + ".csv");
+        if (file == null) {
+            return;
+        }
+        
+        Integer peminjamId = sessionManager.isAdmin() ? null : sessionManager.getCurrentRoleId();
+        if (!sessionManager.isAdmin() && peminjamId == null) {
+            AlertUtil.showWarning("Export", "Data peminjam tidak ditemukan!");
+            return;
+        }
+        
+        String[] header = {"ID", "Peminjam", "Kode Barang", "Nama Barang", "Jumlah",
+                           "Tgl Pinjam", "Deadline", "Tgl Kembali", "Status"};
+        runExport(file, () -> {
+            try (Stream<Borrow> rows = borrowDAO.streamAll(peminjamId)) {
+                return CsvExporter.export(file.toPath(), header, rows, b -> new Object[] {
+                    b.getIdPeminjaman(), b.getNamaPeminjam(), b.getKodeBarang(), b.getNamaBarang(),
+                    b.getJumlahPinjam(), b.getTglPinjam(), b.getDlKembali(), b.getTglKembali(),
+                    b.getStatusBarang()
+                });
+            }
+        });
+    }
+    
+    /**
+     * Export log aktivitas ke CSV (Admin only)
+     */
+    @FXML
+    private void handleExportLog() {
+        if (!sessionManager.isAdmin()) {
+            return;
+        }
+        
+        File file = chooseCsvFile("log-aktivitas-" + LocalDate.now() + ".csv");
+        if (file == null) {
+            return;
+        }
+        
+        String[] header = {"ID", "Waktu", "Username", "Role", "Aktifitas", "Keterangan"};
+        runExport(file, () -> {
+            try (Stream<LogActivity> rows = logActivityDAO.streamAll()) {
+                return CsvExporter.export(file.toPath(), header, rows, l -> new Object[] {
+                    l.getIdLog(), l.getCreatedAt(), l.getUsername(), l.getUserRole(),
+                    l.getAktifitas(), l.getKeterangan()
+                });
+            }
+        });
+    }
+    
+    // ============================================================
+    // EXPORT HELPERS
+    // ============================================================
+    
+    @FunctionalInterface
+    private interface ExportTask {
+        long run() throws IOException;
+    }
+    
+    private File chooseCsvFile(String defaultName) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Simpan CSV");
+        chooser.setInitialFileName(defaultName);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV (*.csv)", "*.csv"));
+        return chooser.showSaveDialog(laporTable.getScene().getWindow());
+    }
+    
+    private void runExport(File file, ExportTask task) {
+        FxAsync.onFx(DbExecutor.supply(() -> {
+            try {
+                return task.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), count -> {
+            LogActivityUtil.log(sessionManager.getCurrentUsername(), "Export CSV: " + file.getName(),
+                "EXPORT", sessionManager.getCurrentRole());
+            AlertUtil.showSuccess("Export", count + " baris berhasil diekspor ke:\n" + file.getAbsolutePath());
+        }, e -> {
+            AlertUtil.showError("Export", "Gagal mengekspor data: " + e.getMessage());
+            e.printStackTrace();
+        });
     }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@
 package com.inventaris.controller;
 
 import com.inventaris.Main;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.dao.QuickOpenIndex;
 import com.inventaris.dao.UserDAO;
 import com.inventaris.model.User;
 import com.inventaris.util.AlertUtil;
@@ -17,9 +19,6 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 
 import java.net.URL;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.ResourceBundle;
 
 /**
@@ -142,7 +141,7 @@ public class LoginController implements Initializable {
     private void handleLoginSuccess(User user) {
         try {
             // Get role-specific ID
-            Integer roleId = getRoleId(user);
+            Integer roleId = userDAO.getRoleId(user);
             
             // Set session
             sessionManager.login(user, roleId);
@@ -150,6 +149,11 @@ public class LoginController implements Initializable {
             // Log activity
             LogActivityUtil.logLogin(user.getUsername(), user.getRole());
             
+            // Index quick-open dibangun di background selagi dashboard dimuat
+            if (sessionManager.isAdmin()) {
+                DbExecutor.run(QuickOpenIndex.getInstance()::warmUp);
+            }
+            
             // Show success message
             System.out.println("✅ Login successful: " + user.getUsername() + " (" + user.getRole() + ")");
             
@@ -162,51 +166,6 @@ public class LoginController implements Initializable {
         }
     }
     
-    /**
-     * Get role-specific ID (id_peminjam, id_admin, id_instansi)
-     */
-    private Integer getRoleId(User user) {
-        try {
-            Connection conn = com.inventaris.config.DatabaseConfig.getInstance().getConnection();
-            String sql = "";
-            String idColumn = "";
-            
-            switch (user.getRole()) {
-                case "peminjam":
-                    sql = "SELECT id_peminjam FROM peminjam WHERE id_user = ?";
-                    idColumn = "id_peminjam";
-                    break;
-                case "admin":
-                    sql = "SELECT id_admin FROM admin WHERE id_user = ?";
-                    idColumn = "id_admin";
-                    break;
-                case "instansi":
-                    sql = "SELECT id_instansi FROM instansi WHERE id_user = ?";
-                    idColumn = "id_instansi";
-                    break;
-                default:
-                    return null;
-            }
-            
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, user.getIdUser());
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                int roleId = rs.getInt(idColumn);
-                conn.close();
-                return roleId;
-            }
-            
-            conn.close();
-            
-        } catch (Exception e) {
-            System.err.println("Error getting role ID: " + e.getMessage());
-        }
-        
-        return null;
-    }
-    
     /**
      * Handle register link click
      */
@@ -4,14 +4,28 @@
 package com.inventaris.controller;
 
 import com.inventaris.Main;
+import com.inventaris.config.DbExecutor;
 import com.inventaris.dao.BarangDAO;
 import com.inventaris.dao.BorrowDAO;
+import com.inventaris.dao.DataVersionDAO;
 import com.inventaris.model.Barang;
 import com.inventaris.model.Borrow;
+import com.inventaris.model.Page;
+import com.inventaris.model.PageCursor;
+import com.inventaris.model.ReservationResult;
 import com.inventaris.util.AlertUtil;
+import com.inventaris.util.AutoRefreshable;
+import com.inventaris.util.DataVersionWatcher;
+import com.inventaris.util.FxAsync;
+import com.inventaris.util.ListMerger;
 import com.inventaris.util.LogActivityUtil;
+import com.inventaris.util.PagedTableLoader;
+import com.inventaris.util.RefreshScheduler;
 import com.inventaris.util.SessionManager;
 import com.inventaris.util.ValidationUtil;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -20,22 +34,29 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
-import javafx.animation.Timeline;
-import javafx.animation.KeyFrame;
-import javafx.util.Duration;
-import java.util.stream.Collectors;
 
 import java.net.URL;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 
 /**
  * PeminjamanController - Handle borrowing and returning items
  */
-public class PeminjamanController implements Initializable {
+public class PeminjamanController implements Initializable, AutoRefreshable {
     
     // Form Fields untuk Peminjaman Baru
     @FXML private ComboBox<Barang> barangCombo;
@@ -44,6 +65,9 @@ public class PeminjamanController implements Initializable {
     @FXML private DatePicker dlKembaliPicker;
     @FXML private Label stokTersediaLabel;
     @FXML private Button btnPinjam;
+    @FXML private ListView<Borrow> cartList;
+    @FXML private Button btnHapusKeranjang;
+    @FXML private Button btnAjukanKeranjang;
     
     // Tab Panes
     @FXML private TabPane tabPane;
@@ -71,6 +95,8 @@ public class PeminjamanController implements Initializable {
     @FXML private TableColumn<Borrow, Integer> colPendingJumlah;
     @FXML private TableColumn<Borrow, LocalDate> colPendingTgl;
     @FXML private TableColumn<Borrow, Void> colPendingAction;
+    @FXML private Button btnApproveSelected;
+    @FXML private Button btnRejectSelected;
     
     // Table Riwayat
     @FXML private TableView<Borrow> historyTable;
@@ -89,10 +115,26 @@ public class PeminjamanController implements Initializable {
     private ScrollPane rootPane;
     @FXML private TextField txtSearch;
     
-    private Timeline refreshTimeline;
     private final BarangDAO barangDAO = new BarangDAO();
     private final BorrowDAO borrowDAO = new BorrowDAO();
+    private final DataVersionWatcher versionWatcher = new DataVersionWatcher(
+        DataVersionDAO.BORROW, DataVersionDAO.BARANG, DataVersionDAO.BARANG_DELETE);
+    
+    // Delta fetch: baris dengan updated_at >= watermark - overlap diambil ulang,
+    // overlap menutup transaksi yang commit sedikit setelah watermark dicatat
+    private static final long DELTA_OVERLAP_MS = 5000;
+    private volatile Timestamp borrowWatermark;
+    private volatile Timestamp barangWatermark;
+    
+    // Riwayat dimuat per halaman (keyset pagination) saat tabel di-scroll
+    private PagedTableLoader<Borrow> historyLoader;
     private final SessionManager sessionManager = SessionManager.getInstance();
+    
+    // Keranjang: barang yang akan diajukan sekaligus (tanggal diambil dari form saat diajukan)
+    private final ObservableList<Borrow> cart = FXCollections.observableArrayList();
+    
+    // Pengajuan sedang diproses di DbExecutor; tombol ajukan dinonaktifkan
+    private final BooleanProperty submitting = new SimpleBooleanProperty(false);
     @FXML
     private Label lblSimak;
     
@@ -145,11 +187,16 @@ public class PeminjamanController implements Initializable {
         
         // Setup barang combo listener
         barangCombo.setOnAction(e -> updateStokInfo());
+        if (btnPinjam != null) {
+            btnPinjam.disableProperty().bind(submitting);
+        }
+        setupCart();
         
         // Configure tables
         setupActiveTable();
         setupPendingTable();
         setupHistoryTable();
+        historyLoader = new PagedTableLoader<>(historyTable, this::queryHistoryPage);
         
         // Load data
         loadAllData();
@@ -165,23 +212,153 @@ public class PeminjamanController implements Initializable {
         }
 
         // Start auto-refresh
-        startAutoRefresh();
+        RefreshScheduler.getInstance().register(this);
         System.out.println("✅ Peminjaman Controller initialized");
     }
     
     
     
+    @Override
+    public Duration getRefreshInterval() {
+        return Duration.ofSeconds(3);
+    }
+    
+    @Override
+    public CompletableFuture<?> refreshAsync() {
+        // Query hanya jika tabel borrow/barang berubah sejak refresh terakhir;
+        // perubahan diambil sebagai delta (borrow tidak pernah dihapus),
+        // penghapusan barang memaksa reload penuh daftar barang
+        return DbExecutor.supply(versionWatcher::check).thenCompose(check -> {
+            Set<String> changed = check.changedTables();
+            List<CompletableFuture<?>> work = new ArrayList<>();
+            
+            if (borrowWatermark == null) {
+                work.add(loadAllData());
+            } else if (changed.contains(DataVersionDAO.BORROW)) {
+                work.add(loadBorrowDelta());
+            }
+            
+            if (barangWatermark == null || changed.contains(DataVersionDAO.BARANG_DELETE)) {
+                work.add(FxAsync.onFx(DbExecutor.supply(this::queryAvailableBarang), this::applyAvailableBarang));
+            } else if (changed.contains(DataVersionDAO.BARANG)) {
+                work.add(loadBarangDelta());
+            }
+            
+            // Versi baru dicatat hanya jika semua reload berhasil, agar yang gagal diulang
+            return CompletableFuture.allOf(work.toArray(new CompletableFuture<?>[0]))
+                .thenRun(() -> versionWatcher.markSeen(check));
+        });
+    }
+    
     /**
- * Start auto-refresh
- */
-private void startAutoRefresh() {
-    refreshTimeline = new Timeline(new KeyFrame(
-        Duration.seconds(3),
-        event -> loadAllData()
-    ));
-    refreshTimeline.setCycleCount(Timeline.INDEFINITE);
-    refreshTimeline.play();
-}
+     * Ambil peminjaman yang berubah sejak watermark lalu gabungkan ke tabel
+     */
+    private CompletableFuture<Void> loadBorrowDelta() {
+        Timestamp since = new Timestamp(borrowWatermark.getTime() - DELTA_OVERLAP_MS);
+        
+        CompletableFuture<List<Borrow>> changedFuture = borrowDAO.getChangedSinceAsync(since);
+        CompletableFuture<Set<String>> ownedFuture = changedFuture.thenApply(this::queryOwnedKode);
+        
+        return FxAsync.onFx(ownedFuture, ownedKode -> {
+            List<Borrow> changed = changedFuture.join();
+            if (changed.isEmpty()) {
+                return;
+            }
+            
+            Integer roleId = sessionManager.getCurrentRoleId();
+            boolean admin = sessionManager.isAdmin();
+            Predicate<Borrow> ownBorrow = b -> admin || (roleId != null && roleId.equals(b.getIdPeminjam()));
+            Predicate<Borrow> activeScope = sessionManager.isInstansi()
+                ? b -> ownedKode.contains(b.getKodeBarang())
+                : ownBorrow;
+            Comparator<Borrow> newestFirst = Comparator.comparing(Borrow::getCreatedAt,
+                Comparator.nullsLast(Comparator.<Timestamp>reverseOrder()));
+            
+            ListMerger.merge(activeTable.getItems(), changed, Borrow::getIdPeminjaman,
+                b -> "dipinjam".equals(b.getStatusBarang()) && activeScope.test(b),
+                Comparator.comparing(Borrow::getDlKembali));
+            
+            if (admin) {
+                ListMerger.merge(pendingTable.getItems(), changed, Borrow::getIdPeminjaman,
+                    b -> "pending".equals(b.getStatusBarang()),
+                    newestFirst);
+            }
+            
+            ListMerger.merge(historyTable.getItems(), changed, Borrow::getIdPeminjaman,
+                b -> !"dipinjam".equals(b.getStatusBarang()) && !"pending".equals(b.getStatusBarang()) && ownBorrow.test(b)
+                    && historyLoader.isLoaded(new PageCursor(b.getCreatedAt(), b.getIdPeminjaman())),
+                newestFirst);
+            
+            borrowWatermark = maxTimestamp(borrowWatermark, changed, Borrow::getUpdatedAt);
+        });
+    }
+    
+    /**
+     * Kode barang milik instansi yang login (satu query, bukan per baris)
+     */
+    private Set<String> queryOwnedKode(List<Borrow> changed) {
+        Set<String> owned = new HashSet<>();
+        Integer instansiId = sessionManager.getCurrentRoleId();
+        if (changed.isEmpty() || !sessionManager.isInstansi() || instansiId == null) {
+            return owned;
+        }
+        
+        for (Barang barang : barangDAO.getByInstansi(instansiId)) {
+            owned.add(barang.getKodeBarang());
+        }
+        return owned;
+    }
+    
+    /**
+     * Ambil barang yang berubah sejak watermark lalu gabungkan ke combo barang
+     * Nama barang di tabel peminjaman ikut diperbarui.
+     */
+    private CompletableFuture<Void> loadBarangDelta() {
+        Timestamp since = new Timestamp(barangWatermark.getTime() - DELTA_OVERLAP_MS);
+        
+        return FxAsync.onFx(barangDAO.getChangedSinceAsync(since), changed -> {
+            if (changed.isEmpty()) {
+                return;
+            }
+            
+            String selectedKode = barangCombo.getValue() != null ? barangCombo.getValue().getKodeBarang() : null;
+            ListMerger.merge(barangCombo.getItems(), changed, Barang::getKodeBarang,
+                this::isBorrowable,
+                Comparator.comparing(Barang::getNamaBarang, String.CASE_INSENSITIVE_ORDER));
+            reselectBarang(selectedKode);
+            
+            Map<String, String> names = new HashMap<>();
+            for (Barang barang : changed) {
+                names.put(barang.getKodeBarang(), barang.getNamaBarang());
+            }
+            for (TableView<Borrow> table : List.of(activeTable, pendingTable, historyTable)) {
+                boolean renamed = false;
+                for (Borrow borrow : table.getItems()) {
+                    String nama = names.get(borrow.getKodeBarang());
+                    if (nama != null && !nama.equals(borrow.getNamaBarang())) {
+                        borrow.setNamaBarang(nama);
+                        renamed = true;
+                    }
+                }
+                if (renamed) {
+                    table.refresh();
+                }
+            }
+            
+            barangWatermark = maxTimestamp(barangWatermark, changed, Barang::getUpdatedAt);
+        });
+    }
+    
+    private static <T> Timestamp maxTimestamp(Timestamp current, List<T> rows, Function<T, Timestamp> getter) {
+        Timestamp max = current;
+        for (T row : rows) {
+            Timestamp value = getter.apply(row);
+            if (value != null && (max == null || value.after(max))) {
+                max = value;
+            }
+        }
+        return max;
+    }
 
 
  @FXML
@@ -216,35 +393,60 @@ private void startAutoRefresh() {
       
         Main.loadContent("User.fxml");
     }
-/**
- * 
- * Stop auto-refresh
- */
-public void stopAutoRefresh() {
-    if (refreshTimeline != null) {
-        refreshTimeline.stop();
-    }
-}
     /**
      * Load available barang for borrowing
      */
     private void loadAvailableBarang() {
-    List<Barang> availableBarang = barangDAO.getAvailable();
+        applyAvailableBarang(queryAvailableBarang());
+    }
     
-    // Jika instansi, jangan tampilkan barang sendiri
-    if (sessionManager.isInstansi()) {
+    private List<Barang> queryAvailableBarang() {
+        // Jika instansi, jangan tampilkan barang sendiri
         Integer instansiId = sessionManager.getCurrentRoleId();
-        availableBarang.removeIf(b -> 
-            b.getIdInstansi() != null && 
-            b.getIdInstansi().equals(instansiId)
-        );
+        if (sessionManager.isInstansi() && instansiId != null) {
+            return barangDAO.getAvailableExcludingInstansi(instansiId);
+        }
+        return barangDAO.getAvailable();
     }
     
-    ObservableList<Barang> observableList = FXCollections.observableArrayList(availableBarang);
-    barangCombo.setItems(observableList);
+    private void applyAvailableBarang(List<Barang> availableBarang) {
+        String selectedKode = barangCombo.getValue() != null ? barangCombo.getValue().getKodeBarang() : null;
+        barangCombo.setItems(FXCollections.observableArrayList(availableBarang));
+        reselectBarang(selectedKode);
+        barangWatermark = maxTimestamp(barangWatermark, availableBarang, Barang::getUpdatedAt);
+    }
     
-    // ... rest of cell factory code stays same
-}
+    /**
+     * Barang bisa dipinjam: stok ada, status tersedia, dan bukan milik instansi sendiri
+     */
+    private boolean isBorrowable(Barang barang) {
+        if (barang.getJumlahTersedia() <= 0 || !"tersedia".equals(barang.getStatus())) {
+            return false;
+        }
+        if (sessionManager.isInstansi()) {
+            Integer instansiId = sessionManager.getCurrentRoleId();
+            return barang.getIdInstansi() == null || !barang.getIdInstansi().equals(instansiId);
+        }
+        return true;
+    }
+    
+    /**
+     * Pilih ulang barang setelah item combo diganti, lalu perbarui info stok
+     */
+    private void reselectBarang(String kodeBarang) {
+        if (kodeBarang == null) {
+            return;
+        }
+        Barang match = null;
+        for (Barang barang : barangCombo.getItems()) {
+            if (kodeBarang.equals(barang.getKodeBarang())) {
+                match = barang;
+                break;
+            }
+        }
+        barangCombo.setValue(match);
+        updateStokInfo();
+    }
     
     /**
      * Update stock info when barang selected
@@ -344,6 +546,15 @@ public void stopAutoRefresh() {
         colPendingJumlah.setCellValueFactory(new PropertyValueFactory<>("jumlahPinjam"));
         colPendingTgl.setCellValueFactory(new PropertyValueFactory<>("tglPeminjaman"));
         
+        // Multi-select untuk approve/reject massal
+        pendingTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        if (btnApproveSelected != null) {
+            btnApproveSelected.disableProperty().bind(
+                pendingTable.getSelectionModel().selectedItemProperty().isNull());
+            btnRejectSelected.disableProperty().bind(
+                pendingTable.getSelectionModel().selectedItemProperty().isNull());
+        }
+        
         // Action buttons (Admin only)
         colPendingAction.setCellFactory(col -> new TableCell<Borrow, Void>() {
             private final Button btnApprove = new Button("✓ Setujui");
@@ -404,6 +615,7 @@ public void stopAutoRefresh() {
                             break;
                         case "hilang":
                         case "rusak":
+                        case "ditolak":
                             setStyle("-fx-background-color: #fed7d7; -fx-text-fill: #742a2a;");
                             break;
                         default:
@@ -416,20 +628,42 @@ public void stopAutoRefresh() {
     
     /**
      * Load all data
+     * Query dijalankan bersamaan di DbExecutor, tabel di-update di FX thread
      */
-    private void loadAllData() {
-        loadActiveborrows();
-        if (sessionManager.isAdmin()) {
-            loadPendingBorrows();
+    private CompletableFuture<Void> loadAllData() {
+        CompletableFuture<Void> pending = sessionManager.isAdmin()
+            ? loadPendingBorrows()
+            : CompletableFuture.completedFuture(null);
+        return CompletableFuture.allOf(loadActiveborrows(), pending, loadHistory())
+            .thenRun(() -> FxAsync.runOnFx(this::updateBorrowWatermark));
+    }
+    
+    /**
+     * Watermark delta = updated_at terbaru dari baris yang sedang tampil
+     */
+    private void updateBorrowWatermark() {
+        Timestamp watermark = borrowWatermark;
+        for (TableView<Borrow> table : List.of(activeTable, pendingTable, historyTable)) {
+            if (table.getItems() != null) {
+                watermark = maxTimestamp(watermark, table.getItems(), Borrow::getUpdatedAt);
+            }
         }
-        loadHistory();
+        borrowWatermark = watermark;
     }
     
     /**
      * Load active borrows
      */
-    private void loadActiveborrows() {
-    try {
+    private CompletableFuture<Void> loadActiveborrows() {
+        return FxAsync.onFx(DbExecutor.supply(this::queryActiveBorrows),
+            borrows -> activeTable.setItems(FXCollections.observableArrayList(borrows)),
+            e -> {
+                AlertUtil.showError("Error", "Gagal memuat data peminjaman aktif!");
+                e.printStackTrace();
+            });
+    }
+    
+    private List<Borrow> queryActiveBorrows() {
         List<Borrow> borrows;
 
         if (sessionManager.isAdmin()) {
@@ -438,16 +672,9 @@ public void stopAutoRefresh() {
         } else if (sessionManager.isInstansi()) {
             // Instansi: peminjaman barang milik mereka
             Integer instansiId = sessionManager.getCurrentRoleId();
-            List<Borrow> allBorrows = borrowDAO.getAll();
-            borrows = allBorrows.stream()
-                    .filter(b -> {
-                        Barang barang = barangDAO.getByKode(b.getKodeBarang());
-                        return barang != null &&
-                               barang.getIdInstansi() != null &&
-                               barang.getIdInstansi().equals(instansiId) &&
-                               "dipinjam".equals(b.getStatusBarang());
-                    })
-                    .collect(Collectors.toList());
+            borrows = instansiId != null
+                    ? borrowDAO.getByInstansiAndStatus(instansiId, "dipinjam")
+                    : new ArrayList<>();
         } else {
             // Peminjam: hanya peminjaman mereka sendiri
             Integer peminjamId = sessionManager.getCurrentRoleId();
@@ -455,63 +682,42 @@ public void stopAutoRefresh() {
                 borrows = borrowDAO.getByPeminjamId(peminjamId);
                 borrows.removeIf(b -> !"dipinjam".equals(b.getStatusBarang()));
             } else {
-                borrows = FXCollections.observableArrayList();
+                borrows = new ArrayList<>();
             }
         }
-
-        ObservableList<Borrow> observableList = FXCollections.observableArrayList(borrows);
-        activeTable.setItems(observableList);
-
-    } catch (Exception e) {
-        AlertUtil.showError("Error", "Gagal memuat data peminjaman aktif!");
-        e.printStackTrace();
+        return borrows;
     }
-}
-
     
     /**
      * Load pending borrows (Admin only)
      */
-    private void loadPendingBorrows() {
-        try {
-            List<Borrow> borrows = borrowDAO.getPendingBorrows();
-            ObservableList<Borrow> observableList = FXCollections.observableArrayList(borrows);
-            pendingTable.setItems(observableList);
-            
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Gagal memuat data pending!");
-            e.printStackTrace();
-        }
+    private CompletableFuture<Void> loadPendingBorrows() {
+        return FxAsync.onFx(borrowDAO.getPendingBorrowsAsync(),
+            borrows -> pendingTable.setItems(FXCollections.observableArrayList(borrows)),
+            e -> {
+                AlertUtil.showError("Error", "Gagal memuat data pending!");
+                e.printStackTrace();
+            });
     }
     
     /**
-     * Load history
+     * Load history (halaman pertama; sisanya dimuat saat tabel di-scroll)
      */
-    private void loadHistory() {
-        try {
-            List<Borrow> borrows;
-            
-            if (sessionManager.isAdmin()) {
-                borrows = borrowDAO.getAll();
-            } else {
-                Integer peminjamId = sessionManager.getCurrentRoleId();
-                if (peminjamId != null) {
-                    borrows = borrowDAO.getByPeminjamId(peminjamId);
-                } else {
-                    borrows = FXCollections.observableArrayList();
-                }
-            }
-            
-            // Filter only returned/lost/damaged
-            borrows.removeIf(b -> "dipinjam".equals(b.getStatusBarang()) || "pending".equals(b.getStatusBarang()));
-            
-            ObservableList<Borrow> observableList = FXCollections.observableArrayList(borrows);
-            historyTable.setItems(observableList);
-            
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Gagal memuat riwayat!");
-            e.printStackTrace();
+    private CompletableFuture<Void> loadHistory() {
+        return historyLoader.reload();
+    }
+    
+    private Page<Borrow> queryHistoryPage(PageCursor after, int limit) {
+        if (sessionManager.isAdmin()) {
+            return borrowDAO.getHistoryPage(null, after, limit);
+        }
+        
+        // Only returned/lost/damaged, difilter di SQL
+        Integer peminjamId = sessionManager.getCurrentRoleId();
+        if (peminjamId != null) {
+            return borrowDAO.getHistoryPage(peminjamId, after, limit);
         }
+        return new Page<>(new ArrayList<>(), null);
     }
     
     /**
@@ -554,30 +760,204 @@ public void stopAutoRefresh() {
             borrow.setDlKembali(dlKembaliPicker.getValue());
             borrow.setStatusBarang("pending");
             
-            if (borrowDAO.create(borrow)) {
-                AlertUtil.showSuccess("Berhasil", 
-                    "Pengajuan peminjaman berhasil!\nMenunggu persetujuan admin.");
+            // Stok dicek ulang & dikurangi secara atomik di database (di DbExecutor)
+            submitting.set(true);
+            FxAsync.onFx(borrowDAO.reserveAsync(borrow), result -> {
+                submitting.set(false);
+                if (result.isSuccess()) {
+                    AlertUtil.showSuccess("Berhasil", 
+                        "Pengajuan peminjaman berhasil!\nMenunggu persetujuan admin.");
+                    
+                    // Log activity
+                    LogActivityUtil.logCreate(
+                        sessionManager.getCurrentUsername(),
+                        sessionManager.getCurrentRole(),
+                        "peminjaman",
+                        barang.getNamaBarang() + " - " + jumlah + " unit"
+                    );
+                    
+                    clearPinjamForm();
+                    loadAllData();
+                    loadAvailableBarang();
+                    
+                } else if (result.status() == ReservationResult.Status.INSUFFICIENT_STOCK) {
+                    // Stok di combo sudah basi (dipinjam orang lain lebih dulu)
+                    AlertUtil.showWarning("Stok Tidak Cukup", result.getMessage());
+                    loadAvailableBarang();
+                } else {
+                    AlertUtil.showError("Gagal", "Gagal mengajukan peminjaman!\n" + result.getMessage());
+                }
+            }, this::submitFailed);
+            
+        } catch (Exception e) {
+            AlertUtil.showError("Error", "Terjadi kesalahan: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    // ============================================================
+    // KERANJANG (beberapa barang, satu transaksi)
+    // ============================================================
+    
+    /**
+     * Setup keranjang peminjaman
+     */
+    private void setupCart() {
+        if (cartList == null) return;
+        
+        cartList.setItems(cart);
+        cartList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Borrow item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null
+                    : item.getNamaBarang() + " (" + item.getKodeBarang() + ") - " + item.getJumlahPinjam() + " unit");
+            }
+        });
+        btnHapusKeranjang.disableProperty().bind(cartList.getSelectionModel().selectedItemProperty().isNull());
+        btnAjukanKeranjang.disableProperty().bind(Bindings.isEmpty(cart).or(submitting));
+    }
+    
+    /**
+     * Tambah barang & jumlah dari form ke keranjang
+     * Barang yang sama digabung menjadi satu baris.
+     */
+    @FXML
+    private void handleTambahKeranjang() {
+        if (barangCombo.getValue() == null) {
+            AlertUtil.showWarning("Validasi", "Pilih barang yang akan dipinjam!");
+            return;
+        }
+        if (!ValidationUtil.isPositiveNumber(jumlahPinjamField.getText())) {
+            AlertUtil.showWarning("Validasi", "Jumlah pinjam harus berupa angka positif!");
+            jumlahPinjamField.requestFocus();
+            return;
+        }
+        
+        Barang barang = barangCombo.getValue();
+        int jumlah = Integer.parseInt(jumlahPinjamField.getText());
+        
+        Borrow line = null;
+        for (Borrow item : cart) {
+            if (item.getKodeBarang().equals(barang.getKodeBarang())) {
+                line = item;
+                break;
+            }
+        }
+        int total = jumlah + (line != null ? line.getJumlahPinjam() : 0);
+        if (total > barang.getJumlahTersedia()) {
+            AlertUtil.showWarning("Stok Tidak Cukup",
+                "Jumlah yang diminta melebihi stok tersedia!\nTersedia: " + barang.getJumlahTersedia());
+            return;
+        }
+        
+        if (line != null) {
+            line.setJumlahPinjam(total);
+            cartList.refresh();
+        } else {
+            line = new Borrow();
+            line.setKodeBarang(barang.getKodeBarang());
+            line.setNamaBarang(barang.getNamaBarang());
+            line.setJumlahPinjam(jumlah);
+            cart.add(line);
+        }
+        
+        barangCombo.setValue(null);
+        jumlahPinjamField.clear();
+        updateStokInfo();
+    }
+    
+    /**
+     * Hapus baris terpilih dari keranjang
+     */
+    @FXML
+    private void handleHapusKeranjang() {
+        Borrow selected = cartList.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            cart.remove(selected);
+        }
+    }
+    
+    /**
+     * Ajukan seluruh keranjang; berhasil semua atau tidak sama sekali
+     */
+    @FXML
+    private void handleAjukanKeranjang() {
+        if (cart.isEmpty()) {
+            return;
+        }
+        if (tglPinjamPicker.getValue() == null || dlKembaliPicker.getValue() == null) {
+            AlertUtil.showWarning("Validasi", "Pilih tanggal pinjam dan deadline kembali!");
+            return;
+        }
+        if (!ValidationUtil.isValidDateRange(tglPinjamPicker.getValue(), dlKembaliPicker.getValue())) {
+            AlertUtil.showWarning("Validasi", "Deadline harus setelah tanggal pinjam!");
+            return;
+        }
+        if (!AlertUtil.showConfirmation("Konfirmasi", "Ajukan peminjaman " + cart.size() + " barang di keranjang?")) {
+            return;
+        }
+        
+        Integer peminjamId = sessionManager.getCurrentRoleId();
+        if (peminjamId == null) {
+            AlertUtil.showError("Error", "Session tidak valid!");
+            return;
+        }
+        
+        List<Borrow> borrows = new ArrayList<>();
+        for (Borrow item : cart) {
+            Borrow borrow = new Borrow();
+            borrow.setIdPeminjam(peminjamId);
+            borrow.setKodeBarang(item.getKodeBarang());
+            borrow.setJumlahPinjam(item.getJumlahPinjam());
+            borrow.setTglPeminjaman(LocalDate.now());
+            borrow.setTglPinjam(tglPinjamPicker.getValue());
+            borrow.setDlKembali(dlKembaliPicker.getValue());
+            borrow.setStatusBarang("pending");
+            borrows.add(borrow);
+        }
+        
+        // Semua barang direservasi dalam satu transaksi (di DbExecutor)
+        submitting.set(true);
+        FxAsync.onFx(borrowDAO.reserveAllAsync(borrows), result -> {
+            submitting.set(false);
+            if (result.isSuccess()) {
+                AlertUtil.showSuccess("Berhasil",
+                    "Pengajuan " + borrows.size() + " barang berhasil!\nMenunggu persetujuan admin.");
                 
-                // Log activity
+                StringBuilder detail = new StringBuilder();
+                for (Borrow item : cart) {
+                    if (detail.length() > 0) detail.append(", ");
+                    detail.append(item.getNamaBarang()).append(" - ").append(item.getJumlahPinjam()).append(" unit");
+                }
                 LogActivityUtil.logCreate(
                     sessionManager.getCurrentUsername(),
                     sessionManager.getCurrentRole(),
                     "peminjaman",
-                    barang.getNamaBarang() + " - " + jumlah + " unit"
+                    detail.toString()
                 );
                 
+                cart.clear();
                 clearPinjamForm();
                 loadAllData();
                 loadAvailableBarang();
                 
+            } else if (result.status() == ReservationResult.Status.INSUFFICIENT_STOCK) {
+                AlertUtil.showWarning("Stok Tidak Cukup", result.getMessage() + "\nTidak ada barang yang diajukan.");
+                loadAvailableBarang();
             } else {
-                AlertUtil.showError("Gagal", "Gagal mengajukan peminjaman!");
+                AlertUtil.showError("Gagal", "Gagal mengajukan peminjaman!\n" + result.getMessage());
             }
-            
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Terjadi kesalahan: " + e.getMessage());
-            e.printStackTrace();
-        }
+        }, this::submitFailed);
+    }
+    
+    /**
+     * Pengajuan gagal dijalankan (mis. antrean DbExecutor penuh)
+     */
+    private void submitFailed(Throwable error) {
+        submitting.set(false);
+        AlertUtil.showError("Gagal", "Gagal mengajukan peminjaman!\n" + error.getMessage());
+        error.printStackTrace();
     }
     
     /**
@@ -606,7 +986,8 @@ public void stopAutoRefresh() {
             
             loadAllData();
         } else {
-            AlertUtil.showError("Gagal", "Gagal menyetujui peminjaman!");
+            AlertUtil.showError("Gagal", "Gagal menyetujui peminjaman!\nMungkin sudah diproses admin lain.");
+            loadAllData();
         }
     }
     
@@ -631,10 +1012,101 @@ public void stopAutoRefresh() {
             loadAllData();
             loadAvailableBarang();
         } else {
-            AlertUtil.showError("Gagal", "Gagal menolak peminjaman!");
+            AlertUtil.showError("Gagal", "Gagal menolak peminjaman!\nMungkin sudah diproses admin lain.");
+            loadAllData();
         }
     }
     
+    /**
+     * Handle approve semua pengajuan terpilih (satu transaksi batch)
+     */
+    @FXML
+    private void handleApproveSelected() {
+        List<Integer> ids = selectedPendingIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!AlertUtil.showConfirmation("Konfirmasi", "Setujui " + ids.size() + " peminjaman terpilih?")) {
+            return;
+        }
+        
+        Integer adminId = sessionManager.getCurrentRoleId();
+        if (adminId == null) {
+            AlertUtil.showError("Error", "Session tidak valid!");
+            return;
+        }
+        
+        FxAsync.onFx(borrowDAO.approveAllAsync(ids, adminId), approved -> {
+            if (approved == null) {
+                AlertUtil.showError("Gagal", "Gagal menyetujui peminjaman!");
+                loadAllData();
+                return;
+            }
+            
+            showBulkResult("disetujui", approved.size(), ids.size());
+            if (!approved.isEmpty()) {
+                LogActivityUtil.log(
+                    sessionManager.getCurrentUsername(),
+                    "Menyetujui " + approved.size() + " peminjaman ID: " + approved,
+                    "APPROVE_PEMINJAMAN",
+                    sessionManager.getCurrentRole()
+                );
+            }
+            loadAllData();
+        });
+    }
+    
+    /**
+     * Handle reject semua pengajuan terpilih (satu transaksi batch)
+     */
+    @FXML
+    private void handleRejectSelected() {
+        List<Integer> ids = selectedPendingIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!AlertUtil.showConfirmation("Konfirmasi",
+                "Tolak " + ids.size() + " peminjaman terpilih?\nStok akan dikembalikan.")) {
+            return;
+        }
+        
+        FxAsync.onFx(borrowDAO.rejectAllAsync(ids), rejected -> {
+            if (rejected == null) {
+                AlertUtil.showError("Gagal", "Gagal menolak peminjaman!");
+                loadAllData();
+                return;
+            }
+            
+            showBulkResult("ditolak", rejected.size(), ids.size());
+            if (!rejected.isEmpty()) {
+                LogActivityUtil.log(
+                    sessionManager.getCurrentUsername(),
+                    "Menolak " + rejected.size() + " peminjaman ID: " + rejected,
+                    "REJECT_PEMINJAMAN",
+                    sessionManager.getCurrentRole()
+                );
+            }
+            loadAllData();
+            loadAvailableBarang();
+        });
+    }
+    
+    private List<Integer> selectedPendingIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (Borrow borrow : pendingTable.getSelectionModel().getSelectedItems()) {
+            ids.add(borrow.getIdPeminjaman());
+        }
+        return ids;
+    }
+    
+    private void showBulkResult(String action, int processed, int selected) {
+        String message = processed + " peminjaman " + action + "!";
+        if (processed < selected) {
+            message += "\n" + (selected - processed) + " dilewati karena sudah diproses admin lain.";
+        }
+        AlertUtil.showSuccess("Berhasil", message);
+    }
+    
     /**
      * Handle kembalikan
      */
@@ -674,7 +1146,8 @@ public void stopAutoRefresh() {
                     loadAllData();
                     loadAvailableBarang();
                 } else {
-                    AlertUtil.showError("Gagal", "Gagal mengembalikan barang!");
+                    AlertUtil.showError("Gagal", "Gagal mengembalikan barang!\nMungkin sudah dikembalikan sebelumnya.");
+                    loadAllData();
                 }
             }
         });
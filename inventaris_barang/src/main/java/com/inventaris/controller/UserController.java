@@ -5,15 +5,22 @@
 package com.inventaris.controller;
 
 import com.inventaris.Main;
+import com.inventaris.config.QueryCancellation;
 
 import com.inventaris.dao.BorrowDAO;
 import com.inventaris.dao.LaporDAO;
+import com.inventaris.dao.QuickOpenIndex;
 import com.inventaris.dao.UserDAO;
 import com.inventaris.model.Borrow;
 import com.inventaris.model.Lapor;
+import com.inventaris.model.Page;
 import com.inventaris.model.User;
 import com.inventaris.util.AlertUtil;
+import com.inventaris.util.DebouncedSearch;
+import com.inventaris.util.FxAsync;
 import com.inventaris.util.LogActivityUtil;
+import com.inventaris.util.PagedTableLoader;
+import com.inventaris.util.QuickOpenTarget;
 import com.inventaris.util.SessionManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -25,15 +32,18 @@ import javafx.scene.layout.HBox;
 
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import javafx.scene.layout.VBox;
 
 /**
  * UserController - Admin Management Panel
  * Manage users, borrowings, and reports (Admin Only)
  */
-public class UserController implements Initializable {
+public class UserController implements Initializable, QuickOpenTarget {
     
     // ============================================================
     // TAB 1: KELOLA USER
@@ -56,6 +66,11 @@ public class UserController implements Initializable {
     @FXML private Button btnLaporan;
     @FXML private Button btnLogout;
     @FXML private Button btnUser;
+    
+    @FXML private TabPane tabPane;
+    @FXML private Tab tabUser;
+    @FXML private Tab tabBorrow;
+    @FXML private Tab tabLapor;
 
     
     // ============================================================
@@ -71,6 +86,8 @@ public class UserController implements Initializable {
     @FXML private TableColumn<Borrow, Void> colBorrowAction;
     
     @FXML private ComboBox<String> filterStatusBorrow;
+    @FXML private Button btnApproveSelected;
+    @FXML private Button btnRejectSelected;
     
     // ============================================================
     // TAB 3: KELOLA LAPORAN
@@ -91,6 +108,15 @@ public class UserController implements Initializable {
     private final LaporDAO laporDAO = new LaporDAO();
     private final SessionManager sessionManager = SessionManager.getInstance();
     
+    // Tabel diisi per halaman saat di-scroll (keyset pagination)
+    private PagedTableLoader<User> userLoader;
+    private PagedTableLoader<Borrow> borrowLoader;
+    private PagedTableLoader<Lapor> laporLoader;
+    private DebouncedSearch<Void> userSearch;
+    
+    // Username yang dipilih setelah hasil search user dimuat (dari quick-open)
+    private String pendingRevealUsername;
+    
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Check admin access
@@ -107,6 +133,13 @@ public class UserController implements Initializable {
         // Setup filters
         setupFilters();
         
+        userLoader = new PagedTableLoader<>(userTable, userDAO::getUsersPage);
+        userSearch = new DebouncedSearch<>(searchUserField, this::searchUsers, result -> selectPendingUser());
+        borrowLoader = new PagedTableLoader<>(allBorrowTable,
+            (after, limit) -> borrowDAO.getPage(null, after, limit));
+        laporLoader = new PagedTableLoader<>(allLaporTable,
+            (after, limit) -> laporDAO.getPage(null, after, limit));
+        
         // Load data
         loadAllUsers();
         loadAllBorrows();
@@ -187,14 +220,8 @@ public class UserController implements Initializable {
      * Load all users
      */
     private void loadAllUsers() {
-        try {
-            List<User> users = userDAO.getAllUsers();
-            ObservableList<User> observableList = FXCollections.observableArrayList(users);
-            userTable.setItems(observableList);
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Gagal memuat data user!");
-            e.printStackTrace();
-        }
+        userLoader.setFetcher(userDAO::getUsersPage);
+        userLoader.reload();
     }
     
     /**
@@ -255,20 +282,22 @@ public class UserController implements Initializable {
      */
     @FXML
     private void handleSearchUser() {
-        String keyword = searchUserField.getText().trim();
+        userSearch.runNow();
+    }
+    
+    /**
+     * Ganti sumber halaman tabel user sesuai keyword (dipanggil DebouncedSearch)
+     * Query search sebelumnya yang masih berjalan dibatalkan lewat cancellation.
+     */
+    private CompletableFuture<Void> searchUsers(String keyword, QueryCancellation cancellation) {
         if (keyword.isEmpty()) {
-            loadAllUsers();
-            return;
+            userLoader.setFetcher(userDAO::getUsersPage);
+        } else {
+            // Prefix match di server, hasil dimuat per halaman seperti list biasa
+            userLoader.setFetcher((after, limit) ->
+                userDAO.searchUsers(keyword, null, null, after, limit, cancellation));
         }
-        
-        List<User> allUsers = userDAO.getAllUsers();
-        allUsers.removeIf(u -> 
-            !u.getUsername().toLowerCase().contains(keyword.toLowerCase()) &&
-            !u.getNama().toLowerCase().contains(keyword.toLowerCase())
-        );
-        
-        ObservableList<User> observableList = FXCollections.observableArrayList(allUsers);
-        userTable.setItems(observableList);
+        return userLoader.reload();
     }
     
     // ============================================================
@@ -279,6 +308,15 @@ public class UserController implements Initializable {
      * Setup borrow table
      */
     private void setupBorrowTable() {
+        // Multi-select untuk approve/reject massal (hanya baris pending yang diproses)
+        allBorrowTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        if (btnApproveSelected != null) {
+            btnApproveSelected.disableProperty().bind(
+                allBorrowTable.getSelectionModel().selectedItemProperty().isNull());
+            btnRejectSelected.disableProperty().bind(
+                allBorrowTable.getSelectionModel().selectedItemProperty().isNull());
+        }
+        
         colBorrowId.setCellValueFactory(new PropertyValueFactory<>("idPeminjaman"));
         colBorrowPeminjam.setCellValueFactory(new PropertyValueFactory<>("namaPeminjam"));
         colBorrowBarang.setCellValueFactory(new PropertyValueFactory<>("namaBarang"));
@@ -363,17 +401,16 @@ public class UserController implements Initializable {
      */
     private void loadAllBorrows() {
         try {
-            List<Borrow> borrows = borrowDAO.getAll();
-            
-            // Filter by status if selected
+            // Filter by status if selected (di SQL, per halaman)
+            String status = null;
             if (filterStatusBorrow != null && filterStatusBorrow.getValue() != null && 
                 !"Semua".equals(filterStatusBorrow.getValue())) {
-                String status = filterStatusBorrow.getValue().toLowerCase();
-                borrows.removeIf(b -> !status.equals(b.getStatusBarang()));
+                status = filterStatusBorrow.getValue().toLowerCase();
             }
             
-            ObservableList<Borrow> observableList = FXCollections.observableArrayList(borrows);
-            allBorrowTable.setItems(observableList);
+            String filter = status;
+            borrowLoader.setFetcher((after, limit) -> borrowDAO.getPage(filter, after, limit));
+            borrowLoader.reload();
         } catch (Exception e) {
             AlertUtil.showError("Error", "Gagal memuat data peminjaman!");
             e.printStackTrace();
@@ -399,7 +436,8 @@ public class UserController implements Initializable {
             );
             loadAllBorrows();
         } else {
-            AlertUtil.showError("Gagal", "Gagal menyetujui peminjaman!");
+            AlertUtil.showError("Gagal", "Gagal menyetujui peminjaman!\nMungkin sudah diproses admin lain.");
+            loadAllBorrows();
         }
     }
     
@@ -421,8 +459,96 @@ public class UserController implements Initializable {
             );
             loadAllBorrows();
         } else {
-            AlertUtil.showError("Gagal", "Gagal menolak peminjaman!");
+            AlertUtil.showError("Gagal", "Gagal menolak peminjaman!\nMungkin sudah diproses admin lain.");
+            loadAllBorrows();
+        }
+    }
+    
+    /**
+     * Approve semua peminjaman pending yang dipilih (satu transaksi batch)
+     */
+    @FXML
+    private void handleApproveSelected() {
+        List<Integer> ids = selectedPendingIds();
+        if (ids.isEmpty()) {
+            AlertUtil.showWarning("Peringatan", "Tidak ada peminjaman pending yang dipilih!");
+            return;
+        }
+        if (!AlertUtil.showConfirmation("Konfirmasi", "Setujui " + ids.size() + " peminjaman terpilih?")) {
+            return;
+        }
+        
+        Integer adminId = sessionManager.getCurrentRoleId();
+        FxAsync.onFx(borrowDAO.approveAllAsync(ids, adminId), approved -> {
+            if (approved == null) {
+                AlertUtil.showError("Gagal", "Gagal menyetujui peminjaman!");
+                loadAllBorrows();
+                return;
+            }
+            
+            showBulkResult("disetujui", approved.size(), ids.size());
+            if (!approved.isEmpty()) {
+                LogActivityUtil.log(
+                    sessionManager.getCurrentUsername(),
+                    "Menyetujui " + approved.size() + " peminjaman ID: " + approved,
+                    "APPROVE_BORROW",
+                    sessionManager.getCurrentRole()
+                );
+            }
+            loadAllBorrows();
+        });
+    }
+    
+    /**
+     * Reject semua peminjaman pending yang dipilih (satu transaksi batch)
+     */
+    @FXML
+    private void handleRejectSelected() {
+        List<Integer> ids = selectedPendingIds();
+        if (ids.isEmpty()) {
+            AlertUtil.showWarning("Peringatan", "Tidak ada peminjaman pending yang dipilih!");
+            return;
+        }
+        if (!AlertUtil.showConfirmation("Konfirmasi", "Tolak " + ids.size() + " peminjaman terpilih?")) {
+            return;
+        }
+        
+        FxAsync.onFx(borrowDAO.rejectAllAsync(ids), rejected -> {
+            if (rejected == null) {
+                AlertUtil.showError("Gagal", "Gagal menolak peminjaman!");
+                loadAllBorrows();
+                return;
+            }
+            
+            showBulkResult("ditolak", rejected.size(), ids.size());
+            if (!rejected.isEmpty()) {
+                LogActivityUtil.log(
+                    sessionManager.getCurrentUsername(),
+                    "Menolak " + rejected.size() + " peminjaman ID: " + rejected,
+                    "REJECT_BORROW",
+                    sessionManager.getCurrentRole()
+                );
+            }
+            loadAllBorrows();
+        });
+    }
+    
+    private List<Integer> selectedPendingIds() {
+        List<Integer> ids = new ArrayList<>();
+        for (Borrow borrow : allBorrowTable.getSelectionModel().getSelectedItems()) {
+            if ("pending".equals(borrow.getStatusBarang())) {
+                ids.add(borrow.getIdPeminjaman());
+            }
         }
+        return ids;
+    }
+    
+    private void showBulkResult(String action, int processed, int selected) {
+        String message = processed + " peminjaman " + action + "!";
+        if (processed < selected) {
+            message += "\n" + (selected - processed) + " dilewati karena sudah diproses admin lain.";
+        }
+        AlertUtil.showSuccess("Berhasil", message);
     }
     
     /**
@@ -525,17 +651,16 @@ public class UserController implements Initializable {
      */
     private void loadAllLaporan() {
         try {
-            List<Lapor> laporList = laporDAO.getAll();
-            
-            // Filter by status if selected
+            // Filter by status if selected (di SQL, per halaman)
+            String status = null;
             if (filterStatusLapor != null && filterStatusLapor.getValue() != null && 
                 !"Semua".equals(filterStatusLapor.getValue())) {
-                String status = filterStatusLapor.getValue().toLowerCase();
-                laporList.removeIf(l -> !status.equals(l.getStatus()));
+                status = filterStatusLapor.getValue().toLowerCase();
             }
             
-            ObservableList<Lapor> observableList = FXCollections.observableArrayList(laporList);
-            allLaporTable.setItems(observableList);
+            String filter = status;
+            laporLoader.setFetcher((after, limit) -> laporDAO.getPage(filter, after, limit));
+            laporLoader.reload();
         } catch (Exception e) {
             AlertUtil.showError("Error", "Gagal memuat data laporan!");
             e.printStackTrace();
@@ -566,6 +691,71 @@ public class UserController implements Initializable {
         }
     }
     
+    // ============================================================
+    // QUICK OPEN
+    // ============================================================
+    
+    /**
+     * Tampilkan record dari palette quick-open
+     * User dicari lewat search biasa; peminjaman & laporan dimuat satu baris
+     * saja (filter status atau Refresh kembali ke list lengkap).
+     */
+    @Override
+    public void reveal(QuickOpenIndex.Item item) {
+        if (!sessionManager.isAdmin()) {
+            return;
+        }
+        switch (item.kind()) {
+            case USER:
+                tabPane.getSelectionModel().select(tabUser);
+                pendingRevealUsername = item.key();
+                searchUserField.setText(item.key());
+                userSearch.runNow();
+                break;
+                
+            case PEMINJAMAN:
+                tabPane.getSelectionModel().select(tabBorrow);
+                int borrowId = Integer.parseInt(item.key());
+                borrowLoader.setFetcher((after, limit) -> singlePage(after == null ? borrowDAO.getById(borrowId) : null));
+                borrowLoader.reload().thenRun(() -> FxAsync.runOnFx(() ->
+                    selectRow(allBorrowTable, borrow -> borrow.getIdPeminjaman() == borrowId)));
+                break;
+                
+            case LAPORAN:
+                tabPane.getSelectionModel().select(tabLapor);
+                String noLaporan = item.key();
+                laporLoader.setFetcher((after, limit) -> singlePage(after == null ? laporDAO.getByNoLaporan(noLaporan) : null));
+                laporLoader.reload().thenRun(() -> FxAsync.runOnFx(() ->
+                    selectRow(allLaporTable, lapor -> noLaporan.equals(lapor.getNoLaporan()))));
+                break;
+                
+            default:
+                break;
+        }
+    }
+    
+    private void selectPendingUser() {
+        String username = pendingRevealUsername;
+        pendingRevealUsername = null;
+        if (username != null) {
+            selectRow(userTable, user -> username.equals(user.getUsername()));
+        }
+    }
+    
+    private static <T> Page<T> singlePage(T row) {
+        return new Page<>(row != null ? List.of(row) : List.of(), null);
+    }
+    
+    private static <T> void selectRow(TableView<T> table, Predicate<T> match) {
+        for (T row : table.getItems()) {
+            if (match.test(row)) {
+                table.getSelectionModel().select(row);
+                table.scrollTo(row);
+                return;
+            }
+        }
+    }
+    
     // ============================================================
     // FILTERS
     // ============================================================
@@ -576,7 +766,7 @@ public class UserController implements Initializable {
     private void setupFilters() {
         if (filterStatusBorrow != null) {
             filterStatusBorrow.setItems(FXCollections.observableArrayList(
-                "Semua", "Pending", "Dipinjam", "Dikembalikan"
+                "Semua", "Pending", "Dipinjam", "Dikembalikan", "Ditolak"
             ));
             filterStatusBorrow.setValue("Semua");
             filterStatusBorrow.setOnAction(e -> loadAllBorrows());
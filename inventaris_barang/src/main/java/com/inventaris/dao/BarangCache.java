@@ -0,0 +1,163 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/BarangCache.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.TransactionManager;
+import com.inventaris.model.Barang;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * BarangCache - Cache entity Barang per kode_barang (dan id_barang)
+ * Read-through dari BarangDAO.getByKode/getById/getByKodes; setiap operasi
+ * tulis yang mengubah barang memanggil invalidate(kode) setelah commit.
+ * Seluruh cache hanya dikosongkan saat barang dihapus, atau saat QueryCache
+ * melihat versi tabel barang naik tanpa commit lokal (klien lain).
+ * Objek yang keluar-masuk cache selalu disalin. Hasil load di dalam unit of
+ * work tidak disimpan, karena bisa berisi baris yang belum commit.
+ * Menggunakan Singleton Pattern
+ */
+public class BarangCache {
+    
+    private static volatile BarangCache instance;
+    
+    private final Map<String, Barang> byKode = new ConcurrentHashMap<>();
+    private final Map<Integer, String> kodeById = new ConcurrentHashMap<>();
+    
+    // Naik setiap invalidasi; hasil load yang dimulai sebelumnya tidak disimpan
+    private final AtomicLong generation = new AtomicLong();
+    
+    private BarangCache() {
+        QueryCache queryCache = QueryCache.getInstance();
+        queryCache.addInvalidationListener(tables -> {
+            for (String table : tables) {
+                if (DataVersionDAO.BARANG_DELETE.equals(table)) {
+                    clear();
+                    return;
+                }
+            }
+        });
+        queryCache.addVersionGapListener(tables -> {
+            for (String table : tables) {
+                if (DataVersionDAO.BARANG.equals(table) || DataVersionDAO.BARANG_DELETE.equals(table)) {
+                    clear();
+                    return;
+                }
+            }
+        });
+    }
+    
+    public static BarangCache getInstance() {
+        if (instance == null) {
+            synchronized (BarangCache.class) {
+                if (instance == null) {
+                    instance = new BarangCache();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Get barang by kode, memuat lewat loader saat miss
+     * 
+     * @param kode Kode barang
+     * @param loader Query ke database (boleh mengembalikan null)
+     * @return Salinan barang, null jika tidak ditemukan
+     */
+    public Barang get(String kode, Function<String, Barang> loader) {
+        Barang cached = byKode.get(kode);
+        if (cached != null) {
+            return new Barang(cached);
+        }
+        
+        long startGeneration = generation.get();
+        Barang loaded = loader.apply(kode);
+        if (loaded != null) {
+            put(loaded, startGeneration);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Get barang by ID, memuat lewat loader saat miss
+     */
+    public Barang getById(int id, IntFunction<Barang> loader) {
+        String kode = kodeById.get(id);
+        Barang cached = kode != null ? byKode.get(kode) : null;
+        if (cached != null) {
+            return new Barang(cached);
+        }
+        
+        long startGeneration = generation.get();
+        Barang loaded = loader.apply(id);
+        if (loaded != null) {
+            put(loaded, startGeneration);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Get barang dari cache tanpa memuat (untuk getByKodes)
+     */
+    public Barang peek(String kode) {
+        Barang cached = byKode.get(kode);
+        return cached != null ? new Barang(cached) : null;
+    }
+    
+    /**
+     * Nilai generasi saat ini; diteruskan ke put() setelah query selesai
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+    
+    /**
+     * Simpan hasil query, kecuali ada invalidasi sejak query dimulai atau
+     * query berjalan di dalam unit of work
+     * 
+     * @param barang Barang lengkap (bukan projection ringkas)
+     * @param startGeneration Nilai currentGeneration() sebelum query
+     */
+    public void put(Barang barang, long startGeneration) {
+        if (!barang.isDetailLoaded() || TransactionManager.getInstance().isActive()) {
+            return;
+        }
+        synchronized (this) {
+            if (generation.get() != startGeneration) {
+                return;
+            }
+            byKode.put(barang.getKodeBarang(), new Barang(barang));
+            kodeById.put(barang.getIdBarang(), barang.getKodeBarang());
+        }
+    }
+    
+    /**
+     * Buang satu barang (dipanggil setelah commit operasi tulis)
+     */
+    public void invalidate(String kode) {
+        synchronized (this) {
+            generation.incrementAndGet();
+            Barang removed = byKode.remove(kode);
+            if (removed != null) {
+                kodeById.remove(removed.getIdBarang());
+            }
+        }
+    }
+    
+    /**
+     * Kosongkan seluruh cache
+     */
+    public void clear() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            byKode.clear();
+            kodeById.clear();
+        }
+    }
+}
@@ -4,15 +4,29 @@
 package com.inventaris.dao;
 
 import com.inventaris.config.DatabaseConfig;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.config.TransactionManager;
 import com.inventaris.model.Barang;
+import com.inventaris.model.Page;
+import com.inventaris.model.PageCursor;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * BarangDAO - Data Access Object for Barang
@@ -21,6 +35,20 @@ import java.util.List;
 public class BarangDAO {
     
     private final DatabaseConfig dbConfig;
+    private final TransactionManager transactionManager = TransactionManager.getInstance();
+    
+    // Tabel yang dibaca query list barang (tag QueryCache); nama pemilik ikut berubah lewat user
+    private static final String[] CACHE_TAGS = {DataVersionDAO.BARANG, DataVersionDAO.USER};
+    private final QueryCache queryCache = QueryCache.getInstance();
+    private final BarangCache barangCache = BarangCache.getInstance();
+    private final BarangSearchIndex searchIndex = BarangSearchIndex.getInstance();
+    
+    // Projection ringkas untuk list/combo: tanpa deskripsi (TEXT) dan foto,
+    // yang dimuat terpisah lewat getDetail() saat detail dibuka
+    private static final String SUMMARY_COLUMNS =
+        "b.id_barang, b.kode_barang, b.nama_barang, b.lokasi_barang, b.jumlah_total, " +
+        "b.jumlah_tersedia, b.kondisi_barang, b.status, b.created_at, b.updated_at, " +
+        "b.id_instansi, i.nama_instansi AS nama_pemilik ";
     
     /**
      * Constructor
@@ -37,23 +65,36 @@ public class BarangDAO {
      */
     public boolean create(Barang barang) {
         String sql = "INSERT INTO barang (kode_barang, nama_barang, lokasi_barang, jumlah_total, " +
-                     "jumlah_tersedia, deskripsi, kondisi_barang, status, foto) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                     "jumlah_tersedia, deskripsi, kondisi_barang, status, foto, id_instansi) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, barang.getKodeBarang());
-            stmt.setString(2, barang.getNamaBarang());
-            stmt.setString(3, barang.getLokasiBarang());
-            stmt.setInt(4, barang.getJumlahTotal());
-            stmt.setInt(5, barang.getJumlahTersedia());
-            stmt.setString(6, barang.getDeskripsi());
-            stmt.setString(7, barang.getKondisiBarang());
-            stmt.setString(8, barang.getStatus());
-            stmt.setString(9, barang.getFoto());
-            
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, barang.getKodeBarang());
+                    stmt.setString(2, barang.getNamaBarang());
+                    stmt.setString(3, barang.getLokasiBarang());
+                    stmt.setInt(4, barang.getJumlahTotal());
+                    stmt.setInt(5, barang.getJumlahTersedia());
+                    stmt.setString(6, barang.getDeskripsi());
+                    stmt.setString(7, barang.getKondisiBarang());
+                    stmt.setString(8, barang.getStatus());
+                    stmt.setString(9, barang.getFoto());
+                    setNullableInt(stmt, 10, barang.getIdInstansi());
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.barangChanged(barang.getKodeBarang(), 1, false, 0,
+                            isAvailable(barang.getStatus(), barang.getJumlahTersedia()), barang.getJumlahTersedia());
+                        DataVersionDAO.bump(DataVersionDAO.BARANG);
+                    }
+                    transactionManager.afterCommit(() -> {
+                        barangCache.invalidate(barang.getKodeBarang());
+                        searchIndex.markStale();
+                    });
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error creating barang: " + e.getMessage());
@@ -69,7 +110,78 @@ public class BarangDAO {
      * @return Barang object if found, null otherwise
      */
     public Barang getByKode(String kode) {
-        String sql = "SELECT * FROM barang WHERE kode_barang = ?";
+        return barangCache.get(kode, this::queryByKode);
+    }
+    
+    /**
+     * Get barang by ID
+     * 
+     * @param id Barang ID
+     * @return Barang object if found, null otherwise
+     */
+    public Barang getById(int id) {
+        return barangCache.getById(id, this::queryById);
+    }
+    
+    /**
+     * Get beberapa barang sekaligus
+     * Yang sudah ada di BarangCache tidak di-query ulang; sisanya diambil
+     * dengan satu query IN.
+     * 
+     * @param kodes Kode barang
+     * @return Map kode ke barang (urutan mengikuti kodes), kode yang tidak ada dilewati
+     */
+    public Map<String, Barang> getByKodes(Collection<String> kodes) {
+        Map<String, Barang> result = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String kode : kodes) {
+            Barang cached = barangCache.peek(kode);
+            if (cached != null) {
+                result.put(kode, cached);
+            } else if (!result.containsKey(kode) && !missing.contains(kode)) {
+                result.put(kode, null);
+                missing.add(kode);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            String sql = "SELECT b.*, i.nama_instansi AS nama_pemilik " +
+                         "FROM barang b " +
+                         "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                         "WHERE b.kode_barang IN (" + String.join(", ", Collections.nCopies(missing.size(), "?")) + ")";
+            long startGeneration = barangCache.currentGeneration();
+            
+            // Panjang IN-list berubah-ubah: bentuk 3 argumen agar tidak memenuhi statement cache
+            try (Connection conn = dbConfig.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                
+                for (int i = 0; i < missing.size(); i++) {
+                    stmt.setString(i + 1, missing.get(i));
+                }
+                ResultSet rs = stmt.executeQuery();
+                
+                while (rs.next()) {
+                    Barang barang = extractBarangFromResultSet(rs);
+                    barangCache.put(barang, startGeneration);
+                    result.put(barang.getKodeBarang(), barang);
+                }
+                
+            } catch (SQLException e) {
+                System.err.println("Error getting barang by kodes: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        
+        result.values().removeIf(Objects::isNull);
+        return result;
+    }
+    
+    // Query langsung tanpa cache (loader BarangCache)
+    private Barang queryByKode(String kode) {
+        String sql = "SELECT b.*, i.nama_instansi AS nama_pemilik " +
+                     "FROM barang b " +
+                     "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                     "WHERE b.kode_barang = ?";
         
         try (Connection conn = dbConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -89,14 +201,11 @@ public class BarangDAO {
         return null;
     }
     
-    /**
-     * Get barang by ID
-     * 
-     * @param id Barang ID
-     * @return Barang object if found, null otherwise
-     */
-    public Barang getById(int id) {
-        String sql = "SELECT * FROM barang WHERE id_barang = ?";
+    private Barang queryById(int id) {
+        String sql = "SELECT b.*, i.nama_instansi AS nama_pemilik " +
+                     "FROM barang b " +
+                     "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                     "WHERE b.id_barang = ?";
         
         try (Connection conn = dbConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -117,83 +226,231 @@ public class BarangDAO {
     }
     
     /**
-     * Get all barang
+     * Get kolom berat (deskripsi, foto) satu barang
+     * Dipanggil saat panel detail dibuka untuk barang dari projection ringkas;
+     * hasilnya diterapkan dengan Barang.applyDetail().
      * 
-     * @return List of all barang
+     * @param kode Kode barang
+     * @return Barang berisi deskripsi & foto, null jika tidak ditemukan
      */
-    public List<Barang> getAll() {
-        List<Barang> list = new ArrayList<>();
-        String sql = "SELECT * FROM barang ORDER BY created_at DESC";
+    public Barang getDetail(String kode) {
+        String sql = "SELECT kode_barang, deskripsi, foto FROM barang WHERE kode_barang = ?";
         
         try (Connection conn = dbConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            while (rs.next()) {
-                list.add(extractBarangFromResultSet(rs));
+            stmt.setString(1, kode);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                Barang detail = new Barang();
+                detail.setKodeBarang(rs.getString("kode_barang"));
+                detail.setDeskripsi(rs.getString("deskripsi"));
+                detail.setFoto(rs.getString("foto"));
+                return detail;
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting all barang: " + e.getMessage());
+            System.err.println("Error getting barang detail: " + e.getMessage());
             e.printStackTrace();
         }
         
-        return list;
+        return null;
     }
     
     /**
-     * Get available barang (stok > 0 and status tersedia)
+     * Get all barang
      * 
-     * @return List of available barang
+     * @return List of all barang
      */
-    public List<Barang> getAvailable() {
+    public List<Barang> getAll() {
+        try {
+            return queryCache.getList(QueryCache.key("barang.all"), CACHE_TAGS, () -> {
+                List<Barang> list = new ArrayList<>();
+                String sql = "SELECT " + SUMMARY_COLUMNS +
+                             "FROM barang b " +
+                             "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                             "ORDER BY b.created_at DESC";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    
+                    while (rs.next()) {
+                        list.add(extractSummaryFromResultSet(rs));
+                    }
+                }
+                
+                return list;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting all barang: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get satu halaman barang, terbaru dulu (keyset pagination)
+     * Memakai idx_barang_created (created_at, id_barang), biaya tetap per halaman.
+     * 
+     * @param after Cursor dari halaman sebelumnya, null untuk halaman pertama
+     * @param limit Ukuran halaman
+     * @return Page of barang
+     */
+    public Page<Barang> getPage(PageCursor after, int limit) {
         List<Barang> list = new ArrayList<>();
-        String sql = "SELECT * FROM barang WHERE jumlah_tersedia > 0 AND status = 'tersedia' ORDER BY nama_barang";
+        String sql = "SELECT " + SUMMARY_COLUMNS +
+                     "FROM barang b " +
+                     "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                     (after != null ? "WHERE " + KeysetSql.after("b.created_at", "b.id_barang") + " " : "") +
+                     "ORDER BY b.created_at DESC, b.id_barang DESC " +
+                     "LIMIT ?";
         
         try (Connection conn = dbConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (after != null) {
+                index = KeysetSql.bind(stmt, index, after);
+            }
+            stmt.setInt(index, limit + 1);
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                list.add(extractBarangFromResultSet(rs));
+                list.add(extractSummaryFromResultSet(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting available barang: " + e.getMessage());
+            System.err.println("Error getting barang page: " + e.getMessage());
             e.printStackTrace();
         }
         
-        return list;
+        return Page.of(list, limit, b -> new PageCursor(b.getCreatedAt(), b.getIdBarang()));
     }
     
     /**
-     * Get barang by status
+     * Get barang yang dibuat atau diubah sejak watermark
+     * Memakai >= agar baris dengan timestamp sama tidak terlewat;
+     * pemanggil men-dedupe berdasarkan kode_barang.
      * 
-     * @param status Status barang
-     * @return List of barang with specified status
+     * @param since Watermark updated_at
+     * @return List of changed barang, urut updated_at
      */
-    public List<Barang> getByStatus(String status) {
+    public List<Barang> getChangedSince(Timestamp since) {
         List<Barang> list = new ArrayList<>();
-        String sql = "SELECT * FROM barang WHERE status = ? ORDER BY nama_barang";
+        String sql = "SELECT " + SUMMARY_COLUMNS +
+                     "FROM barang b " +
+                     "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                     "WHERE b.updated_at >= ? " +
+                     "ORDER BY b.updated_at ASC";
         
         try (Connection conn = dbConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, status);
+            stmt.setTimestamp(1, since);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                list.add(extractBarangFromResultSet(rs));
+                list.add(extractSummaryFromResultSet(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting barang by status: " + e.getMessage());
+            System.err.println("Error getting changed barang: " + e.getMessage());
             e.printStackTrace();
         }
         
         return list;
     }
     
+    /**
+     * Stream semua barang (projection ringkas) untuk membangun BarangSearchIndex
+     * Stream WAJIB ditutup (try-with-resources).
+     */
+    Stream<Barang> streamSummaries() {
+        String sql = "SELECT " + SUMMARY_COLUMNS +
+                     "FROM barang b " +
+                     "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi";
+        
+        try {
+            return RowStream.open(dbConfig.getConnection(), sql, stmt -> { }, this::extractSummaryFromResultSet);
+            
+        } catch (SQLException e) {
+            System.err.println("Error streaming barang: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Get available barang (stok > 0 and status tersedia)
+     * 
+     * @return List of available barang
+     */
+    public List<Barang> getAvailable() {
+        try {
+            return queryCache.getList(QueryCache.key("barang.available"), CACHE_TAGS, () -> {
+                List<Barang> list = new ArrayList<>();
+                String sql = "SELECT " + SUMMARY_COLUMNS +
+                             "FROM barang b " +
+                             "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                             "WHERE b.jumlah_tersedia > 0 AND b.status = 'tersedia' " +
+                             "ORDER BY b.nama_barang";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    
+                    while (rs.next()) {
+                        list.add(extractSummaryFromResultSet(rs));
+                    }
+                }
+                
+                return list;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting available barang: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get barang by status
+     * 
+     * @param status Status barang
+     * @return List of barang with specified status
+     */
+    public List<Barang> getByStatus(String status) {
+        try {
+            return queryCache.getList(QueryCache.key("barang.byStatus", status), CACHE_TAGS, () -> {
+                List<Barang> list = new ArrayList<>();
+                String sql = "SELECT " + SUMMARY_COLUMNS +
+                             "FROM barang b " +
+                             "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                             "WHERE b.status = ? " +
+                             "ORDER BY b.nama_barang";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    
+                    stmt.setString(1, status);
+                    ResultSet rs = stmt.executeQuery();
+                    
+                    while (rs.next()) {
+                        list.add(extractSummaryFromResultSet(rs));
+                    }
+                }
+                
+                return list;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting barang by status: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
     /**
      * Update barang
      * 
@@ -201,24 +458,53 @@ public class BarangDAO {
      * @return true if successful, false otherwise
      */
     public boolean update(Barang barang) {
-        String sql = "UPDATE barang SET nama_barang = ?, lokasi_barang = ?, jumlah_total = ?, " +
-                     "jumlah_tersedia = ?, deskripsi = ?, kondisi_barang = ?, status = ?, foto = ? " +
-                     "WHERE kode_barang = ?";
+        String sql;
+        if (barang.isDetailLoaded()) {
+            sql = "UPDATE barang SET nama_barang = ?, lokasi_barang = ?, jumlah_total = ?, " +
+                  "jumlah_tersedia = ?, kondisi_barang = ?, status = ?, id_instansi = ?, " +
+                  "deskripsi = ?, foto = ? WHERE kode_barang = ?";
+        } else {
+            // Dari projection ringkas: deskripsi & foto tidak dimuat, jangan ditimpa
+            sql = "UPDATE barang SET nama_barang = ?, lokasi_barang = ?, jumlah_total = ?, " +
+                  "jumlah_tersedia = ?, kondisi_barang = ?, status = ?, id_instansi = ? " +
+                  "WHERE kode_barang = ?";
+        }
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, barang.getNamaBarang());
-            stmt.setString(2, barang.getLokasiBarang());
-            stmt.setInt(3, barang.getJumlahTotal());
-            stmt.setInt(4, barang.getJumlahTersedia());
-            stmt.setString(5, barang.getDeskripsi());
-            stmt.setString(6, barang.getKondisiBarang());
-            stmt.setString(7, barang.getStatus());
-            stmt.setString(8, barang.getFoto());
-            stmt.setString(9, barang.getKodeBarang());
-            
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    StockState old = lockStockState(conn, barang.getKodeBarang());
+                    if (old == null) {
+                        return false;
+                    }
+                    
+                    stmt.setString(1, barang.getNamaBarang());
+                    stmt.setString(2, barang.getLokasiBarang());
+                    stmt.setInt(3, barang.getJumlahTotal());
+                    stmt.setInt(4, barang.getJumlahTersedia());
+                    stmt.setString(5, barang.getKondisiBarang());
+                    stmt.setString(6, barang.getStatus());
+                    setNullableInt(stmt, 7, barang.getIdInstansi());
+                    int index = 8;
+                    if (barang.isDetailLoaded()) {
+                        stmt.setString(index++, barang.getDeskripsi());
+                        stmt.setString(index++, barang.getFoto());
+                    }
+                    stmt.setString(index, barang.getKodeBarang());
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.barangChanged(barang.getKodeBarang(), 0, old.available(), old.units(),
+                            isAvailable(barang.getStatus(), barang.getJumlahTersedia()), barang.getJumlahTersedia());
+                        DataVersionDAO.bump(DataVersionDAO.BARANG);
+                    }
+                    transactionManager.afterCommit(() -> {
+                        barangCache.invalidate(barang.getKodeBarang());
+                        searchIndex.markStale();
+                    });
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error updating barang: " + e.getMessage());
@@ -240,21 +526,39 @@ public class BarangDAO {
         if (isAdd) {
             sql = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia + ? WHERE kode_barang = ?";
         } else {
-            sql = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia - ? WHERE kode_barang = ?";
+            // Pengurangan bersyarat, stok tidak pernah minus
+            sql = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia - ? " +
+                  "WHERE kode_barang = ? AND jumlah_tersedia >= ?";
         }
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, jumlah);
-            stmt.setString(2, kodeBarang);
-            
-            return stmt.executeUpdate() > 0;
+        ReentrantLock lock = StockLocks.forKode(kodeBarang);
+        lock.lock();
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, jumlah);
+                    stmt.setString(2, kodeBarang);
+                    if (!isAdd) {
+                        stmt.setInt(3, jumlah);
+                    }
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.stockChanged(conn, kodeBarang, isAdd ? jumlah : -jumlah);
+                        DataVersionDAO.bump(DataVersionDAO.BARANG);
+                    }
+                    transactionManager.afterCommit(() -> barangCache.invalidate(kodeBarang));
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error updating jumlah tersedia: " + e.getMessage());
             e.printStackTrace();
             return false;
+            
+        } finally {
+            lock.unlock();
         }
     }
     
@@ -267,11 +571,29 @@ public class BarangDAO {
     public boolean delete(String kode) {
         String sql = "DELETE FROM barang WHERE kode_barang = ?";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, kode);
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    StockState old = lockStockState(conn, kode);
+                    if (old == null) {
+                        return false;
+                    }
+                    
+                    stmt.setString(1, kode);
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.barangChanged(kode, -1, old.available(), old.units(), false, 0);
+                        DataVersionDAO.bump(DataVersionDAO.BARANG, DataVersionDAO.BARANG_DELETE);
+                    }
+                    transactionManager.afterCommit(() -> {
+                        barangCache.invalidate(kode);
+                        if (updated) {
+                            searchIndex.remove(kode);
+                        }
+                    });
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error deleting barang: " + e.getMessage());
@@ -282,34 +604,13 @@ public class BarangDAO {
     
     /**
      * Search barang by keyword (kode, nama, or lokasi)
+     * Dijawab dari BarangSearchIndex (trigram di memori), urut relevansi.
      * 
      * @param keyword Search keyword
      * @return List of matching barang
      */
     public List<Barang> search(String keyword) {
-        List<Barang> list = new ArrayList<>();
-        String sql = "SELECT * FROM barang WHERE kode_barang LIKE ? OR nama_barang LIKE ? OR lokasi_barang LIKE ? ORDER BY nama_barang";
-        
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            String searchPattern = "%" + keyword + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                list.add(extractBarangFromResultSet(rs));
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error searching barang: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return list;
+        return searchIndex.search(keyword, null);
     }
     
     /**
@@ -370,7 +671,11 @@ public class BarangDAO {
  */
 public List<Barang> getByInstansi(Integer idInstansi) {
     List<Barang> list = new ArrayList<>();
-    String sql = "SELECT * FROM barang WHERE id_instansi = ? ORDER BY nama_barang";
+    String sql = "SELECT " + SUMMARY_COLUMNS +
+                 "FROM barang b " +
+                 "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                 "WHERE b.id_instansi = ? " +
+                 "ORDER BY b.nama_barang";
 
     try (Connection conn = dbConfig.getConnection();
          PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -379,7 +684,7 @@ public List<Barang> getByInstansi(Integer idInstansi) {
         ResultSet rs = stmt.executeQuery();
 
         while (rs.next()) {
-            list.add(extractBarangFromResultSet(rs));
+            list.add(extractSummaryFromResultSet(rs));
         }
 
     } catch (SQLException e) {
@@ -390,29 +695,171 @@ public List<Barang> getByInstansi(Integer idInstansi) {
     return list;
 }
 
+    /**
+     * Search barang milik instansi
+     * Dijawab dari BarangSearchIndex, difilter ke barang milik instansi.
+     * 
+     * @param keyword Search keyword
+     * @param idInstansi ID instansi pemilik barang
+     * @return List of matching barang
+     */
+    public List<Barang> searchByInstansi(String keyword, int idInstansi) {
+        return searchIndex.search(keyword, idInstansi);
+    }
+    
+    /**
+     * Get barang tersedia yang bukan milik instansi tertentu
+     * Dipakai instansi saat meminjam, agar barang sendiri tidak muncul.
+     * 
+     * @param idInstansi ID instansi yang meminjam
+     * @return List of available barang
+     */
+    public List<Barang> getAvailableExcludingInstansi(int idInstansi) {
+        try {
+            return queryCache.getList(QueryCache.key("barang.availableExcluding", idInstansi), CACHE_TAGS, () -> {
+                List<Barang> list = new ArrayList<>();
+                String sql = "SELECT " + SUMMARY_COLUMNS +
+                             "FROM barang b " +
+                             "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                             "WHERE b.jumlah_tersedia > 0 AND b.status = 'tersedia' " +
+                             "AND (b.id_instansi IS NULL OR b.id_instansi <> ?) " +
+                             "ORDER BY b.nama_barang";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    
+                    stmt.setInt(1, idInstansi);
+                    ResultSet rs = stmt.executeQuery();
+                    
+                    while (rs.next()) {
+                        list.add(extractSummaryFromResultSet(rs));
+                    }
+                }
+                
+                return list;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting available barang: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
     /**
      * Get barang with low stock (< 5)
      * 
      * @return List of barang with low stock
      */
     public List<Barang> getLowStock() {
-        List<Barang> list = new ArrayList<>();
-        String sql = "SELECT * FROM barang WHERE jumlah_tersedia < 5 AND jumlah_tersedia > 0 ORDER BY jumlah_tersedia";
-        
-        try (Connection conn = dbConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                list.add(extractBarangFromResultSet(rs));
-            }
-            
+        try {
+            return queryCache.getList(QueryCache.key("barang.lowStock"), CACHE_TAGS, () -> {
+                List<Barang> list = new ArrayList<>();
+                String sql = "SELECT " + SUMMARY_COLUMNS +
+                             "FROM barang b " +
+                             "LEFT JOIN instansi i ON b.id_instansi = i.id_instansi " +
+                             "WHERE b.jumlah_tersedia < 5 AND b.jumlah_tersedia > 0 " +
+                             "ORDER BY b.jumlah_tersedia";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    
+                    while (rs.next()) {
+                        list.add(extractSummaryFromResultSet(rs));
+                    }
+                }
+                
+                return list;
+            });
         } catch (SQLException e) {
             System.err.println("Error getting low stock barang: " + e.getMessage());
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        
-        return list;
+    }
+    
+    // ============================================================
+    // ASYNC VARIANTS (dijalankan di DbExecutor)
+    // ============================================================
+
+    public CompletableFuture<Boolean> createAsync(Barang barang) {
+        return DbExecutor.supply(() -> create(barang));
+    }
+    
+    public CompletableFuture<Barang> getByKodeAsync(String kode) {
+        return DbExecutor.supply(() -> getByKode(kode));
+    }
+    
+    public CompletableFuture<Barang> getByIdAsync(int id) {
+        return DbExecutor.supply(() -> getById(id));
+    }
+    
+    public CompletableFuture<Barang> getDetailAsync(String kode) {
+        return DbExecutor.supply(() -> getDetail(kode));
+    }
+    
+    public CompletableFuture<Map<String, Barang>> getByKodesAsync(Collection<String> kodes) {
+        return DbExecutor.supply(() -> getByKodes(kodes));
+    }
+    
+    public CompletableFuture<List<Barang>> getAllAsync() {
+        return DbExecutor.supply(() -> getAll());
+    }
+    
+    public CompletableFuture<List<Barang>> getChangedSinceAsync(Timestamp since) {
+        return DbExecutor.supply(() -> getChangedSince(since));
+    }
+    
+    public CompletableFuture<List<Barang>> getAvailableAsync() {
+        return DbExecutor.supply(() -> getAvailable());
+    }
+    
+    public CompletableFuture<List<Barang>> getByStatusAsync(String status) {
+        return DbExecutor.supply(() -> getByStatus(status));
+    }
+    
+    public CompletableFuture<Boolean> updateAsync(Barang barang) {
+        return DbExecutor.supply(() -> update(barang));
+    }
+    
+    public CompletableFuture<Boolean> updateJumlahTersediaAsync(String kodeBarang, int jumlah, boolean isAdd) {
+        return DbExecutor.supply(() -> updateJumlahTersedia(kodeBarang, jumlah, isAdd));
+    }
+    
+    public CompletableFuture<Boolean> deleteAsync(String kode) {
+        return DbExecutor.supply(() -> delete(kode));
+    }
+    
+    public CompletableFuture<List<Barang>> searchAsync(String keyword) {
+        return DbExecutor.supply(() -> search(keyword));
+    }
+    
+    public CompletableFuture<Boolean> kodeExistsAsync(String kodeBarang) {
+        return DbExecutor.supply(() -> kodeExists(kodeBarang));
+    }
+    
+    public CompletableFuture<Integer> getTotalCountAsync() {
+        return DbExecutor.supply(() -> getTotalCount());
+    }
+    
+    public CompletableFuture<List<Barang>> getByInstansiAsync(Integer idInstansi) {
+        return DbExecutor.supply(() -> getByInstansi(idInstansi));
+    }
+    
+    public CompletableFuture<List<Barang>> searchByInstansiAsync(String keyword, int idInstansi) {
+        return DbExecutor.supply(() -> searchByInstansi(keyword, idInstansi));
+    }
+    
+    public CompletableFuture<List<Barang>> getAvailableExcludingInstansiAsync(int idInstansi) {
+        return DbExecutor.supply(() -> getAvailableExcludingInstansi(idInstansi));
+    }
+    
+    public CompletableFuture<List<Barang>> getLowStockAsync() {
+        return DbExecutor.supply(() -> getLowStock());
+    }
+    
+    public CompletableFuture<Page<Barang>> getPageAsync(PageCursor after, int limit) {
+        return DbExecutor.supply(() -> getPage(after, limit));
     }
     
     // ============================================================
@@ -427,6 +874,17 @@ public List<Barang> getByInstansi(Integer idInstansi) {
      * @throws SQLException if error occurs
      */
     private Barang extractBarangFromResultSet(ResultSet rs) throws SQLException {
+        Barang barang = extractSummaryFromResultSet(rs);
+        barang.setDeskripsi(rs.getString("deskripsi"));
+        barang.setFoto(rs.getString("foto"));
+        barang.setDetailLoaded(true);
+        return barang;
+    }
+    
+    /**
+     * Extract Barang dari projection SUMMARY_COLUMNS (deskripsi & foto belum dimuat)
+     */
+    private Barang extractSummaryFromResultSet(ResultSet rs) throws SQLException {
         Barang barang = new Barang();
         barang.setIdBarang(rs.getInt("id_barang"));
         barang.setKodeBarang(rs.getString("kode_barang"));
@@ -434,12 +892,56 @@ public List<Barang> getByInstansi(Integer idInstansi) {
         barang.setLokasiBarang(rs.getString("lokasi_barang"));
         barang.setJumlahTotal(rs.getInt("jumlah_total"));
         barang.setJumlahTersedia(rs.getInt("jumlah_tersedia"));
-        barang.setDeskripsi(rs.getString("deskripsi"));
         barang.setKondisiBarang(rs.getString("kondisi_barang"));
         barang.setStatus(rs.getString("status"));
-        barang.setFoto(rs.getString("foto"));
         barang.setCreatedAt(rs.getTimestamp("created_at"));
         barang.setUpdatedAt(rs.getTimestamp("updated_at"));
+        
+        int instansiId = rs.getInt("id_instansi");
+        barang.setIdInstansi(rs.wasNull() ? null : instansiId);
+        barang.setNamaPemilik(rs.getString("nama_pemilik"));
+        barang.setDetailLoaded(false);
         return barang;
     }
+    
+    /**
+     * Status stok sebelum perubahan, untuk delta inventory_summary
+     */
+    private record StockState(boolean available, int units) {}
+    
+    /**
+     * Kunci baris barang (FOR UPDATE) dan baca status stoknya
+     * 
+     * @return StockState, atau null jika barang tidak ada
+     */
+    private StockState lockStockState(Connection conn, String kode) throws SQLException {
+        String sql = "SELECT jumlah_tersedia, status FROM barang WHERE kode_barang = ? FOR UPDATE";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, kode);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                int units = rs.getInt("jumlah_tersedia");
+                return new StockState(isAvailable(rs.getString("status"), units), units);
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Sama dengan kriteria getAvailable(): stok > 0 dan status tersedia
+     */
+    private static boolean isAvailable(String status, int jumlahTersedia) {
+        return jumlahTersedia > 0 && "tersedia".equals(status);
+    }
+    
+    private void setNullableInt(PreparedStatement stmt, int index, Integer value) throws SQLException {
+        if (value != null) {
+            stmt.setInt(index, value);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
 }
\ No newline at end of file
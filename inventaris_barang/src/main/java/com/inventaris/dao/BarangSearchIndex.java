@@ -0,0 +1,359 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/BarangSearchIndex.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.model.Barang;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * BarangSearchIndex - Inverted index trigram untuk pencarian barang
+ * Mengindeks kode, nama, dan lokasi di memori, sehingga search tidak lagi
+ * full scan LIKE '%kw%'. Kata kunci >= 3 huruf dicocokkan sebagai substring
+ * (irisan posting trigram lalu diverifikasi), kata kunci pendek sebagai
+ * prefix kata. Hasil diurutkan berdasarkan skor (kode > nama > lokasi).
+ * 
+ * Sinkronisasi: dimuat penuh saat search pertama; perubahan tabel barang
+ * (lokal atau dari klien lain, lewat QueryCache) menandai index basi dan
+ * search berikutnya mengambil delta getChangedSince(). Penghapusan dari
+ * klien lain memicu muat ulang penuh.
+ * Menggunakan Singleton Pattern
+ */
+public class BarangSearchIndex {
+    
+    // Delta diambil mundur sedikit dari watermark, untuk transaksi yang commit terlambat
+    private static final long DELTA_OVERLAP_MS = 5000;
+    
+    // Prefix kata diindeks sebagai trigram "  a" dan " ab"
+    private static final String WORD_PAD = "  ";
+    
+    private static volatile BarangSearchIndex instance;
+    
+    private static final class Doc {
+        private final Barang barang;
+        private final String kode;
+        private final String nama;
+        private final String lokasi;
+        private final Set<String> grams;
+        
+        private Doc(Barang barang) {
+            this.barang = barang;
+            this.kode = normalize(barang.getKodeBarang());
+            this.nama = normalize(barang.getNamaBarang());
+            this.lokasi = normalize(barang.getLokasiBarang());
+            this.grams = new HashSet<>();
+            addGrams(grams, kode);
+            addGrams(grams, nama);
+            addGrams(grams, lokasi);
+        }
+    }
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Doc> docs = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    
+    private volatile boolean loaded;
+    private volatile boolean stale;
+    private volatile boolean rebuildNeeded;
+    private Timestamp watermark;
+    
+    private BarangSearchIndex() {
+        QueryCache.getInstance().addInvalidationListener(tables -> {
+            for (String table : tables) {
+                if (DataVersionDAO.BARANG_DELETE.equals(table)) {
+                    rebuildNeeded = true;
+                } else if (DataVersionDAO.BARANG.equals(table)) {
+                    stale = true;
+                }
+            }
+        });
+    }
+    
+    public static BarangSearchIndex getInstance() {
+        if (instance == null) {
+            synchronized (BarangSearchIndex.class) {
+                if (instance == null) {
+                    instance = new BarangSearchIndex();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Cari barang
+     * 
+     * @param keyword Kata kunci (boleh beberapa kata, semua harus cocok)
+     * @param idInstansi Batasi ke barang milik instansi ini, null untuk semua
+     * @return Salinan barang yang cocok, urut skor lalu nama
+     */
+    public List<Barang> search(String keyword, Integer idInstansi) {
+        ensureFresh();
+        
+        String[] tokens = normalize(keyword).split(" ");
+        List<Barang> results = new ArrayList<>();
+        Map<String, Integer> scores = new HashMap<>();
+        
+        lock.readLock().lock();
+        try {
+            Set<String> candidates = null;
+            for (String token : tokens) {
+                if (token.isEmpty()) {
+                    continue;
+                }
+                Set<String> matches = candidatesFor(token);
+                if (candidates == null) {
+                    candidates = new HashSet<>(matches);
+                } else {
+                    candidates.retainAll(matches);
+                }
+                if (candidates.isEmpty()) {
+                    return results;
+                }
+            }
+            if (candidates == null) {
+                return results;
+            }
+            
+            for (String kode : candidates) {
+                Doc doc = docs.get(kode);
+                if (idInstansi != null && !idInstansi.equals(doc.barang.getIdInstansi())) {
+                    continue;
+                }
+                int score = 0;
+                for (String token : tokens) {
+                    int tokenScore = score(doc, token);
+                    if (tokenScore == 0 && !token.isEmpty()) {
+                        score = 0;
+                        break;
+                    }
+                    score += tokenScore;
+                }
+                if (score > 0) {
+                    scores.put(kode, score);
+                    results.add(new Barang(doc.barang));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        results.sort(Comparator
+            .comparing((Barang b) -> -scores.get(b.getKodeBarang()))
+            .thenComparing(b -> normalize(b.getNamaBarang())));
+        return results;
+    }
+    
+    /**
+     * Bangun index lebih awal (dipanggil di DbExecutor saat aplikasi start)
+     */
+    public void warmUp() {
+        ensureFresh();
+    }
+    
+    /**
+     * Tandai index basi; search berikutnya mengambil delta
+     * Dipanggil BarangDAO setelah commit create/update.
+     */
+    public void markStale() {
+        stale = true;
+    }
+    
+    /**
+     * Hapus barang dari index (setelah delete lokal di-commit)
+     */
+    public void remove(String kode) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(kode);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // ============================================================
+    // SINKRONISASI
+    // ============================================================
+    
+    private void ensureFresh() {
+        if (loaded && !stale && !rebuildNeeded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded || rebuildNeeded) {
+                rebuild();
+            } else if (stale) {
+                applyDelta();
+            }
+        }
+    }
+    
+    private void rebuild() {
+        rebuildNeeded = false;
+        stale = false;
+        Map<String, Doc> fresh = new HashMap<>();
+        Timestamp maxUpdated = null;
+        
+        try (Stream<Barang> rows = new BarangDAO().streamSummaries()) {
+            for (Barang barang : (Iterable<Barang>) rows::iterator) {
+                fresh.put(barang.getKodeBarang(), new Doc(barang));
+                maxUpdated = later(maxUpdated, barang.getUpdatedAt());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error building barang search index: " + e.getMessage());
+            rebuildNeeded = true;
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            postings.clear();
+            for (Doc doc : fresh.values()) {
+                addDoc(doc);
+            }
+            watermark = maxUpdated;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("🔎 Barang search index built: " + fresh.size() + " items");
+    }
+    
+    private void applyDelta() {
+        stale = false;
+        Timestamp since = watermark != null
+            ? new Timestamp(watermark.getTime() - DELTA_OVERLAP_MS)
+            : new Timestamp(0);
+        List<Barang> changed = new BarangDAO().getChangedSince(since);
+        
+        lock.writeLock().lock();
+        try {
+            for (Barang barang : changed) {
+                removeDoc(barang.getKodeBarang());
+                addDoc(new Doc(barang));
+                watermark = later(watermark, barang.getUpdatedAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private Set<String> candidatesFor(String token) {
+        if (token.length() < 3) {
+            return postings.getOrDefault((WORD_PAD + token).substring(token.length() - 1), Set.of());
+        }
+        
+        Set<String> result = null;
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            Set<String> posting = postings.get(token.substring(i, i + 3));
+            if (posting == null) {
+                return Set.of();
+            }
+            if (result == null) {
+                result = new HashSet<>(posting);
+            } else {
+                result.retainAll(posting);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Skor satu token terhadap satu barang, 0 jika tidak cocok (membuang false positive trigram)
+     */
+    private static int score(Doc doc, String token) {
+        if (token.isEmpty()) {
+            return 0;
+        }
+        if (doc.kode.equals(token)) return 100;
+        if (doc.kode.startsWith(token)) return 60;
+        if (doc.nama.equals(token)) return 50;
+        if (startsWord(doc.nama, token)) return 40;
+        if (startsWord(doc.lokasi, token)) return 20;
+        
+        // Substring hanya untuk token >= 3 huruf, seperti LIKE '%kw%' sebelumnya
+        if (token.length() >= 3) {
+            if (doc.kode.contains(token)) return 15;
+            if (doc.nama.contains(token)) return 10;
+            if (doc.lokasi.contains(token)) return 5;
+        }
+        return 0;
+    }
+    
+    private static boolean startsWord(String text, String token) {
+        return text.startsWith(token) || text.contains(" " + token);
+    }
+    
+    private void addDoc(Doc doc) {
+        docs.put(doc.barang.getKodeBarang(), doc);
+        for (String gram : doc.grams) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(doc.barang.getKodeBarang());
+        }
+    }
+    
+    private void removeDoc(String kode) {
+        Doc old = docs.remove(kode);
+        if (old == null) {
+            return;
+        }
+        for (String gram : old.grams) {
+            Set<String> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(kode);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+    
+    private static void addGrams(Set<String> grams, String text) {
+        for (String word : text.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            // Trigram prefix kata ("  a", " ab") untuk kata kunci pendek
+            String padded = WORD_PAD + word;
+            grams.add(padded.substring(0, 3));
+            if (padded.length() >= 4) {
+                grams.add(padded.substring(1, 4));
+            }
+        }
+        // Trigram substring atas seluruh teks (termasuk yang melintasi spasi)
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+    }
+    
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+    
+    private static Timestamp later(Timestamp a, Timestamp b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return b.after(a) ? b : a;
+    }
+}
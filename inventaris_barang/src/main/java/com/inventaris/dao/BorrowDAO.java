@@ -4,7 +4,12 @@
 package com.inventaris.dao;
 
 import com.inventaris.config.DatabaseConfig;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.config.TransactionManager;
 import com.inventaris.model.Borrow;
+import com.inventaris.model.Page;
+import com.inventaris.model.PageCursor;
+import com.inventaris.model.ReservationResult;
 
 import java.sql.Connection;
 import java.sql.Date;
@@ -12,9 +17,20 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * BorrowDAO - Data Access Object for Borrow
@@ -23,6 +39,16 @@ import java.util.List;
 public class BorrowDAO {
     
     private final DatabaseConfig dbConfig;
+    private final TransactionManager transactionManager = TransactionManager.getInstance();
+    
+    // Tabel yang dibaca query list peminjaman (tag QueryCache)
+    private static final String[] CACHE_TAGS = {DataVersionDAO.BORROW, DataVersionDAO.BARANG, DataVersionDAO.USER};
+    
+    // Peminjaman selesai terbaru yang ikut masuk QuickOpenIndex
+    private static final int QUICK_OPEN_RECENT = 500;
+    private final QueryCache queryCache = QueryCache.getInstance();
+    private final BarangCache barangCache = BarangCache.getInstance();
+    private final UserDirectory userDirectory = UserDirectory.getInstance();
     
     /**
      * Constructor
@@ -33,70 +59,216 @@ public class BorrowDAO {
     
     /**
      * Create peminjaman baru
+     * Stok direservasi lewat reserve(); gagal jika stok tidak cukup.
      * 
      * @param borrow Borrow object
      * @return true if successful, false otherwise
      */
     public boolean create(Borrow borrow) {
-        String sql = "INSERT INTO borrow (id_peminjam, kode_barang, jumlah_pinjam, tgl_peminjaman, " +
-                     "tgl_pinjam, dl_kembali, status_barang) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        return reserve(borrow).isSuccess();
+    }
+    
+    /**
+     * Ajukan peminjaman sekaligus reservasi stok secara atomik
+     * Stok dikurangi dengan UPDATE bersyarat (jumlah_tersedia >= jumlah) di
+     * transaksi yang sama dengan INSERT borrow, sehingga permintaan bersamaan
+     * tidak bisa membuat stok minus. Permintaan untuk barang yang sama dari
+     * aplikasi ini diantrekan lewat StockLocks sebelum mengambil koneksi.
+     * 
+     * @param borrow Borrow object (idPeminjaman diisi jika berhasil)
+     * @return Hasil reservasi, berisi alasan jika gagal
+     */
+    public ReservationResult reserve(Borrow borrow) {
+        if (borrow.getJumlahPinjam() <= 0) {
+            return ReservationResult.failed(ReservationResult.Status.INVALID_QUANTITY, 0);
+        }
+        
+        String sqlReserve = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia - ? " +
+                            "WHERE kode_barang = ? AND jumlah_tersedia >= ?";
+        String sqlInsert = "INSERT INTO borrow (id_peminjam, kode_barang, jumlah_pinjam, tgl_peminjaman, " +
+                           "tgl_pinjam, dl_kembali, status_barang) VALUES (?, ?, ?, ?, ?, ?, ?)";
         
-        Connection conn = null;
+        ReentrantLock lock = StockLocks.forKode(borrow.getKodeBarang());
+        lock.lock();
         
         try {
-            conn = dbConfig.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Insert borrow
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, borrow.getIdPeminjam());
-            stmt.setString(2, borrow.getKodeBarang());
-            stmt.setInt(3, borrow.getJumlahPinjam());
-            stmt.setDate(4, Date.valueOf(borrow.getTglPeminjaman()));
-            stmt.setDate(5, Date.valueOf(borrow.getTglPinjam()));
-            stmt.setDate(6, Date.valueOf(borrow.getDlKembali()));
-            stmt.setString(7, borrow.getStatusBarang());
-            
-            boolean inserted = stmt.executeUpdate() > 0;
-            
-            if (inserted) {
-                // Update jumlah tersedia barang
-                String sqlUpdate = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia - ? WHERE kode_barang = ?";
-                PreparedStatement stmtUpdate = conn.prepareStatement(sqlUpdate);
-                stmtUpdate.setInt(1, borrow.getJumlahPinjam());
-                stmtUpdate.setString(2, borrow.getKodeBarang());
-                stmtUpdate.executeUpdate();
-                stmtUpdate.close();
+            return transactionManager.inTransaction(conn -> {
+                // Kurangi stok hanya jika masih cukup
+                try (PreparedStatement stmt = conn.prepareStatement(sqlReserve)) {
+                    stmt.setInt(1, borrow.getJumlahPinjam());
+                    stmt.setString(2, borrow.getKodeBarang());
+                    stmt.setInt(3, borrow.getJumlahPinjam());
+                    
+                    if (stmt.executeUpdate() == 0) {
+                        // Belum ada yang diubah, cukup baca alasannya
+                        Integer available = readAvailable(conn, borrow.getKodeBarang());
+                        return available == null
+                            ? ReservationResult.failed(ReservationResult.Status.BARANG_NOT_FOUND, 0)
+                            : ReservationResult.failed(ReservationResult.Status.INSUFFICIENT_STOCK, available);
+                    }
+                }
                 
-                conn.commit();
-                stmt.close();
-                return true;
-            }
-            
-            conn.rollback();
-            stmt.close();
-            return false;
+                // Insert borrow
+                int borrowId = 0;
+                try (PreparedStatement stmt = conn.prepareStatement(sqlInsert, Statement.RETURN_GENERATED_KEYS)) {
+                    stmt.setInt(1, borrow.getIdPeminjam());
+                    stmt.setString(2, borrow.getKodeBarang());
+                    stmt.setInt(3, borrow.getJumlahPinjam());
+                    stmt.setDate(4, Date.valueOf(borrow.getTglPeminjaman()));
+                    stmt.setDate(5, Date.valueOf(borrow.getTglPinjam()));
+                    stmt.setDate(6, Date.valueOf(borrow.getDlKembali()));
+                    stmt.setString(7, borrow.getStatusBarang());
+                    stmt.executeUpdate();
+                    
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            borrowId = keys.getInt(1);
+                        }
+                    }
+                }
+                
+                Integer available = readAvailable(conn, borrow.getKodeBarang());
+                InventorySummaryDAO.stockChanged(conn, borrow.getKodeBarang(), -borrow.getJumlahPinjam());
+                InventorySummaryDAO.borrowStatusChanged(null, borrow.getStatusBarang());
+                DataVersionDAO.bump(DataVersionDAO.BORROW, DataVersionDAO.BARANG);
+                transactionManager.afterCommit(() -> barangCache.invalidate(borrow.getKodeBarang()));
+                
+                borrow.setIdPeminjaman(borrowId);
+                return ReservationResult.reserved(borrowId, available != null ? available : 0);
+            });
             
         } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                }
-            }
             System.err.println("Error creating borrow: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return ReservationResult.failed(ReservationResult.Status.ERROR, 0);
             
         } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Ajukan beberapa barang sekaligus (keranjang) dalam satu transaksi
+     * Baris barang dikunci dengan satu SELECT ... FOR UPDATE urut kode_barang,
+     * lalu stok dikurangi dan borrow di-insert lewat JDBC batch. Jika satu
+     * barang gagal, tidak ada yang disimpan. Lock StockLocks diambil urut
+     * stripe agar keranjang yang bersamaan tidak saling deadlock.
+     * Semua borrow keranjang selalu disimpan dengan status pending.
+     * 
+     * @param cart Borrow per barang (idPeminjaman & status diisi jika berhasil)
+     * @return Hasil reservasi; saat gagal berisi kode barang penyebabnya
+     */
+    public ReservationResult reserveAll(List<Borrow> cart) {
+        if (cart.isEmpty()) {
+            return ReservationResult.failed(ReservationResult.Status.INVALID_QUANTITY, 0);
+        }
+        
+        // Jumlah per barang, urut kode (urutan lock & update yang tetap)
+        Map<String, Integer> requested = new TreeMap<>();
+        for (Borrow borrow : cart) {
+            if (borrow.getJumlahPinjam() <= 0) {
+                return ReservationResult.failed(ReservationResult.Status.INVALID_QUANTITY, 0, borrow.getKodeBarang());
+            }
+            requested.merge(borrow.getKodeBarang(), borrow.getJumlahPinjam(), Integer::sum);
+        }
+        
+        String sqlLock = "SELECT kode_barang, jumlah_tersedia FROM barang WHERE kode_barang IN (" +
+                         String.join(", ", Collections.nCopies(requested.size(), "?")) + ") " +
+                         "ORDER BY kode_barang FOR UPDATE";
+        String sqlReserve = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia - ? " +
+                            "WHERE kode_barang = ? AND jumlah_tersedia >= ?";
+        String sqlInsert = "INSERT INTO borrow (id_peminjam, kode_barang, jumlah_pinjam, tgl_peminjaman, " +
+                           "tgl_pinjam, dl_kembali, status_barang) VALUES (?, ?, ?, ?, ?, ?, 'pending')";
+        
+        List<ReentrantLock> locks = StockLocks.forKodes(requested.keySet());
+        locks.forEach(ReentrantLock::lock);
+        
+        try {
+            return transactionManager.inTransaction(conn -> {
+                // Kunci semua baris barang dan cek stok sebelum mengubah apa pun
+                Map<String, Integer> available = new HashMap<>();
+                try (PreparedStatement stmt = conn.prepareStatement(sqlLock)) {
+                    int index = 1;
+                    for (String kode : requested.keySet()) {
+                        stmt.setString(index++, kode);
+                    }
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        available.put(rs.getString("kode_barang"), rs.getInt("jumlah_tersedia"));
+                    }
                 }
+                
+                for (Map.Entry<String, Integer> entry : requested.entrySet()) {
+                    Integer stok = available.get(entry.getKey());
+                    if (stok == null) {
+                        return ReservationResult.failed(
+                            ReservationResult.Status.BARANG_NOT_FOUND, 0, entry.getKey());
+                    }
+                    if (stok < entry.getValue()) {
+                        return ReservationResult.failed(
+                            ReservationResult.Status.INSUFFICIENT_STOCK, stok, entry.getKey());
+                    }
+                }
+                
+                // Kurangi stok, satu UPDATE per barang dalam satu batch
+                try (PreparedStatement stmt = conn.prepareStatement(sqlReserve)) {
+                    for (Map.Entry<String, Integer> entry : requested.entrySet()) {
+                        stmt.setInt(1, entry.getValue());
+                        stmt.setString(2, entry.getKey());
+                        stmt.setInt(3, entry.getValue());
+                        stmt.addBatch();
+                    }
+                    for (int count : stmt.executeBatch()) {
+                        if (count == 0) {
+                            // Tidak mungkin selama baris terkunci; batalkan seluruh keranjang
+                            throw new SQLException("Stock changed while cart rows were locked");
+                        }
+                    }
+                }
+                
+                // Insert semua borrow dalam satu batch
+                try (PreparedStatement stmt = conn.prepareStatement(sqlInsert, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Borrow borrow : cart) {
+                        stmt.setInt(1, borrow.getIdPeminjam());
+                        stmt.setString(2, borrow.getKodeBarang());
+                        stmt.setInt(3, borrow.getJumlahPinjam());
+                        stmt.setDate(4, Date.valueOf(borrow.getTglPeminjaman()));
+                        stmt.setDate(5, Date.valueOf(borrow.getTglPinjam()));
+                        stmt.setDate(6, Date.valueOf(borrow.getDlKembali()));
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        for (Borrow borrow : cart) {
+                            if (keys.next()) {
+                                borrow.setIdPeminjaman(keys.getInt(1));
+                            }
+                            borrow.setStatusBarang("pending");
+                        }
+                    }
+                }
+                
+                Map<String, Integer> stockDeltas = new HashMap<>();
+                requested.forEach((kode, jumlah) -> stockDeltas.put(kode, -jumlah));
+                InventorySummaryDAO.stockChanged(conn, stockDeltas);
+                InventorySummaryDAO.borrowStatusChanged(null, "pending", cart.size());
+                DataVersionDAO.bump(DataVersionDAO.BORROW, DataVersionDAO.BARANG);
+                transactionManager.afterCommit(() -> requested.keySet().forEach(barangCache::invalidate));
+                return ReservationResult.reservedAll();
+            });
+            
+        } catch (SQLException e) {
+            for (Borrow borrow : cart) {
+                borrow.setIdPeminjaman(0);
+            }
+            System.err.println("Error creating borrow cart: " + e.getMessage());
+            e.printStackTrace();
+            return ReservationResult.failed(ReservationResult.Status.ERROR, 0);
+            
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
             }
         }
     }
@@ -108,13 +280,12 @@ public class BorrowDAO {
      * @return Borrow object if found, null otherwise
      */
     public Borrow getById(int id) {
-        String sql = "SELECT b.*, u.nama as nama_peminjam, p.no_telepon, br.nama_barang " +
+        String sql = "SELECT b.*, br.nama_barang " +
                      "FROM borrow b " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON b.kode_barang = br.kode_barang " +
                      "WHERE b.id_peminjaman = ?";
         
+        Borrow borrow = null;
         try (Connection conn = dbConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -122,7 +293,7 @@ public class BorrowDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractBorrowFromResultSet(rs);
+                borrow = extractBorrowFromResultSet(rs);
             }
             
         } catch (SQLException e) {
@@ -130,7 +301,10 @@ public class BorrowDAO {
             e.printStackTrace();
         }
         
-        return null;
+        if (borrow != null) {
+            withPeminjam(List.of(borrow));
+        }
+        return borrow;
     }
     
     /**
@@ -140,10 +314,8 @@ public class BorrowDAO {
      */
     public List<Borrow> getAll() {
         List<Borrow> list = new ArrayList<>();
-        String sql = "SELECT b.*, u.nama as nama_peminjam, p.no_telepon, br.nama_barang " +
+        String sql = "SELECT b.*, br.nama_barang " +
                      "FROM borrow b " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON b.kode_barang = br.kode_barang " +
                      "ORDER BY b.created_at DESC";
         
@@ -160,29 +332,46 @@ public class BorrowDAO {
             e.printStackTrace();
         }
         
-        return list;
+        return withPeminjam(list);
     }
     
     /**
-     * Get peminjaman by peminjam ID
+     * Get satu halaman peminjaman, terbaru dulu (keyset pagination)
+     * Memakai idx_borrow_created (created_at, id_peminjaman).
      * 
-     * @param peminjamId ID peminjam
-     * @return List of borrow by peminjam
+     * @param status Filter status_barang, null untuk semua
+     * @param after Cursor dari halaman sebelumnya, null untuk halaman pertama
+     * @param limit Ukuran halaman
+     * @return Page of borrow
      */
-    public List<Borrow> getByPeminjamId(int peminjamId) {
+    public Page<Borrow> getPage(String status, PageCursor after, int limit) {
         List<Borrow> list = new ArrayList<>();
-        String sql = "SELECT b.*, u.nama as nama_peminjam, p.no_telepon, br.nama_barang " +
+        List<String> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add("b.status_barang = ?");
+        }
+        if (after != null) {
+            conditions.add(KeysetSql.after("b.created_at", "b.id_peminjaman"));
+        }
+        
+        String sql = "SELECT b.*, br.nama_barang " +
                      "FROM borrow b " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON b.kode_barang = br.kode_barang " +
-                     "WHERE b.id_peminjam = ? " +
-                     "ORDER BY b.created_at DESC";
+                     (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ") +
+                     "ORDER BY b.created_at DESC, b.id_peminjaman DESC " +
+                     "LIMIT ?";
         
         try (Connection conn = dbConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setInt(1, peminjamId);
+            int index = 1;
+            if (status != null) {
+                stmt.setString(index++, status);
+            }
+            if (after != null) {
+                index = KeysetSql.bind(stmt, index, after);
+            }
+            stmt.setInt(index, limit + 1);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -190,42 +379,203 @@ public class BorrowDAO {
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting borrow by peminjam: " + e.getMessage());
+            System.err.println("Error getting borrow page: " + e.getMessage());
             e.printStackTrace();
         }
         
-        return list;
+        return Page.of(withPeminjam(list), limit, b -> new PageCursor(b.getCreatedAt(), b.getIdPeminjaman()));
     }
     
     /**
-     * Get active peminjaman (dipinjam)
+     * Get satu halaman riwayat peminjaman (selain dipinjam/pending), terbaru dulu
+     * Peminjam memakai idx_borrow_peminjam_created (id_peminjam, created_at, id_peminjaman).
      * 
-     * @return List of active borrow
+     * @param peminjamId Filter peminjam, null untuk semua (admin)
+     * @param after Cursor dari halaman sebelumnya, null untuk halaman pertama
+     * @param limit Ukuran halaman
+     * @return Page of borrow
      */
-    public List<Borrow> getActiveBorrows() {
+    public Page<Borrow> getHistoryPage(Integer peminjamId, PageCursor after, int limit) {
         List<Borrow> list = new ArrayList<>();
-        String sql = "SELECT b.*, u.nama as nama_peminjam, p.no_telepon, br.nama_barang " +
+        List<String> conditions = new ArrayList<>();
+        conditions.add("b.status_barang NOT IN ('dipinjam', 'pending')");
+        if (peminjamId != null) {
+            conditions.add("b.id_peminjam = ?");
+        }
+        if (after != null) {
+            conditions.add(KeysetSql.after("b.created_at", "b.id_peminjaman"));
+        }
+        
+        String sql = "SELECT b.*, br.nama_barang " +
                      "FROM borrow b " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON b.kode_barang = br.kode_barang " +
-                     "WHERE b.status_barang = 'dipinjam' " +
-                     "ORDER BY b.dl_kembali ASC";
+                     "WHERE " + String.join(" AND ", conditions) + " " +
+                     "ORDER BY b.created_at DESC, b.id_peminjaman DESC " +
+                     "LIMIT ?";
         
         try (Connection conn = dbConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (peminjamId != null) {
+                stmt.setInt(index++, peminjamId);
+            }
+            if (after != null) {
+                index = KeysetSql.bind(stmt, index, after);
+            }
+            stmt.setInt(index, limit + 1);
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
                 list.add(extractBorrowFromResultSet(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting active borrows: " + e.getMessage());
+            System.err.println("Error getting borrow history page: " + e.getMessage());
             e.printStackTrace();
         }
         
-        return list;
+        return Page.of(withPeminjam(list), limit, b -> new PageCursor(b.getCreatedAt(), b.getIdPeminjaman()));
+    }
+    
+    /**
+     * Stream seluruh peminjaman, terlama dulu (untuk export/laporan besar)
+     * Baris dibaca bertahap dari server; tutup Stream dengan try-with-resources.
+     * Nama peminjam ikut di-JOIN, karena ResultSet tetap terbuka selama stream dibaca.
+     * 
+     * @param peminjamId Filter peminjam, null untuk semua (admin)
+     * @return Stream of borrow, kosong jika gagal
+     */
+    public Stream<Borrow> streamAll(Integer peminjamId) {
+        String sql = "SELECT b.*, br.nama_barang, u.nama AS nama_peminjam, p.no_telepon " +
+                     "FROM borrow b " +
+                     "JOIN barang br ON b.kode_barang = br.kode_barang " +
+                     "LEFT JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
+                     "LEFT JOIN user u ON p.id_user = u.id_user " +
+                     (peminjamId != null ? "WHERE b.id_peminjam = ? " : "") +
+                     "ORDER BY b.created_at ASC, b.id_peminjaman ASC";
+        
+        try {
+            return RowStream.open(dbConfig.getConnection(), sql, stmt -> {
+                if (peminjamId != null) {
+                    stmt.setInt(1, peminjamId);
+                }
+            }, this::extractBorrowWithPeminjam);
+            
+        } catch (SQLException e) {
+            System.err.println("Error streaming borrow: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Get peminjaman by peminjam ID
+     * 
+     * @param peminjamId ID peminjam
+     * @return List of borrow by peminjam
+     */
+    public List<Borrow> getByPeminjamId(int peminjamId) {
+        try {
+            return queryCache.getList(QueryCache.key("borrow.byPeminjam", peminjamId), CACHE_TAGS, () -> {
+                List<Borrow> list = new ArrayList<>();
+                String sql = "SELECT b.*, br.nama_barang " +
+                             "FROM borrow b " +
+                             "JOIN barang br ON b.kode_barang = br.kode_barang " +
+                             "WHERE b.id_peminjam = ? " +
+                             "ORDER BY b.created_at DESC";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    
+                    stmt.setInt(1, peminjamId);
+                    ResultSet rs = stmt.executeQuery();
+                    
+                    while (rs.next()) {
+                        list.add(extractBorrowFromResultSet(rs));
+                    }
+                }
+                
+                return withPeminjam(list);
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting borrow by peminjam: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get active peminjaman (dipinjam)
+     * 
+     * @return List of active borrow
+     */
+    public List<Borrow> getActiveBorrows() {
+        try {
+            return queryCache.getList(QueryCache.key("borrow.active"), CACHE_TAGS, () -> {
+                List<Borrow> list = new ArrayList<>();
+                String sql = "SELECT b.*, br.nama_barang " +
+                             "FROM borrow b " +
+                             "JOIN barang br ON b.kode_barang = br.kode_barang " +
+                             "WHERE b.status_barang = 'dipinjam' " +
+                             "ORDER BY b.dl_kembali ASC";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    
+                    while (rs.next()) {
+                        list.add(extractBorrowFromResultSet(rs));
+                    }
+                }
+                
+                return withPeminjam(list);
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting active borrows: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get peminjaman atas barang milik instansi dengan status tertentu
+     * Filter instansi dan status dilakukan di SQL (idx_borrow_kode_status),
+     * sehingga layar instansi cukup satu round trip.
+     * 
+     * @param idInstansi ID instansi pemilik barang
+     * @param status Status peminjaman (dipinjam, pending, ...)
+     * @return List of borrow
+     */
+    public List<Borrow> getByInstansiAndStatus(int idInstansi, String status) {
+        try {
+            return queryCache.getList(QueryCache.key("borrow.byInstansiStatus", idInstansi, status), CACHE_TAGS, () -> {
+                List<Borrow> list = new ArrayList<>();
+                String sql = "SELECT b.*, br.nama_barang " +
+                             "FROM barang br " +
+                             "JOIN borrow b ON b.kode_barang = br.kode_barang AND b.status_barang = ? " +
+                             "WHERE br.id_instansi = ? " +
+                             "ORDER BY b.dl_kembali ASC";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    
+                    stmt.setString(1, status);
+                    stmt.setInt(2, idInstansi);
+                    ResultSet rs = stmt.executeQuery();
+                    
+                    while (rs.next()) {
+                        list.add(extractBorrowFromResultSet(rs));
+                    }
+                }
+                
+                return withPeminjam(list);
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting borrow by instansi: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
     }
     
     /**
@@ -234,48 +584,94 @@ public class BorrowDAO {
      * @return List of pending borrow
      */
     public List<Borrow> getPendingBorrows() {
+        try {
+            return queryCache.getList(QueryCache.key("borrow.pending"), CACHE_TAGS, () -> {
+                List<Borrow> list = new ArrayList<>();
+                String sql = "SELECT b.*, br.nama_barang " +
+                             "FROM borrow b " +
+                             "JOIN barang br ON b.kode_barang = br.kode_barang " +
+                             "WHERE b.status_barang = 'pending' " +
+                             "ORDER BY b.created_at DESC";
+                
+                try (Connection conn = dbConfig.getConnection();
+                     Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    
+                    while (rs.next()) {
+                        list.add(extractBorrowFromResultSet(rs));
+                    }
+                }
+                
+                return withPeminjam(list);
+            });
+        } catch (SQLException e) {
+            System.err.println("Error getting pending borrows: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get peminjaman yang dibuat atau diubah sejak watermark
+     * Memakai >= agar baris dengan timestamp sama tidak terlewat;
+     * pemanggil men-dedupe berdasarkan id_peminjaman.
+     * 
+     * @param since Watermark updated_at
+     * @return List of changed borrow, urut updated_at
+     */
+    public List<Borrow> getChangedSince(Timestamp since) {
         List<Borrow> list = new ArrayList<>();
-        String sql = "SELECT b.*, u.nama as nama_peminjam, p.no_telepon, br.nama_barang " +
+        String sql = "SELECT b.*, br.nama_barang " +
                      "FROM borrow b " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON b.kode_barang = br.kode_barang " +
-                     "WHERE b.status_barang = 'pending' " +
-                     "ORDER BY b.created_at DESC";
+                     "WHERE b.updated_at >= ? " +
+                     "ORDER BY b.updated_at ASC";
         
         try (Connection conn = dbConfig.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setTimestamp(1, since);
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
                 list.add(extractBorrowFromResultSet(rs));
             }
             
         } catch (SQLException e) {
-            System.err.println("Error getting pending borrows: " + e.getMessage());
+            System.err.println("Error getting changed borrows: " + e.getMessage());
             e.printStackTrace();
         }
         
-        return list;
+        return withPeminjam(list);
     }
     
     /**
      * Approve peminjaman (admin)
+     * Transisi pending -> dipinjam dalam satu UPDATE bersyarat; jika peminjaman
+     * sudah diproses (mis. oleh admin lain), tidak ada yang berubah.
      * 
      * @param borrowId ID peminjaman
      * @param adminId ID admin yang approve
-     * @return true if successful, false otherwise
+     * @return true jika status berubah, false jika bukan pending atau gagal
      */
     public boolean approve(int borrowId, int adminId) {
-        String sql = "UPDATE borrow SET status_barang = 'dipinjam', id_admin = ? WHERE id_peminjaman = ?";
+        String sql = "UPDATE borrow SET status_barang = 'dipinjam', id_admin = ? " +
+                     "WHERE id_peminjaman = ? AND status_barang = 'pending'";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, adminId);
-            stmt.setInt(2, borrowId);
-            
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, adminId);
+                    stmt.setInt(2, borrowId);
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.borrowStatusChanged("pending", "dipinjam");
+                        DataVersionDAO.bump(DataVersionDAO.BORROW);
+                    }
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error approving borrow: " + e.getMessage());
@@ -286,136 +682,191 @@ public class BorrowDAO {
     
     /**
      * Reject peminjaman (admin)
+     * Transisi pending -> ditolak lewat UPDATE bersyarat; stok baru dikembalikan
+     * jika transisi itu berhasil, di transaksi yang sama. Baris tetap disimpan
+     * sebagai riwayat.
      * 
      * @param borrowId ID peminjaman
-     * @return true if successful, false otherwise
+     * @return true jika status berubah, false jika bukan pending atau gagal
      */
     public boolean reject(int borrowId) {
-        Connection conn = null;
+        String sql = "UPDATE borrow SET status_barang = 'ditolak' " +
+                     "WHERE id_peminjaman = ? AND status_barang = 'pending'";
         
         try {
-            conn = dbConfig.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Get borrow details
-            Borrow borrow = getById(borrowId);
-            if (borrow == null) {
-                conn.rollback();
-                return false;
-            }
-            
-            // Kembalikan stok
-            String sqlUpdate = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia + ? WHERE kode_barang = ?";
-            PreparedStatement stmtUpdate = conn.prepareStatement(sqlUpdate);
-            stmtUpdate.setInt(1, borrow.getJumlahPinjam());
-            stmtUpdate.setString(2, borrow.getKodeBarang());
-            stmtUpdate.executeUpdate();
-            stmtUpdate.close();
-            
-            // Delete borrow
-            String sqlDelete = "DELETE FROM borrow WHERE id_peminjaman = ?";
-            PreparedStatement stmtDelete = conn.prepareStatement(sqlDelete);
-            stmtDelete.setInt(1, borrowId);
-            boolean deleted = stmtDelete.executeUpdate() > 0;
-            stmtDelete.close();
-            
-            if (deleted) {
-                conn.commit();
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, borrowId);
+                    
+                    if (stmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                
+                Borrow borrow = readStockLine(conn, borrowId);
+                restoreStock(conn, borrow);
+                InventorySummaryDAO.stockChanged(conn, borrow.getKodeBarang(), borrow.getJumlahPinjam());
+                InventorySummaryDAO.borrowStatusChanged("pending", "ditolak");
+                DataVersionDAO.bump(DataVersionDAO.BORROW, DataVersionDAO.BARANG);
+                transactionManager.afterCommit(() -> barangCache.invalidate(borrow.getKodeBarang()));
                 return true;
-            }
-            
-            conn.rollback();
-            return false;
+            });
             
         } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                }
-            }
             System.err.println("Error rejecting borrow: " + e.getMessage());
             e.printStackTrace();
             return false;
+        }
+    }
+    
+    /**
+     * Approve banyak peminjaman sekaligus (admin)
+     * Baris yang masih pending dikunci dalam satu SELECT ... FOR UPDATE, lalu
+     * statusnya diubah lewat JDBC batch di satu transaksi. ID yang sudah
+     * diproses (mis. oleh admin lain) dilewati.
+     * 
+     * @param borrowIds ID peminjaman terpilih
+     * @param adminId ID admin yang approve
+     * @return ID yang berhasil disetujui, null jika gagal
+     */
+    public List<Integer> approveAll(Collection<Integer> borrowIds, int adminId) {
+        String sql = "UPDATE borrow SET status_barang = 'dipinjam', id_admin = ? " +
+                     "WHERE id_peminjaman = ? AND status_barang = 'pending'";
+        
+        if (borrowIds.isEmpty()) {
+            return List.of();
+        }
+        
+        try {
+            return transactionManager.inTransaction(conn -> {
+                List<Borrow> pending = lockPending(conn, borrowIds);
+                if (pending.isEmpty()) {
+                    return List.<Integer>of();
+                }
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (Borrow borrow : pending) {
+                        stmt.setInt(1, adminId);
+                        stmt.setInt(2, borrow.getIdPeminjaman());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                
+                InventorySummaryDAO.borrowStatusChanged("pending", "dipinjam", pending.size());
+                DataVersionDAO.bump(DataVersionDAO.BORROW);
+                return idsOf(pending);
+            });
             
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
+        } catch (SQLException e) {
+            System.err.println("Error approving borrows: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * Reject banyak peminjaman sekaligus (admin)
+     * Status diubah lewat JDBC batch; pengembalian stok dijumlahkan per
+     * kode_barang sehingga tiap barang cukup satu UPDATE. Delta counter
+     * ringkasan dibaca dalam satu SELECT dan ditulis ke satu slot
+     * inventory_summary sebelum commit. ID yang sudah diproses dilewati.
+     * 
+     * @param borrowIds ID peminjaman terpilih
+     * @return ID yang berhasil ditolak, null jika gagal
+     */
+    public List<Integer> rejectAll(Collection<Integer> borrowIds) {
+        String sqlStatus = "UPDATE borrow SET status_barang = 'ditolak' " +
+                           "WHERE id_peminjaman = ? AND status_barang = 'pending'";
+        String sqlStock = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia + ? WHERE kode_barang = ?";
+        
+        if (borrowIds.isEmpty()) {
+            return List.of();
+        }
+        
+        try {
+            return transactionManager.inTransaction(conn -> {
+                List<Borrow> pending = lockPending(conn, borrowIds);
+                if (pending.isEmpty()) {
+                    return List.<Integer>of();
                 }
-            }
+                
+                // Urut kode agar row lock barang selalu diambil dengan urutan yang sama
+                Map<String, Integer> restored = new TreeMap<>();
+                try (PreparedStatement stmt = conn.prepareStatement(sqlStatus)) {
+                    for (Borrow borrow : pending) {
+                        stmt.setInt(1, borrow.getIdPeminjaman());
+                        stmt.addBatch();
+                        restored.merge(borrow.getKodeBarang(), borrow.getJumlahPinjam(), Integer::sum);
+                    }
+                    stmt.executeBatch();
+                }
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sqlStock)) {
+                    for (Map.Entry<String, Integer> entry : restored.entrySet()) {
+                        stmt.setInt(1, entry.getValue());
+                        stmt.setString(2, entry.getKey());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                
+                InventorySummaryDAO.stockChanged(conn, restored);
+                InventorySummaryDAO.borrowStatusChanged("pending", "ditolak", pending.size());
+                DataVersionDAO.bump(DataVersionDAO.BORROW, DataVersionDAO.BARANG);
+                transactionManager.afterCommit(() -> restored.keySet().forEach(barangCache::invalidate));
+                return idsOf(pending);
+            });
+            
+        } catch (SQLException e) {
+            System.err.println("Error rejecting borrows: " + e.getMessage());
+            e.printStackTrace();
+            return null;
         }
     }
     
     /**
      * Kembalikan barang
+     * Transisi dipinjam -> dikembalikan lewat UPDATE bersyarat; kondisi barang
+     * dicatat di baris peminjaman dan seluruh jumlah pinjam dikembalikan ke stok
+     * (apa pun kondisinya, seperti sebelumnya) di transaksi yang sama.
      * 
      * @param borrowId ID peminjaman
      * @param kondisi Kondisi barang saat dikembalikan
      * @param foto Foto pengembalian (optional)
-     * @return true if successful, false otherwise
+     * @return true jika status berubah, false jika bukan dipinjam atau gagal
      */
     public boolean returnItem(int borrowId, String kondisi, String foto) {
-        Connection conn = null;
+        String sql = "UPDATE borrow SET status_barang = 'dikembalikan', tgl_kembali = ?, " +
+                     "kondisi_barang = ?, foto_pengembalian = ? " +
+                     "WHERE id_peminjaman = ? AND status_barang = 'dipinjam'";
         
         try {
-            conn = dbConfig.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Get borrow details
-            Borrow borrow = getById(borrowId);
-            if (borrow == null) {
-                conn.rollback();
-                return false;
-            }
-            
-            // Update borrow
-            String sqlUpdate = "UPDATE borrow SET status_barang = 'dikembalikan', tgl_kembali = ?, " +
-                              "kondisi_barang = ?, foto_pengembalian = ? WHERE id_peminjaman = ?";
-            PreparedStatement stmtUpdate = conn.prepareStatement(sqlUpdate);
-            stmtUpdate.setDate(1, Date.valueOf(LocalDate.now()));
-            stmtUpdate.setString(2, kondisi);
-            stmtUpdate.setString(3, foto);
-            stmtUpdate.setInt(4, borrowId);
-            stmtUpdate.executeUpdate();
-            stmtUpdate.close();
-            
-            // Kembalikan stok
-            String sqlBarang = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia + ? WHERE kode_barang = ?";
-            PreparedStatement stmtBarang = conn.prepareStatement(sqlBarang);
-            stmtBarang.setInt(1, borrow.getJumlahPinjam());
-            stmtBarang.setString(2, borrow.getKodeBarang());
-            stmtBarang.executeUpdate();
-            stmtBarang.close();
-            
-            conn.commit();
-            return true;
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setDate(1, Date.valueOf(LocalDate.now()));
+                    stmt.setString(2, kondisi);
+                    stmt.setString(3, foto);
+                    stmt.setInt(4, borrowId);
+                    
+                    if (stmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                
+                Borrow borrow = readStockLine(conn, borrowId);
+                restoreStock(conn, borrow);
+                InventorySummaryDAO.stockChanged(conn, borrow.getKodeBarang(), borrow.getJumlahPinjam());
+                InventorySummaryDAO.borrowStatusChanged("dipinjam", "dikembalikan");
+                DataVersionDAO.bump(DataVersionDAO.BORROW, DataVersionDAO.BARANG);
+                transactionManager.afterCommit(() -> barangCache.invalidate(borrow.getKodeBarang()));
+                return true;
+            });
             
         } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                }
-            }
             System.err.println("Error returning item: " + e.getMessage());
             e.printStackTrace();
             return false;
-            
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }
         }
     }
     
@@ -426,10 +877,8 @@ public class BorrowDAO {
      */
     public List<Borrow> getOverdueBorrows() {
         List<Borrow> list = new ArrayList<>();
-        String sql = "SELECT b.*, u.nama as nama_peminjam, p.no_telepon, br.nama_barang " +
+        String sql = "SELECT b.*, br.nama_barang " +
                      "FROM borrow b " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON b.kode_barang = br.kode_barang " +
                      "WHERE b.status_barang = 'dipinjam' AND b.dl_kembali < CURDATE() " +
                      "ORDER BY b.dl_kembali ASC";
@@ -447,13 +896,218 @@ public class BorrowDAO {
             e.printStackTrace();
         }
         
-        return list;
+        return withPeminjam(list);
+    }
+    
+    /**
+     * Muat id, kode barang dan status peminjaman untuk QuickOpenIndex
+     * Hanya peminjaman yang masih berjalan (pending/dipinjam, lewat
+     * idx_borrow_status_deadline) ditambah QUICK_OPEN_RECENT peminjaman
+     * terbaru, agar login admin tidak membaca seluruh riwayat borrow.
+     * 
+     * @return Entry quick-open, null jika gagal
+     */
+    List<QuickOpenIndex.Entry> loadQuickOpenEntries() {
+        String sql = "SELECT id_peminjaman, kode_barang, status_barang FROM borrow " +
+                     "WHERE status_barang IN ('pending', 'dipinjam') " +
+                     "UNION " +
+                     "SELECT id_peminjaman, kode_barang, status_barang FROM (" +
+                     "SELECT id_peminjaman, kode_barang, status_barang FROM borrow " +
+                     "ORDER BY id_peminjaman DESC LIMIT ?) recent";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, QUICK_OPEN_RECENT);
+            ResultSet rs = stmt.executeQuery();
+            
+            List<QuickOpenIndex.Entry> entries = new ArrayList<>();
+            while (rs.next()) {
+                entries.add(QuickOpenIndex.peminjamanEntry(
+                    rs.getInt("id_peminjaman"), rs.getString("kode_barang"), rs.getString("status_barang")));
+            }
+            return entries;
+            
+        } catch (SQLException e) {
+            System.err.println("Error loading quick-open borrows: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    // ============================================================
+    // ASYNC VARIANTS (dijalankan di DbExecutor)
+    // ============================================================
+
+    public CompletableFuture<Boolean> createAsync(Borrow borrow) {
+        return DbExecutor.supply(() -> create(borrow));
+    }
+    
+    public CompletableFuture<ReservationResult> reserveAsync(Borrow borrow) {
+        return DbExecutor.supply(() -> reserve(borrow));
+    }
+    
+    public CompletableFuture<ReservationResult> reserveAllAsync(List<Borrow> cart) {
+        return DbExecutor.supply(() -> reserveAll(cart));
+    }
+    
+    public CompletableFuture<Borrow> getByIdAsync(int id) {
+        return DbExecutor.supply(() -> getById(id));
+    }
+    
+    public CompletableFuture<List<Borrow>> getAllAsync() {
+        return DbExecutor.supply(() -> getAll());
+    }
+    
+    public CompletableFuture<List<Borrow>> getByPeminjamIdAsync(int peminjamId) {
+        return DbExecutor.supply(() -> getByPeminjamId(peminjamId));
+    }
+    
+    public CompletableFuture<List<Borrow>> getActiveBorrowsAsync() {
+        return DbExecutor.supply(() -> getActiveBorrows());
+    }
+    
+    public CompletableFuture<List<Borrow>> getByInstansiAndStatusAsync(int idInstansi, String status) {
+        return DbExecutor.supply(() -> getByInstansiAndStatus(idInstansi, status));
+    }
+    
+    public CompletableFuture<List<Borrow>> getPendingBorrowsAsync() {
+        return DbExecutor.supply(() -> getPendingBorrows());
+    }
+    
+    public CompletableFuture<List<Borrow>> getChangedSinceAsync(Timestamp since) {
+        return DbExecutor.supply(() -> getChangedSince(since));
+    }
+    
+    public CompletableFuture<Boolean> approveAsync(int borrowId, int adminId) {
+        return DbExecutor.supply(() -> approve(borrowId, adminId));
+    }
+    
+    public CompletableFuture<Boolean> rejectAsync(int borrowId) {
+        return DbExecutor.supply(() -> reject(borrowId));
+    }
+    
+    public CompletableFuture<List<Integer>> approveAllAsync(Collection<Integer> borrowIds, int adminId) {
+        return DbExecutor.supply(() -> approveAll(borrowIds, adminId));
+    }
+    
+    public CompletableFuture<List<Integer>> rejectAllAsync(Collection<Integer> borrowIds) {
+        return DbExecutor.supply(() -> rejectAll(borrowIds));
+    }
+    
+    public CompletableFuture<Boolean> returnItemAsync(int borrowId, String kondisi, String foto) {
+        return DbExecutor.supply(() -> returnItem(borrowId, kondisi, foto));
+    }
+    
+    public CompletableFuture<List<Borrow>> getOverdueBorrowsAsync() {
+        return DbExecutor.supply(() -> getOverdueBorrows());
+    }
+    
+    public CompletableFuture<Page<Borrow>> getPageAsync(String status, PageCursor after, int limit) {
+        return DbExecutor.supply(() -> getPage(status, after, limit));
+    }
+    
+    public CompletableFuture<Page<Borrow>> getHistoryPageAsync(Integer peminjamId, PageCursor after, int limit) {
+        return DbExecutor.supply(() -> getHistoryPage(peminjamId, after, limit));
     }
     
     // ============================================================
     // HELPER METHODS
     // ============================================================
     
+    /**
+     * Baca stok tersedia barang
+     * 
+     * @return jumlah_tersedia, atau null jika barang tidak ada
+     */
+    private Integer readAvailable(Connection conn, String kodeBarang) throws SQLException {
+        String sql = "SELECT jumlah_tersedia FROM barang WHERE kode_barang = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, kodeBarang);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getInt("jumlah_tersedia");
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Baca kode barang & jumlah pinjam (tidak pernah berubah setelah dibuat)
+     * Dipanggil setelah UPDATE bersyarat, di transaksi yang sama.
+     */
+    private Borrow readStockLine(Connection conn, int borrowId) throws SQLException {
+        String sql = "SELECT kode_barang, jumlah_pinjam FROM borrow WHERE id_peminjaman = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, borrowId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (!rs.next()) {
+                throw new SQLException("Borrow not found: " + borrowId);
+            }
+            Borrow borrow = new Borrow();
+            borrow.setIdPeminjaman(borrowId);
+            borrow.setKodeBarang(rs.getString("kode_barang"));
+            borrow.setJumlahPinjam(rs.getInt("jumlah_pinjam"));
+            return borrow;
+        }
+    }
+    
+    /**
+     * Kembalikan jumlah pinjam ke stok barang (setelah transisi status berhasil)
+     */
+    private void restoreStock(Connection conn, Borrow borrow) throws SQLException {
+        String sql = "UPDATE barang SET jumlah_tersedia = jumlah_tersedia + ? WHERE kode_barang = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, borrow.getJumlahPinjam());
+            stmt.setString(2, borrow.getKodeBarang());
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Kunci baris yang masih pending dari ID terpilih (urut ID)
+     * Hasil hanya berisi id, kode barang dan jumlah pinjam.
+     */
+    private List<Borrow> lockPending(Connection conn, Collection<Integer> borrowIds) throws SQLException {
+        String sql = "SELECT id_peminjaman, kode_barang, jumlah_pinjam FROM borrow " +
+                     "WHERE status_barang = 'pending' AND id_peminjaman IN (" +
+                     String.join(", ", Collections.nCopies(borrowIds.size(), "?")) + ") " +
+                     "ORDER BY id_peminjaman FOR UPDATE";
+        
+        List<Borrow> list = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Integer id : borrowIds) {
+                stmt.setInt(index++, id);
+            }
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                Borrow borrow = new Borrow();
+                borrow.setIdPeminjaman(rs.getInt("id_peminjaman"));
+                borrow.setKodeBarang(rs.getString("kode_barang"));
+                borrow.setJumlahPinjam(rs.getInt("jumlah_pinjam"));
+                list.add(borrow);
+            }
+        }
+        
+        return list;
+    }
+    
+    private static List<Integer> idsOf(List<Borrow> borrows) {
+        List<Integer> ids = new ArrayList<>(borrows.size());
+        for (Borrow borrow : borrows) {
+            ids.add(borrow.getIdPeminjaman());
+        }
+        return ids;
+    }
+    
     /**
      * Extract Borrow object from ResultSet
      * 
@@ -482,12 +1136,46 @@ public class BorrowDAO {
         borrow.setFotoPengembalian(rs.getString("foto_pengembalian"));
         borrow.setStatusBarang(rs.getString("status_barang"));
         borrow.setCreatedAt(rs.getTimestamp("created_at"));
+        borrow.setUpdatedAt(rs.getTimestamp("updated_at"));
         
-        // Extended properties
-        borrow.setNamaPeminjam(rs.getString("nama_peminjam"));
-        borrow.setNoTelepon(rs.getString("no_telepon"));
+        // Extended properties (nama & telepon peminjam diisi withPeminjam() setelah ResultSet ditutup)
         borrow.setNamaBarang(rs.getString("nama_barang"));
         
         return borrow;
     }
+    
+    /**
+     * Extract Borrow dari query yang sudah JOIN peminjam + user (streamAll)
+     */
+    private Borrow extractBorrowWithPeminjam(ResultSet rs) throws SQLException {
+        Borrow borrow = extractBorrowFromResultSet(rs);
+        borrow.setNamaPeminjam(rs.getString("nama_peminjam"));
+        borrow.setNoTelepon(rs.getString("no_telepon"));
+        return borrow;
+    }
+    
+    /**
+     * Isi nama & telepon peminjam untuk baris list
+     * Dipanggil setelah ResultSet dan koneksinya ditutup; id yang belum
+     * di-cache dimuat UserDirectory dalam satu query.
+     * 
+     * @param list Borrow hasil query
+     * @return List yang sama
+     */
+    private List<Borrow> withPeminjam(List<Borrow> list) {
+        Set<Integer> ids = new HashSet<>();
+        for (Borrow borrow : list) {
+            ids.add(borrow.getIdPeminjam());
+        }
+        
+        Map<Integer, UserDirectory.PeminjamInfo> peminjam = userDirectory.getPeminjams(ids);
+        for (Borrow borrow : list) {
+            UserDirectory.PeminjamInfo info = peminjam.get(borrow.getIdPeminjam());
+            if (info != null) {
+                borrow.setNamaPeminjam(info.nama());
+                borrow.setNoTelepon(info.noTelepon());
+            }
+        }
+        return list;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/DataVersionDAO.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.DatabaseConfig;
+import com.inventaris.config.TransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * DataVersionDAO - Counter versi per tabel
+ * Setiap operasi tulis di DAO menaikkan versi tabel yang diubah, sehingga
+ * auto-refresh cukup membaca tabel kecil ini untuk tahu apakah data berubah.
+ * Versi ditulis di dalam transaksi operasi tulis, jadi tidak bisa tertinggal
+ * dari data yang sudah commit.
+ */
+public class DataVersionDAO {
+    
+    public static final String BARANG = "barang";
+    public static final String BORROW = "borrow";
+    
+    /** Dinaikkan saat barang dihapus; delta fetch tidak bisa melihat penghapusan */
+    public static final String BARANG_DELETE = "barang.delete";
+    
+    public static final String LAPOR = "lapor";
+    public static final String USER = "user";
+    
+    private final DatabaseConfig dbConfig;
+    
+    /**
+     * Constructor
+     */
+    public DataVersionDAO() {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+    
+    private static final String PENDING_KEY = "data_version";
+    
+    /**
+     * Naikkan versi tabel
+     * Dipanggil di dalam transaksi operasi tulis. Baris data_version ditulis di
+     * transaksi yang sama tepat sebelum commit (lihat TransactionManager.deferred()),
+     * sehingga versi hanya naik jika perubahan data ikut commit. Entry QueryCache
+     * untuk tabel tersebut dibuang setelah commit. Di luar transaksi, versi
+     * dinaikkan dalam transaksi sendiri.
+     * 
+     * @param tables Nama tabel yang diubah
+     * @throws SQLException jika versi gagal ditulis (di luar transaksi)
+     */
+    public static void bump(String... tables) throws SQLException {
+        TransactionManager transactionManager = TransactionManager.getInstance();
+        PendingVersions pending = transactionManager.deferred(PENDING_KEY, PendingVersions::new);
+        if (pending == null) {
+            transactionManager.inTransaction(conn -> {
+                bump(tables);
+                return null;
+            });
+            return;
+        }
+        Collections.addAll(pending.tables, tables);
+    }
+    
+    /**
+     * Get versi semua tabel
+     * 
+     * @return Map nama tabel ke versi, atau null jika gagal dibaca
+     */
+    public Map<String, Long> getVersions() {
+        String sql = "SELECT table_name, version FROM data_version";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            Map<String, Long> versions = new HashMap<>();
+            while (rs.next()) {
+                versions.put(rs.getString("table_name"), rs.getLong("version"));
+            }
+            QueryCache.getInstance().applyVersions(versions);
+            return versions;
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting data versions: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    /**
+     * Versi tabel yang dinaikkan oleh satu transaksi
+     * Tabel diurutkan, agar transaksi yang menaikkan beberapa versi mengunci
+     * baris data_version dalam urutan yang sama.
+     */
+    private static final class PendingVersions implements TransactionManager.Deferred {
+        
+        private final Set<String> tables = new TreeSet<>();
+        
+        @Override
+        public void flush(Connection conn) throws SQLException {
+            String sqlBump = "INSERT INTO data_version (table_name, version) VALUES (?, 1) " +
+                             "ON DUPLICATE KEY UPDATE version = version + 1";
+            String sqlRead = "SELECT version FROM data_version WHERE table_name = ?";
+            
+            Map<String, Long> written = new HashMap<>();
+            try (PreparedStatement stmtBump = conn.prepareStatement(sqlBump);
+                 PreparedStatement stmtRead = conn.prepareStatement(sqlRead)) {
+                for (String table : tables) {
+                    stmtBump.setString(1, table);
+                    stmtBump.executeUpdate();
+                    
+                    stmtRead.setString(1, table);
+                    ResultSet rs = stmtRead.executeQuery();
+                    if (rs.next()) {
+                        written.put(table, rs.getLong("version"));
+                    }
+                }
+            }
+            
+            String[] changed = tables.toArray(new String[0]);
+            TransactionManager.getInstance().afterCommit(() -> {
+                QueryCache queryCache = QueryCache.getInstance();
+                queryCache.invalidate(changed);
+                // Versi dari commit sendiri tidak perlu dianggap perubahan klien lain
+                queryCache.versionsWritten(written);
+            });
+        }
+    }
+}
@@ -0,0 +1,430 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/InventorySummaryDAO.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.DatabaseConfig;
+import com.inventaris.config.TransactionManager;
+import com.inventaris.model.InventorySummary;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * InventorySummaryDAO - Counter ringkasan inventaris di tabel inventory_summary
+ * Counter dibagi ke SLOTS baris (id 1..SLOTS); nilai sebenarnya adalah SUM
+ * semua slot. Method static dipanggil DAO lain di dalam transaksinya, setelah
+ * baris dasar diubah. Delta satu transaksi digabung dan ditulis ke satu slot
+ * (dipilih dari hash kode_barang) di transaksi yang sama, tepat sebelum commit,
+ * sehingga counter selalu ikut commit/rollback bersama baris dasarnya dan
+ * transaksi atas barang yang berbeda jarang menunggu di slot yang sama.
+ * reconcile() menghitung ulang counter dari tabel dasar (saat start dan berkala).
+ */
+public class InventorySummaryDAO {
+    
+    /** Jumlah baris slot counter */
+    static final int SLOTS = 16;
+    
+    private static final String PENDING_KEY = "inventory_summary";
+    
+    private static final String[] SUMMARY_COLUMNS = {
+        "total_barang", "barang_tersedia", "unit_tersedia",
+        "borrow_total", "borrow_pending", "borrow_aktif", "borrow_selesai", "borrow_hilang", "borrow_rusak",
+        "lapor_total", "lapor_diproses", "lapor_selesai", "lapor_ditolak"
+    };
+    
+    private final DatabaseConfig dbConfig;
+    private final TransactionManager transactionManager = TransactionManager.getInstance();
+    
+    /**
+     * Constructor
+     */
+    public InventorySummaryDAO() {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+    
+    // ============================================================
+    // TRANSACTIONAL UPDATES
+    // ============================================================
+    
+    /**
+     * Perubahan baris barang (create/update/delete)
+     * 
+     * @param kodeBarang Kode barang (menentukan slot counter)
+     * @param totalDelta +1 create, -1 delete, 0 update
+     * @param wasAvailable Barang tersedia sebelum perubahan
+     * @param oldUnits jumlah_tersedia sebelum perubahan
+     * @param isAvailable Barang tersedia setelah perubahan
+     * @param newUnits jumlah_tersedia setelah perubahan
+     */
+    public static void barangChanged(String kodeBarang, int totalDelta,
+                                     boolean wasAvailable, int oldUnits,
+                                     boolean isAvailable, int newUnits) throws SQLException {
+        Map<String, Integer> deltas = new HashMap<>();
+        deltas.put("total_barang", totalDelta);
+        deltas.put("barang_tersedia", (isAvailable ? 1 : 0) - (wasAvailable ? 1 : 0));
+        deltas.put("unit_tersedia", newUnits - oldUnits);
+        addDeltas(kodeBarang, deltas);
+    }
+    
+    /**
+     * Perubahan stok barang (pinjam, tolak, kembali)
+     * Dipanggil SETELAH jumlah_tersedia diubah; nilai lama dihitung dari nilai baru - delta.
+     * Baris barang sudah terkunci oleh UPDATE sebelumnya, jadi pembacaan ini konsisten.
+     * 
+     * @param conn Koneksi transaksi yang sedang berjalan
+     * @param kodeBarang Kode barang
+     * @param delta Perubahan jumlah_tersedia
+     */
+    public static void stockChanged(Connection conn, String kodeBarang, int delta) throws SQLException {
+        stockChanged(conn, Map.of(kodeBarang, delta));
+    }
+    
+    /**
+     * Perubahan stok banyak barang sekaligus (reject massal, keranjang)
+     * Baris barang dibaca dalam satu SELECT dan deltanya digabung jadi satu
+     * update counter.
+     * 
+     * @param conn Koneksi transaksi yang sedang berjalan
+     * @param deltas Kode barang ke perubahan jumlah_tersedia
+     */
+    public static void stockChanged(Connection conn, Map<String, Integer> deltas) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        String placeholders = String.join(", ", Collections.nCopies(deltas.size(), "?"));
+        String sql = "SELECT kode_barang, jumlah_tersedia, status FROM barang " +
+                     "WHERE kode_barang IN (" + placeholders + ")";
+        
+        int availableDelta = 0;
+        int unitDelta = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (String kodeBarang : deltas.keySet()) {
+                stmt.setString(index++, kodeBarang);
+            }
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                int delta = deltas.get(rs.getString("kode_barang"));
+                int newUnits = rs.getInt("jumlah_tersedia");
+                int oldUnits = newUnits - delta;
+                boolean statusTersedia = "tersedia".equals(rs.getString("status"));
+                
+                availableDelta += (statusTersedia && newUnits > 0 ? 1 : 0) - (statusTersedia && oldUnits > 0 ? 1 : 0);
+                unitDelta += delta;
+            }
+        }
+        
+        Map<String, Integer> summary = new HashMap<>();
+        summary.put("barang_tersedia", availableDelta);
+        summary.put("unit_tersedia", unitDelta);
+        addDeltas(deltas.keySet().iterator().next(), summary);
+    }
+    
+    /**
+     * Perubahan status peminjaman
+     * 
+     * @param oldStatus Status lama, null jika baris baru
+     * @param newStatus Status baru, null jika baris dihapus
+     */
+    public static void borrowStatusChanged(String oldStatus, String newStatus) throws SQLException {
+        borrowStatusChanged(oldStatus, newStatus, 1);
+    }
+    
+    /**
+     * Perubahan status banyak peminjaman sekaligus (approve/reject massal)
+     * 
+     * @param oldStatus Status lama, null jika baris baru
+     * @param newStatus Status baru, null jika baris dihapus
+     * @param count Jumlah baris yang berubah
+     */
+    public static void borrowStatusChanged(String oldStatus, String newStatus, int count) throws SQLException {
+        statusChanged("borrow_total", oldStatus, newStatus, count, InventorySummaryDAO::borrowColumn);
+    }
+    
+    /**
+     * Perubahan status laporan
+     * 
+     * @param oldStatus Status lama, null jika baris baru
+     * @param newStatus Status baru, null jika baris dihapus
+     */
+    public static void laporStatusChanged(String oldStatus, String newStatus) throws SQLException {
+        statusChanged("lapor_total", oldStatus, newStatus, 1, InventorySummaryDAO::laporColumn);
+    }
+    
+    // ============================================================
+    // READ & RECONCILE
+    // ============================================================
+    
+    /**
+     * Get ringkasan inventaris (SUM semua slot)
+     * 
+     * @return InventorySummary, atau null jika gagal atau belum ada slot
+     */
+    public InventorySummary getSummary() {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) AS slots");
+        for (String column : SUMMARY_COLUMNS) {
+            sql.append(", SUM(").append(column).append(") AS ").append(column);
+        }
+        sql.append(" FROM inventory_summary");
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString());
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next() && rs.getInt("slots") > 0) {
+                return extractSummaryFromResultSet(rs);
+            }
+        
+        } catch (SQLException e) {
+            System.err.println("Error getting inventory summary: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Cocokkan counter dengan tabel dasar, perbaiki jika berbeda
+     * Semua slot dikunci lebih dulu, sehingga transaksi yang belum commit
+     * menunggu dan menambahkan deltanya setelah hitung ulang selesai.
+     * Jika berbeda, nilai sebenarnya ditulis ke slot 1 dan slot lain dinolkan.
+     * 
+     * @return true jika counter sudah cocok, false jika diperbaiki atau gagal
+     */
+    public boolean reconcile() {
+        String sqlLock = "SELECT * FROM inventory_summary FOR UPDATE";
+        String sqlActual = "SELECT " +
+            "(SELECT COUNT(*) FROM barang) AS total_barang, " +
+            "(SELECT COUNT(*) FROM barang WHERE jumlah_tersedia > 0 AND status = 'tersedia') AS barang_tersedia, " +
+            "(SELECT COALESCE(SUM(jumlah_tersedia), 0) FROM barang) AS unit_tersedia, " +
+            "(SELECT COUNT(*) FROM borrow) AS borrow_total, " +
+            "(SELECT COUNT(*) FROM borrow WHERE status_barang = 'pending') AS borrow_pending, " +
+            "(SELECT COUNT(*) FROM borrow WHERE status_barang = 'dipinjam') AS borrow_aktif, " +
+            "(SELECT COUNT(*) FROM borrow WHERE status_barang = 'dikembalikan') AS borrow_selesai, " +
+            "(SELECT COUNT(*) FROM borrow WHERE status_barang = 'hilang') AS borrow_hilang, " +
+            "(SELECT COUNT(*) FROM borrow WHERE status_barang = 'rusak') AS borrow_rusak, " +
+            "(SELECT COUNT(*) FROM lapor) AS lapor_total, " +
+            "(SELECT COUNT(*) FROM lapor WHERE status = 'diproses') AS lapor_diproses, " +
+            "(SELECT COUNT(*) FROM lapor WHERE status = 'selesai') AS lapor_selesai, " +
+            "(SELECT COUNT(*) FROM lapor WHERE status = 'ditolak') AS lapor_ditolak";
+        String sqlReplace = "REPLACE INTO inventory_summary (id, total_barang, barang_tersedia, unit_tersedia, " +
+            "borrow_total, borrow_pending, borrow_aktif, borrow_selesai, borrow_hilang, borrow_rusak, " +
+            "lapor_total, lapor_diproses, lapor_selesai, lapor_ditolak) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        
+        try {
+            return transactionManager.inTransaction(conn -> {
+                long[] stored = new long[SUMMARY_COLUMNS.length];
+                boolean[] slotExists = new boolean[SLOTS + 1];
+                try (PreparedStatement stmt = conn.prepareStatement(sqlLock)) {
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        int id = rs.getInt("id");
+                        if (id >= 1 && id <= SLOTS) {
+                            slotExists[id] = true;
+                        }
+                        for (int i = 0; i < SUMMARY_COLUMNS.length; i++) {
+                            stored[i] += rs.getLong(SUMMARY_COLUMNS[i]);
+                        }
+                    }
+                }
+                
+                InventorySummary actual;
+                try (PreparedStatement stmt = conn.prepareStatement(sqlActual)) {
+                    ResultSet rs = stmt.executeQuery();
+                    rs.next();
+                    actual = extractSummaryFromResultSet(rs);
+                }
+                
+                boolean allSlots = true;
+                for (int id = 1; id <= SLOTS; id++) {
+                    allSlots &= slotExists[id];
+                }
+                InventorySummary storedSummary = toSummary(stored);
+                if (allSlots && actual.equals(storedSummary)) {
+                    return true;
+                }
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sqlReplace)) {
+                    for (int id = 1; id <= SLOTS; id++) {
+                        InventorySummary slot = id == 1 ? actual : toSummary(new long[SUMMARY_COLUMNS.length]);
+                        stmt.setInt(1, id);
+                        stmt.setInt(2, slot.totalBarang());
+                        stmt.setInt(3, slot.barangTersedia());
+                        stmt.setInt(4, slot.unitTersedia());
+                        stmt.setInt(5, slot.borrowTotal());
+                        stmt.setInt(6, slot.borrowPending());
+                        stmt.setInt(7, slot.borrowAktif());
+                        stmt.setInt(8, slot.borrowSelesai());
+                        stmt.setInt(9, slot.borrowHilang());
+                        stmt.setInt(10, slot.borrowRusak());
+                        stmt.setInt(11, slot.laporTotal());
+                        stmt.setInt(12, slot.laporDiproses());
+                        stmt.setInt(13, slot.laporSelesai());
+                        stmt.setInt(14, slot.laporDitolak());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                
+                if (!actual.equals(storedSummary)) {
+                    System.out.println("⚠️  Inventory summary drift corrected: " + storedSummary + " -> " + actual);
+                    return false;
+                }
+                return true;
+            });
+        
+        } catch (SQLException e) {
+            System.err.println("Error reconciling inventory summary: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private static void statusChanged(String totalColumn, String oldStatus, String newStatus,
+                                      int count, Function<String, String> columnOf) throws SQLException {
+        if (count == 0 || (oldStatus != null && oldStatus.equals(newStatus))) {
+            return;
+        }
+        
+        Map<String, Integer> deltas = new HashMap<>();
+        deltas.put(totalColumn, ((newStatus != null ? 1 : 0) - (oldStatus != null ? 1 : 0)) * count);
+        
+        // Nama kolom berasal dari whitelist borrowColumn/laporColumn, bukan input user
+        String oldColumn = oldStatus != null ? columnOf.apply(oldStatus) : null;
+        String newColumn = newStatus != null ? columnOf.apply(newStatus) : null;
+        if (oldColumn != null) {
+            deltas.merge(oldColumn, -count, Integer::sum);
+        }
+        if (newColumn != null) {
+            deltas.merge(newColumn, count, Integer::sum);
+        }
+        addDeltas(null, deltas);
+    }
+    
+    /**
+     * Tambahkan delta ke counter transaksi yang sedang berjalan
+     * Di luar transaksi, delta ditulis dalam transaksi sendiri.
+     * 
+     * @param kodeBarang Kode barang untuk memilih slot, null jika tidak terkait barang
+     */
+    private static void addDeltas(String kodeBarang, Map<String, Integer> deltas) throws SQLException {
+        TransactionManager transactionManager = TransactionManager.getInstance();
+        PendingSummary pending = transactionManager.deferred(PENDING_KEY, PendingSummary::new);
+        if (pending == null) {
+            transactionManager.inTransaction(conn -> {
+                addDeltas(kodeBarang, deltas);
+                return null;
+            });
+            return;
+        }
+        
+        if (pending.kodeBarang == null) {
+            pending.kodeBarang = kodeBarang;
+        }
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            pending.deltas.merge(delta.getKey(), delta.getValue(), Integer::sum);
+        }
+    }
+    
+    private static String borrowColumn(String status) {
+        switch (status) {
+            case "pending": return "borrow_pending";
+            case "dipinjam": return "borrow_aktif";
+            case "dikembalikan": return "borrow_selesai";
+            case "hilang": return "borrow_hilang";
+            case "rusak": return "borrow_rusak";
+            default: return null;
+        }
+    }
+    
+    private static String laporColumn(String status) {
+        switch (status) {
+            case "diproses": return "lapor_diproses";
+            case "selesai": return "lapor_selesai";
+            case "ditolak": return "lapor_ditolak";
+            default: return null;
+        }
+    }
+    
+    private static InventorySummary toSummary(long[] values) {
+        return new InventorySummary(
+            (int) values[0], (int) values[1], (int) values[2],
+            (int) values[3], (int) values[4], (int) values[5], (int) values[6], (int) values[7], (int) values[8],
+            (int) values[9], (int) values[10], (int) values[11], (int) values[12]
+        );
+    }
+    
+    private static InventorySummary extractSummaryFromResultSet(ResultSet rs) throws SQLException {
+        return new InventorySummary(
+            rs.getInt("total_barang"),
+            rs.getInt("barang_tersedia"),
+            rs.getInt("unit_tersedia"),
+            rs.getInt("borrow_total"),
+            rs.getInt("borrow_pending"),
+            rs.getInt("borrow_aktif"),
+            rs.getInt("borrow_selesai"),
+            rs.getInt("borrow_hilang"),
+            rs.getInt("borrow_rusak"),
+            rs.getInt("lapor_total"),
+            rs.getInt("lapor_diproses"),
+            rs.getInt("lapor_selesai"),
+            rs.getInt("lapor_ditolak")
+        );
+    }
+    
+    /**
+     * Delta counter satu transaksi, ditulis ke satu slot sebelum commit
+     */
+    private static final class PendingSummary implements TransactionManager.Deferred {
+        
+        private final Map<String, Integer> deltas = new HashMap<>();
+        private String kodeBarang;
+        
+        @Override
+        public void flush(Connection conn) throws SQLException {
+            if (deltas.values().stream().allMatch(delta -> delta == 0)) {
+                return;
+            }
+            
+            // Slot tetap per barang; perubahan tanpa barang (status lapor) ke slot acak
+            int slot = kodeBarang != null
+                ? Math.floorMod(kodeBarang.hashCode(), SLOTS) + 1
+                : ThreadLocalRandom.current().nextInt(SLOTS) + 1;
+            
+            StringBuilder sql = new StringBuilder("INSERT INTO inventory_summary (id");
+            StringBuilder values = new StringBuilder("VALUES (?");
+            StringBuilder update = new StringBuilder("ON DUPLICATE KEY UPDATE ");
+            for (int i = 0; i < SUMMARY_COLUMNS.length; i++) {
+                String column = SUMMARY_COLUMNS[i];
+                sql.append(", ").append(column);
+                values.append(", ?");
+                update.append(i > 0 ? ", " : "").append(column).append(" = ").append(column)
+                      .append(" + VALUES(").append(column).append(")");
+            }
+            sql.append(") ").append(values).append(") ").append(update);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                stmt.setInt(1, slot);
+                for (int i = 0; i < SUMMARY_COLUMNS.length; i++) {
+                    stmt.setInt(i + 2, deltas.getOrDefault(SUMMARY_COLUMNS[i], 0));
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/KeysetSql.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.model.PageCursor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * KeysetSql - Potongan SQL untuk keyset pagination (created_at DESC, id DESC)
+ * Ditulis sebagai OR yang dijabarkan agar MySQL memakai range scan pada
+ * index komposit (created_at, id), bukan OFFSET yang membaca ulang baris sebelumnya.
+ */
+final class KeysetSql {
+    
+    private KeysetSql() {}
+    
+    /**
+     * Kondisi "sesudah cursor" untuk urutan DESC
+     * 
+     * @param createdColumn Kolom created_at (dengan alias tabel)
+     * @param idColumn Kolom primary key (dengan alias tabel)
+     */
+    static String after(String createdColumn, String idColumn) {
+        return "(" + createdColumn + " < ? OR (" + createdColumn + " = ? AND " + idColumn + " < ?))";
+    }
+    
+    /**
+     * Bind parameter kondisi after() mulai dari index
+     * 
+     * @return Index parameter berikutnya
+     */
+    static int bind(PreparedStatement stmt, int index, PageCursor cursor) throws SQLException {
+        stmt.setTimestamp(index, cursor.createdAt());
+        stmt.setTimestamp(index + 1, cursor.createdAt());
+        stmt.setInt(index + 2, cursor.id());
+        return index + 3;
+    }
+}
@@ -4,7 +4,11 @@
 package com.inventaris.dao;
 
 import com.inventaris.config.DatabaseConfig;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.config.TransactionManager;
 import com.inventaris.model.Lapor;
+import com.inventaris.model.Page;
+import com.inventaris.model.PageCursor;
 
 import java.sql.Connection;
 import java.sql.Date;
@@ -13,7 +17,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * LaporDAO - Data Access Object for Lapor
@@ -22,6 +30,8 @@ import java.util.List;
 public class LaporDAO {
     
     private final DatabaseConfig dbConfig;
+    private final TransactionManager transactionManager = TransactionManager.getInstance();
+    private final UserDirectory userDirectory = UserDirectory.getInstance();
     
     /**
      * Constructor
@@ -40,16 +50,23 @@ public class LaporDAO {
         String sql = "INSERT INTO lapor (no_laporan, id_peminjaman, kode_barang, status, tgl_laporan) " +
                      "VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, lapor.getNoLaporan());
-            stmt.setInt(2, lapor.getIdPeminjaman());
-            stmt.setString(3, lapor.getKodeBarang());
-            stmt.setString(4, lapor.getStatus());
-            stmt.setDate(5, Date.valueOf(lapor.getTglLaporan()));
-            
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, lapor.getNoLaporan());
+                    stmt.setInt(2, lapor.getIdPeminjaman());
+                    stmt.setString(3, lapor.getKodeBarang());
+                    stmt.setString(4, lapor.getStatus());
+                    stmt.setDate(5, Date.valueOf(lapor.getTglLaporan()));
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.laporStatusChanged(null, lapor.getStatus());
+                        DataVersionDAO.bump(DataVersionDAO.LAPOR);
+                    }
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error creating lapor: " + e.getMessage());
@@ -65,14 +82,13 @@ public class LaporDAO {
      * @return Lapor object if found, null otherwise
      */
     public Lapor getById(int id) {
-        String sql = "SELECT l.*, u.nama as nama_peminjam, br.nama_barang " +
+        String sql = "SELECT l.*, b.id_peminjam, br.nama_barang " +
                      "FROM lapor l " +
                      "JOIN borrow b ON l.id_peminjaman = b.id_peminjaman " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON l.kode_barang = br.kode_barang " +
                      "WHERE l.id_laporan = ?";
         
+        Lapor lapor = null;
         try (Connection conn = dbConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -80,7 +96,7 @@ public class LaporDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractLaporFromResultSet(rs);
+                lapor = extractLaporFromResultSet(rs);
             }
             
         } catch (SQLException e) {
@@ -88,7 +104,10 @@ public class LaporDAO {
             e.printStackTrace();
         }
         
-        return null;
+        if (lapor != null) {
+            withPeminjam(List.of(lapor));
+        }
+        return lapor;
     }
     
     /**
@@ -98,14 +117,13 @@ public class LaporDAO {
      * @return Lapor object if found, null otherwise
      */
     public Lapor getByNoLaporan(String noLaporan) {
-        String sql = "SELECT l.*, u.nama as nama_peminjam, br.nama_barang " +
+        String sql = "SELECT l.*, b.id_peminjam, br.nama_barang " +
                      "FROM lapor l " +
                      "JOIN borrow b ON l.id_peminjaman = b.id_peminjaman " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON l.kode_barang = br.kode_barang " +
                      "WHERE l.no_laporan = ?";
         
+        Lapor lapor = null;
         try (Connection conn = dbConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -113,7 +131,7 @@ public class LaporDAO {
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractLaporFromResultSet(rs);
+                lapor = extractLaporFromResultSet(rs);
             }
             
         } catch (SQLException e) {
@@ -121,7 +139,10 @@ public class LaporDAO {
             e.printStackTrace();
         }
         
-        return null;
+        if (lapor != null) {
+            withPeminjam(List.of(lapor));
+        }
+        return lapor;
     }
     
     /**
@@ -131,11 +152,9 @@ public class LaporDAO {
      */
     public List<Lapor> getAll() {
         List<Lapor> list = new ArrayList<>();
-        String sql = "SELECT l.*, u.nama as nama_peminjam, br.nama_barang " +
+        String sql = "SELECT l.*, b.id_peminjam, br.nama_barang " +
                      "FROM lapor l " +
                      "JOIN borrow b ON l.id_peminjaman = b.id_peminjaman " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON l.kode_barang = br.kode_barang " +
                      "ORDER BY l.created_at DESC";
         
@@ -152,7 +171,59 @@ public class LaporDAO {
             e.printStackTrace();
         }
         
-        return list;
+        return withPeminjam(list);
+    }
+    
+    /**
+     * Get satu halaman laporan, terbaru dulu (keyset pagination)
+     * Memakai idx_lapor_created (created_at, id_laporan).
+     * 
+     * @param status Filter status, null untuk semua
+     * @param after Cursor dari halaman sebelumnya, null untuk halaman pertama
+     * @param limit Ukuran halaman
+     * @return Page of laporan
+     */
+    public Page<Lapor> getPage(String status, PageCursor after, int limit) {
+        List<Lapor> list = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add("l.status = ?");
+        }
+        if (after != null) {
+            conditions.add(KeysetSql.after("l.created_at", "l.id_laporan"));
+        }
+        
+        String sql = "SELECT l.*, b.id_peminjam, br.nama_barang " +
+                     "FROM lapor l " +
+                     "JOIN borrow b ON l.id_peminjaman = b.id_peminjaman " +
+                     "JOIN barang br ON l.kode_barang = br.kode_barang " +
+                     (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ") +
+                     "ORDER BY l.created_at DESC, l.id_laporan DESC " +
+                     "LIMIT ?";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (status != null) {
+                stmt.setString(index++, status);
+            }
+            if (after != null) {
+                index = KeysetSql.bind(stmt, index, after);
+            }
+            stmt.setInt(index, limit + 1);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                list.add(extractLaporFromResultSet(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting laporan page: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return Page.of(withPeminjam(list), limit, l -> new PageCursor(l.getCreatedAt(), l.getIdLaporan()));
     }
     
     /**
@@ -163,11 +234,9 @@ public class LaporDAO {
      */
     public List<Lapor> getByStatus(String status) {
         List<Lapor> list = new ArrayList<>();
-        String sql = "SELECT l.*, u.nama as nama_peminjam, br.nama_barang " +
+        String sql = "SELECT l.*, b.id_peminjam, br.nama_barang " +
                      "FROM lapor l " +
                      "JOIN borrow b ON l.id_peminjaman = b.id_peminjaman " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON l.kode_barang = br.kode_barang " +
                      "WHERE l.status = ? " +
                      "ORDER BY l.created_at DESC";
@@ -187,7 +256,7 @@ public class LaporDAO {
             e.printStackTrace();
         }
         
-        return list;
+        return withPeminjam(list);
     }
     
     /**
@@ -198,11 +267,9 @@ public class LaporDAO {
      */
     public List<Lapor> getByPeminjamanId(int peminjamanId) {
         List<Lapor> list = new ArrayList<>();
-        String sql = "SELECT l.*, u.nama as nama_peminjam, br.nama_barang " +
+        String sql = "SELECT l.*, b.id_peminjam, br.nama_barang " +
                      "FROM lapor l " +
                      "JOIN borrow b ON l.id_peminjaman = b.id_peminjaman " +
-                     "JOIN peminjam p ON b.id_peminjam = p.id_peminjam " +
-                     "JOIN user u ON p.id_user = u.id_user " +
                      "JOIN barang br ON l.kode_barang = br.kode_barang " +
                      "WHERE l.id_peminjaman = ? " +
                      "ORDER BY l.created_at DESC";
@@ -222,7 +289,40 @@ public class LaporDAO {
             e.printStackTrace();
         }
         
-        return list;
+        return withPeminjam(list);
+    }
+    
+    /**
+     * Get laporan atas barang milik instansi
+     * 
+     * @param idInstansi ID instansi pemilik barang
+     * @return List of laporan for barang owned by the instansi
+     */
+    public List<Lapor> getByInstansi(int idInstansi) {
+        List<Lapor> list = new ArrayList<>();
+        String sql = "SELECT l.*, b.id_peminjam, br.nama_barang " +
+                     "FROM barang br " +
+                     "JOIN lapor l ON l.kode_barang = br.kode_barang " +
+                     "JOIN borrow b ON l.id_peminjaman = b.id_peminjaman " +
+                     "WHERE br.id_instansi = ? " +
+                     "ORDER BY l.created_at DESC";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, idInstansi);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                list.add(extractLaporFromResultSet(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting laporan by instansi: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return withPeminjam(list);
     }
     
     /**
@@ -235,13 +335,25 @@ public class LaporDAO {
     public boolean updateStatus(int id, String status) {
         String sql = "UPDATE lapor SET status = ? WHERE id_laporan = ?";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, status);
-            stmt.setInt(2, id);
-            
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    String oldStatus = lockStatus(conn, id);
+                    if (oldStatus == null) {
+                        return false;
+                    }
+                    
+                    stmt.setString(1, status);
+                    stmt.setInt(2, id);
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.laporStatusChanged(oldStatus, status);
+                        DataVersionDAO.bump(DataVersionDAO.LAPOR);
+                    }
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error updating laporan status: " + e.getMessage());
@@ -259,11 +371,23 @@ public class LaporDAO {
     public boolean delete(int id) {
         String sql = "DELETE FROM lapor WHERE id_laporan = ?";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    String oldStatus = lockStatus(conn, id);
+                    if (oldStatus == null) {
+                        return false;
+                    }
+                    
+                    stmt.setInt(1, id);
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        InventorySummaryDAO.laporStatusChanged(oldStatus, null);
+                        DataVersionDAO.bump(DataVersionDAO.LAPOR);
+                    }
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error deleting laporan: " + e.getMessage());
@@ -376,10 +500,116 @@ public class LaporDAO {
         return false;
     }
     
+    /**
+     * Muat no laporan, kode barang dan status semua laporan (untuk QuickOpenIndex)
+     * 
+     * @return Entry quick-open, null jika gagal
+     */
+    List<QuickOpenIndex.Entry> loadQuickOpenEntries() {
+        String sql = "SELECT no_laporan, kode_barang, status FROM lapor";
+        
+        try (Connection conn = dbConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            List<QuickOpenIndex.Entry> entries = new ArrayList<>();
+            while (rs.next()) {
+                entries.add(QuickOpenIndex.laporanEntry(
+                    rs.getString("no_laporan"), rs.getString("kode_barang"), rs.getString("status")));
+            }
+            return entries;
+            
+        } catch (SQLException e) {
+            System.err.println("Error loading quick-open laporan: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    // ============================================================
+    // ASYNC VARIANTS (dijalankan di DbExecutor)
+    // ============================================================
+
+    public CompletableFuture<Boolean> createAsync(Lapor lapor) {
+        return DbExecutor.supply(() -> create(lapor));
+    }
+    
+    public CompletableFuture<Lapor> getByIdAsync(int id) {
+        return DbExecutor.supply(() -> getById(id));
+    }
+    
+    public CompletableFuture<Lapor> getByNoLaporanAsync(String noLaporan) {
+        return DbExecutor.supply(() -> getByNoLaporan(noLaporan));
+    }
+    
+    public CompletableFuture<List<Lapor>> getAllAsync() {
+        return DbExecutor.supply(() -> getAll());
+    }
+    
+    public CompletableFuture<List<Lapor>> getByStatusAsync(String status) {
+        return DbExecutor.supply(() -> getByStatus(status));
+    }
+    
+    public CompletableFuture<List<Lapor>> getByPeminjamanIdAsync(int peminjamanId) {
+        return DbExecutor.supply(() -> getByPeminjamanId(peminjamanId));
+    }
+    
+    public CompletableFuture<List<Lapor>> getByInstansiAsync(int idInstansi) {
+        return DbExecutor.supply(() -> getByInstansi(idInstansi));
+    }
+    
+    public CompletableFuture<Boolean> updateStatusAsync(int id, String status) {
+        return DbExecutor.supply(() -> updateStatus(id, status));
+    }
+    
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return DbExecutor.supply(() -> delete(id));
+    }
+    
+    public CompletableFuture<String> generateNoLaporanAsync() {
+        return DbExecutor.supply(() -> generateNoLaporan());
+    }
+    
+    public CompletableFuture<Integer> getTotalCountAsync() {
+        return DbExecutor.supply(() -> getTotalCount());
+    }
+    
+    public CompletableFuture<Integer> getCountByStatusAsync(String status) {
+        return DbExecutor.supply(() -> getCountByStatus(status));
+    }
+    
+    public CompletableFuture<Boolean> hasLaporanAsync(int peminjamanId) {
+        return DbExecutor.supply(() -> hasLaporan(peminjamanId));
+    }
+    
+    public CompletableFuture<Page<Lapor>> getPageAsync(String status, PageCursor after, int limit) {
+        return DbExecutor.supply(() -> getPage(status, after, limit));
+    }
+    
     // ============================================================
     // HELPER METHODS
     // ============================================================
     
+    /**
+     * Kunci baris lapor (FOR UPDATE) dan baca status saat ini
+     * 
+     * @return status, atau null jika laporan tidak ada
+     */
+    private String lockStatus(Connection conn, int id) throws SQLException {
+        String sql = "SELECT status FROM lapor WHERE id_laporan = ? FOR UPDATE";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getString("status");
+            }
+        }
+        
+        return null;
+    }
+    
     /**
      * Extract Lapor object from ResultSet
      * 
@@ -397,10 +627,32 @@ public class LaporDAO {
         lapor.setTglLaporan(rs.getDate("tgl_laporan").toLocalDate());
         lapor.setCreatedAt(rs.getTimestamp("created_at"));
         
-        // Extended properties
-        lapor.setNamaPeminjam(rs.getString("nama_peminjam"));
+        // Extended properties (nama peminjam diisi withPeminjam() setelah ResultSet ditutup)
+        lapor.setIdPeminjam(rs.getInt("id_peminjam"));
         lapor.setNamaBarang(rs.getString("nama_barang"));
         
         return lapor;
     }
+    
+    /**
+     * Isi nama peminjam untuk baris list
+     * Dipanggil setelah ResultSet dan koneksinya ditutup; id yang belum
+     * di-cache dimuat UserDirectory dalam satu query.
+     * 
+     * @param list Lapor hasil query
+     * @return List yang sama
+     */
+    private List<Lapor> withPeminjam(List<Lapor> list) {
+        Set<Integer> ids = new HashSet<>();
+        for (Lapor lapor : list) {
+            ids.add(lapor.getIdPeminjam());
+        }
+        
+        Map<Integer, UserDirectory.PeminjamInfo> peminjam = userDirectory.getPeminjams(ids);
+        for (Lapor lapor : list) {
+            UserDirectory.PeminjamInfo info = peminjam.get(lapor.getIdPeminjam());
+            lapor.setNamaPeminjam(info != null ? info.nama() : null);
+        }
+        return list;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/LogActivityDAO.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.DatabaseConfig;
+import com.inventaris.model.LogActivity;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.stream.Stream;
+
+/**
+ * LogActivityDAO - Data Access Object untuk tabel log_activity (audit log)
+ * Penulisan log tetap lewat LogActivityUtil; DAO ini untuk pembacaan besar.
+ */
+public class LogActivityDAO {
+    
+    private final DatabaseConfig dbConfig;
+    
+    /**
+     * Constructor
+     */
+    public LogActivityDAO() {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+    
+    /**
+     * Stream seluruh log aktivitas, terlama dulu
+     * Baris dibaca bertahap dari server; tutup Stream dengan try-with-resources.
+     * 
+     * @return Stream of log, kosong jika gagal
+     */
+    public Stream<LogActivity> streamAll() {
+        String sql = "SELECT * FROM log_activity ORDER BY id_log ASC";
+        
+        try {
+            return RowStream.open(dbConfig.getConnection(), sql, stmt -> {}, this::extractLogFromResultSet);
+        
+        } catch (SQLException e) {
+            System.err.println("Error streaming log activity: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    /**
+     * Extract LogActivity object from ResultSet
+     * 
+     * @param rs ResultSet
+     * @return LogActivity object
+     * @throws SQLException if error occurs
+     */
+    private LogActivity extractLogFromResultSet(ResultSet rs) throws SQLException {
+        LogActivity log = new LogActivity();
+        log.setIdLog(rs.getInt("id_log"));
+        log.setUsername(rs.getString("username"));
+        log.setKeterangan(rs.getString("keterangan"));
+        log.setAktifitas(rs.getString("aktifitas"));
+        log.setUserRole(rs.getString("user_role"));
+        log.setCreatedAt(rs.getTimestamp("created_at"));
+        return log;
+    }
+}
@@ -0,0 +1,268 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/QueryCache.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.TransactionManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * QueryCache - Cache hasil query list di level DAO
+ * Entry di-key oleh nama query + parameter dan diberi tag tabel yang dibaca.
+ * Setiap DataVersionDAO.bump() mengosongkan entry dengan tag tabel tersebut
+ * setelah transaksinya commit,
+ * dan perubahan dari klien lain tertangkap lewat syncVersions() berkala.
+ * Hasil query di dalam unit of work tidak disimpan, karena bisa berisi baris
+ * yang belum commit.
+ * Ukuran dibatasi dengan eviction LRU.
+ * Menggunakan Singleton Pattern
+ */
+public class QueryCache {
+    
+    private static final int MAX_ENTRIES = 128;
+    
+    private static volatile QueryCache instance;
+    
+    /**
+     * Loader query, dijalankan saat cache miss
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        List<T> load() throws SQLException;
+    }
+    
+    private static final class Entry {
+        private final List<?> rows;
+        private final String[] tags;
+        
+        private Entry(List<?> rows, String[] tags) {
+            this.rows = rows;
+            this.tags = tags;
+        }
+    }
+    
+    /**
+     * Stats - Snapshot metrik cache
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, size=%d",
+                hits, misses, hitRate() * 100, evictions, size);
+        }
+    }
+    
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    
+    // Naik setiap tag di-invalidate; hasil load yang dimulai sebelumnya tidak disimpan
+    private final Map<String, Long> tagGenerations = new HashMap<>();
+    private Map<String, Long> knownVersions;
+    private final List<Consumer<String[]>> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String[]>> versionGapListeners = new CopyOnWriteArrayList<>();
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    private QueryCache() {
+    }
+    
+    public static QueryCache getInstance() {
+        if (instance == null) {
+            synchronized (QueryCache.class) {
+                if (instance == null) {
+                    instance = new QueryCache();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Susun key cache dari nama query dan parameternya
+     */
+    public static String key(String query, Object... params) {
+        StringJoiner joiner = new StringJoiner("|");
+        joiner.add(query);
+        for (Object param : params) {
+            joiner.add(String.valueOf(param));
+        }
+        return joiner.toString();
+    }
+    
+    /**
+     * Ambil hasil query dari cache, atau jalankan loader saat miss
+     * Hasil dikembalikan sebagai salinan list, sehingga pemanggil bebas
+     * memfilter/memotongnya tanpa mengubah isi cache.
+     * 
+     * @param key Key dari key()
+     * @param tags Tabel yang dibaca query (konstanta DataVersionDAO)
+     * @param loader Query ke database
+     * @return Salinan hasil query
+     * @throws SQLException jika loader gagal (hasil gagal tidak di-cache)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getList(String key, String[] tags, Loader<T> loader) throws SQLException {
+        long[] generations;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return new ArrayList<>((List<T>) entry.rows);
+            }
+            misses++;
+            generations = generationsOf(tags);
+        }
+        
+        List<T> rows = loader.load();
+        
+        synchronized (this) {
+            // Tabel berubah selama query berjalan: hasil mungkin sudah basi
+            if (!TransactionManager.getInstance().isActive()
+                    && Arrays.equals(generations, generationsOf(tags))) {
+                entries.put(key, new Entry(List.copyOf(rows), tags));
+            }
+        }
+        return new ArrayList<>(rows);
+    }
+    
+    /**
+     * Buang semua entry yang membaca salah satu tabel ini
+     * 
+     * @param tables Nama tabel (konstanta DataVersionDAO)
+     */
+    public void invalidate(String... tables) {
+        synchronized (this) {
+            for (String table : tables) {
+                tagGenerations.merge(table, 1L, Long::sum);
+            }
+            entries.values().removeIf(entry -> {
+                for (String tag : entry.tags) {
+                    for (String table : tables) {
+                        if (tag.equals(table)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            });
+        }
+        
+        for (Consumer<String[]> listener : invalidationListeners) {
+            listener.accept(tables);
+        }
+    }
+    
+    /**
+     * Daftarkan cache lain yang ikut dibuang saat tabel di-invalidate
+     */
+    public void addInvalidationListener(Consumer<String[]> listener) {
+        invalidationListeners.add(listener);
+    }
+    
+    /**
+     * Daftarkan cache yang perlu dikosongkan saat versi tabel berubah di luar
+     * commit lokal (klien lain)
+     * Commit lokal sudah membuang entry-nya sendiri secara tertarget.
+     */
+    public void addVersionGapListener(Consumer<String[]> listener) {
+        versionGapListeners.add(listener);
+    }
+    
+    /**
+     * Cocokkan versi tabel terbaru dengan yang terakhir dilihat
+     * Dipanggil DataVersionDAO.getVersions(); tabel yang versinya berubah
+     * di-invalidate dan dilaporkan ke version gap listener. Kenaikan dari
+     * commit lokal sudah dicatat lewat versionsWritten(), jadi tidak terhitung.
+     */
+    public void applyVersions(Map<String, Long> versions) {
+        List<String> changed = new ArrayList<>();
+        synchronized (this) {
+            if (knownVersions != null) {
+                for (Map.Entry<String, Long> version : versions.entrySet()) {
+                    if (!Objects.equals(knownVersions.get(version.getKey()), version.getValue())) {
+                        changed.add(version.getKey());
+                    }
+                }
+            }
+            knownVersions = new HashMap<>(versions);
+        }
+        
+        if (!changed.isEmpty()) {
+            String[] tables = changed.toArray(new String[0]);
+            invalidate(tables);
+            for (Consumer<String[]> listener : versionGapListeners) {
+                listener.accept(tables);
+            }
+        }
+    }
+    
+    /**
+     * Catat versi yang baru ditulis oleh aplikasi ini (setelah commit DataVersionDAO.bump())
+     * Hanya dicatat jika versi sebelumnya sudah dilihat; jika ada kenaikan
+     * dari klien lain di antaranya, syncVersions() tetap melihatnya sebagai gap.
+     * 
+     * @param written Nama tabel ke versi setelah ditulis
+     */
+    void versionsWritten(Map<String, Long> written) {
+        synchronized (this) {
+            if (knownVersions == null) {
+                return;
+            }
+            for (Map.Entry<String, Long> version : written.entrySet()) {
+                if (knownVersions.getOrDefault(version.getKey(), 0L) == version.getValue() - 1) {
+                    knownVersions.put(version.getKey(), version.getValue());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Baca data_version dan sinkronkan cache (job berkala)
+     */
+    public void syncVersions() {
+        new DataVersionDAO().getVersions();
+    }
+    
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private long[] generationsOf(String[] tags) {
+        long[] generations = new long[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            generations[i] = tagGenerations.getOrDefault(tags[i], 0L);
+        }
+        return generations;
+    }
+}
@@ -0,0 +1,243 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/QuickOpenIndex.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.model.Barang;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * QuickOpenIndex - Index gabungan untuk palette quick-open (Ctrl+K)
+ * Menyimpan kunci ringkas user (username/nama), peminjaman (id; hanya yang
+ * masih berjalan dan yang terbaru) dan laporan (no_laporan) di memori; barang diambil dari BarangSearchIndex. Satu
+ * pencarian mengembalikan hasil campuran, urut skor.
+ * 
+ * Sinkronisasi: dibangun saat admin login. Operasi tulis DAO (bump versi,
+ * lokal maupun dari klien lain lewat QueryCache) menandai segmen tabel yang
+ * berubah basi, dan segmen itu dimuat ulang saat pencarian berikutnya.
+ * Menggunakan Singleton Pattern
+ */
+public class QuickOpenIndex {
+    
+    private static volatile QuickOpenIndex instance;
+    
+    /**
+     * Jenis record yang bisa dibuka
+     */
+    public enum Kind {
+        BARANG, USER, PEMINJAMAN, LAPORAN
+    }
+    
+    /**
+     * Satu hasil quick-open
+     * 
+     * @param kind Jenis record
+     * @param key Kunci record (kode_barang, username, id_peminjaman, no_laporan)
+     * @param title Teks utama
+     * @param subtitle Keterangan singkat
+     */
+    public record Item(Kind kind, String key, String title, String subtitle) {
+    }
+    
+    private record Match(Item item, int score) {
+    }
+    
+    static final class Entry {
+        private final Item item;
+        private final String[] keys;
+        
+        private Entry(Item item, String... keys) {
+            this.item = item;
+            this.keys = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                this.keys[i] = normalize(keys[i]);
+            }
+        }
+    }
+    
+    private static final class Segment {
+        private final Supplier<List<Entry>> loader;
+        private volatile List<Entry> entries = List.of();
+        private volatile boolean stale = true;
+        
+        private Segment(Supplier<List<Entry>> loader) {
+            this.loader = loader;
+        }
+    }
+    
+    private final Segment users = new Segment(() -> new UserDAO().loadQuickOpenEntries());
+    private final Segment borrows = new Segment(() -> new BorrowDAO().loadQuickOpenEntries());
+    private final Segment laporan = new Segment(() -> new LaporDAO().loadQuickOpenEntries());
+    
+    private QuickOpenIndex() {
+        QueryCache.getInstance().addInvalidationListener(tables -> {
+            for (String table : tables) {
+                if (DataVersionDAO.USER.equals(table)) {
+                    users.stale = true;
+                } else if (DataVersionDAO.BORROW.equals(table)) {
+                    borrows.stale = true;
+                } else if (DataVersionDAO.LAPOR.equals(table)) {
+                    laporan.stale = true;
+                }
+            }
+        });
+    }
+    
+    public static QuickOpenIndex getInstance() {
+        if (instance == null) {
+            synchronized (QuickOpenIndex.class) {
+                if (instance == null) {
+                    instance = new QuickOpenIndex();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Cari di semua jenis record sekaligus
+     * 
+     * @param keyword Kata kunci (awalan "#" diabaikan, untuk id peminjaman)
+     * @param limit Jumlah hasil maksimum
+     * @return Hasil urut skor, lalu jenis dan judul
+     */
+    public List<Item> search(String keyword, int limit) {
+        String token = normalize(keyword);
+        if (token.startsWith("#")) {
+            token = token.substring(1);
+        }
+        List<Item> results = new ArrayList<>();
+        if (token.isEmpty()) {
+            return results;
+        }
+        
+        List<Match> matches = new ArrayList<>();
+        
+        for (Barang barang : BarangSearchIndex.getInstance().search(token, null)) {
+            Entry entry = new Entry(new Item(Kind.BARANG, barang.getKodeBarang(), barang.getNamaBarang(),
+                barang.getKodeBarang() + " · " + barang.getLokasiBarang()),
+                barang.getKodeBarang(), barang.getNamaBarang());
+            // Barang sudah dipastikan cocok oleh index trigram
+            matches.add(new Match(entry.item, Math.max(score(entry, token), 5)));
+        }
+        
+        for (Segment segment : List.of(users, borrows, laporan)) {
+            ensureFresh(segment);
+            for (Entry entry : segment.entries) {
+                int score = score(entry, token);
+                if (score > 0) {
+                    matches.add(new Match(entry.item, score));
+                }
+            }
+        }
+        
+        matches.sort(Comparator
+            .comparingInt((Match m) -> -m.score())
+            .thenComparing(m -> m.item().kind())
+            .thenComparing(m -> normalize(m.item().title())));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            results.add(matches.get(i).item());
+        }
+        return results;
+    }
+    
+    /**
+     * Bangun semua segmen (dipanggil di DbExecutor setelah admin login)
+     */
+    public void warmUp() {
+        BarangSearchIndex.getInstance().warmUp();
+        for (Segment segment : List.of(users, borrows, laporan)) {
+            ensureFresh(segment);
+        }
+        System.out.println("🔎 Quick-open index built: " + users.entries.size() + " users, "
+            + borrows.entries.size() + " peminjaman, " + laporan.entries.size() + " laporan");
+    }
+    
+    /**
+     * Buang isi index (saat logout)
+     */
+    public void clear() {
+        for (Segment segment : List.of(users, borrows, laporan)) {
+            synchronized (segment) {
+                segment.entries = List.of();
+                segment.stale = true;
+            }
+        }
+    }
+    
+    // ============================================================
+    // LOADER (dipanggil DAO, satu query ringkas per tabel)
+    // ============================================================
+    
+    static Entry userEntry(String username, String nama, String role) {
+        return new Entry(new Item(Kind.USER, username, username, nama + " · " + role), username, nama);
+    }
+    
+    static Entry peminjamanEntry(int idPeminjaman, String kodeBarang, String status) {
+        String id = String.valueOf(idPeminjaman);
+        return new Entry(new Item(Kind.PEMINJAMAN, id, "Peminjaman #" + id, kodeBarang + " · " + status), id);
+    }
+    
+    static Entry laporanEntry(String noLaporan, String kodeBarang, String status) {
+        return new Entry(new Item(Kind.LAPORAN, noLaporan, noLaporan, kodeBarang + " · " + status), noLaporan);
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private void ensureFresh(Segment segment) {
+        if (!segment.stale) {
+            return;
+        }
+        synchronized (segment) {
+            if (!segment.stale) {
+                return;
+            }
+            // Ditandai dulu, agar bump yang datang selama load tidak hilang
+            segment.stale = false;
+            List<Entry> loaded = segment.loader.get();
+            if (loaded == null) {
+                segment.stale = true;
+                return;
+            }
+            segment.entries = List.copyOf(loaded);
+        }
+    }
+    
+    /**
+     * Skor token terhadap kunci entry, 0 jika tidak cocok
+     */
+    private static int score(Entry entry, String token) {
+        int best = 0;
+        for (int i = 0; i < entry.keys.length; i++) {
+            String key = entry.keys[i];
+            // Kunci pertama (kode, username, id, no laporan) lebih diutamakan
+            int weight = i == 0 ? 2 : 1;
+            int score = 0;
+            if (key.equals(token)) {
+                score = 50 * weight;
+            } else if (key.startsWith(token)) {
+                score = 30 * weight;
+            } else if (key.contains(" " + token)) {
+                score = 20 * weight;
+            } else if (token.length() >= 3 && key.contains(token)) {
+                score = 5 * weight;
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+    
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,100 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/RowStream.java
+// ================================================================
+package com.inventaris.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * RowStream - Membungkus ResultSet MySQL mode streaming menjadi Stream yang closeable
+ * Dengan fetch size Integer.MIN_VALUE, Connector/J membaca baris satu per satu dari socket;
+ * server baru mengirim baris berikutnya saat konsumen menariknya (backpressure lewat TCP),
+ * sehingga heap tidak pernah memegang seluruh result set.
+ * 
+ * Koneksi tetap terpakai sampai Stream ditutup, dan selama itu tidak boleh
+ * menjalankan query lain. Pemanggil WAJIB memakai try-with-resources.
+ */
+final class RowStream {
+    
+    private RowStream() {}
+    
+    @FunctionalInterface
+    interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+    
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+    
+    /**
+     * Jalankan query dalam mode streaming
+     * Koneksi menjadi milik Stream dan dikembalikan ke pool saat Stream ditutup.
+     * 
+     * @param conn Koneksi dari pool
+     * @param sql Query SELECT
+     * @param binder Set parameter statement
+     * @param mapper Ubah baris saat ini menjadi object
+     * @return Stream baris, harus ditutup
+     */
+    static <T> Stream<T> open(Connection conn, String sql, StatementBinder binder,
+                              RowMapper<T> mapper) throws SQLException {
+        PreparedStatement stmt = null;
+        
+        try {
+            // Statement streaming tidak lewat statement cache (signature 3 argumen)
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            binder.bind(stmt);
+            ResultSet rs = stmt.executeQuery();
+            
+            PreparedStatement openStmt = stmt;
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(
+                    Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(mapper.map(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Error reading streamed row: " + e.getMessage(), e);
+                    }
+                }
+            };
+            
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                closeQuietly(rs);
+                closeQuietly(openStmt);
+                closeQuietly(conn);
+            });
+        
+        } catch (SQLException e) {
+            closeQuietly(stmt);
+            closeQuietly(conn);
+            throw e;
+        }
+    }
+    
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+}
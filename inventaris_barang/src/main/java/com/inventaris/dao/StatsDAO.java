@@ -0,0 +1,102 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/StatsDAO.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.DatabaseConfig;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.model.DashboardStats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * StatsDAO - Query agregat untuk statistik
+ * Mengembalikan angka saja, tanpa menarik baris ke memori.
+ * Counter yang tidak bergantung waktu dibaca dari inventory_summary (lihat InventorySummaryDAO).
+ */
+public class StatsDAO {
+    
+    private final DatabaseConfig dbConfig;
+    
+    /**
+     * Constructor
+     */
+    public StatsDAO() {
+        this.dbConfig = DatabaseConfig.getInstance();
+    }
+    
+    /**
+     * Get statistik dashboard dalam satu round trip
+     * Counter dibaca dari slot inventory_summary (SUM beberapa baris); hanya overdue yang dihitung,
+     * karena bergantung tanggal hari ini, memakai idx_borrow_status_deadline.
+     * 
+     * @return DashboardStats, atau null jika gagal
+     */
+    public DashboardStats getDashboardStats() {
+        String sql = "SELECT SUM(s.total_barang) AS total_barang, SUM(s.barang_tersedia) AS barang_tersedia, " +
+                     "SUM(s.borrow_aktif) AS dipinjam, " +
+                     "(SELECT COUNT(*) FROM borrow WHERE status_barang = 'dipinjam' AND dl_kembali < CURDATE()) AS overdue " +
+                     "FROM inventory_summary s";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return new DashboardStats(
+                    rs.getInt("total_barang"),
+                    rs.getInt("barang_tersedia"),
+                    rs.getInt("dipinjam"),
+                    rs.getInt("overdue")
+                );
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting dashboard stats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Hitung peminjaman yang melewati deadline
+     * 
+     * @return Jumlah overdue, atau 0 jika gagal
+     */
+    public int getOverdueCount() {
+        String sql = "SELECT COUNT(*) AS overdue FROM borrow " +
+                     "WHERE status_barang = 'dipinjam' AND dl_kembali < CURDATE()";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return rs.getInt("overdue");
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error counting overdue borrows: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return 0;
+    }
+    
+    // ============================================================
+    // ASYNC VARIANTS (dijalankan di DbExecutor)
+    // ============================================================
+    
+    public CompletableFuture<DashboardStats> getDashboardStatsAsync() {
+        return DbExecutor.supply(() -> getDashboardStats());
+    }
+    
+    public CompletableFuture<Integer> getOverdueCountAsync() {
+        return DbExecutor.supply(() -> getOverdueCount());
+    }
+}
@@ -0,0 +1,69 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/StockLocks.java
+// ================================================================
+package com.inventaris.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StockLocks - Lock bergaris (striped) per kode_barang untuk pengurangan stok
+ * Permintaan pinjam barang yang sama di aplikasi ini antre di lock, bukan
+ * menahan koneksi pool sambil menunggu row lock InnoDB. Barang berbeda
+ * jatuh ke stripe berbeda sehingga tidak saling menunggu.
+ * Lock ini hanya mengurangi kontensi; jaminan stok tidak minus tetap
+ * dari UPDATE bersyarat (jumlah_tersedia >= ?) di database.
+ */
+final class StockLocks {
+    
+    // Pangkat dua, agar index stripe cukup di-mask
+    private static final int STRIPES = 256;
+    
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+    
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+    
+    private StockLocks() {}
+    
+    /**
+     * Lock untuk satu kode barang
+     */
+    static ReentrantLock forKode(String kodeBarang) {
+        return LOCKS[spread(kodeBarang.hashCode()) & (STRIPES - 1)];
+    }
+    
+    /**
+     * Lock untuk beberapa kode barang sekaligus (keranjang)
+     * Stripe yang sama hanya muncul sekali, urut index stripe, sehingga dua
+     * keranjang selalu mengambil lock dengan urutan yang sama (tidak deadlock)
+     * meskipun kode berbeda jatuh ke stripe yang sama.
+     */
+    static List<ReentrantLock> forKodes(Collection<String> kodeBarang) {
+        SortedSet<Integer> stripes = new TreeSet<>();
+        for (String kode : kodeBarang) {
+            stripes.add(spread(kode.hashCode()) & (STRIPES - 1));
+        }
+        
+        List<ReentrantLock> locks = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            locks.add(LOCKS[stripe]);
+        }
+        return locks;
+    }
+    
+    /**
+     * Sebar bit atas hash ke bit bawah (seperti HashMap), agar kode yang
+     * hanya berbeda di akhir tidak menumpuk di stripe yang sama
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -4,7 +4,12 @@
 package com.inventaris.dao;
 
 import com.inventaris.config.DatabaseConfig;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.config.QueryCancellation;
+import com.inventaris.config.TransactionManager;
 import com.inventaris.model.User;
+import com.inventaris.model.Page;
+import com.inventaris.model.PageCursor;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.sql.Connection;
@@ -13,7 +18,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * UserDAO - Data Access Object for User
@@ -22,6 +32,11 @@ import java.util.List;
 public class UserDAO {
     
     private final DatabaseConfig dbConfig;
+    private final TransactionManager transactionManager = TransactionManager.getInstance();
+    private final UserDirectory userDirectory = UserDirectory.getInstance();
+    
+    // Batas waktu query search, agar search yang lambat tidak menahan worker DbExecutor
+    private static final int SEARCH_TIMEOUT_SECONDS = 5;
     
     /**
      * Constructor
@@ -72,92 +87,66 @@ public class UserDAO {
      * @return true if successful, false otherwise
      */
     public boolean register(User user, String noTelepon, String namaInstansi) {
-        Connection conn = null;
+        String sqlRole;
+        if ("peminjam".equals(user.getRole())) {
+            sqlRole = "INSERT INTO peminjam (id_user, no_telepon) VALUES (?, ?)";
+        } else if ("admin".equals(user.getRole())) {
+            sqlRole = "INSERT INTO admin (id_user) VALUES (?)";
+        } else if ("instansi".equals(user.getRole())) {
+            sqlRole = "INSERT INTO instansi (id_user, nama_instansi) VALUES (?, ?)";
+        } else {
+            System.err.println("Error registering user: unknown role " + user.getRole());
+            return false;
+        }
         
         try {
-            conn = dbConfig.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Insert user
-            String sqlUser = "INSERT INTO user (username, password, nama, role, status) VALUES (?, ?, ?, ?, ?)";
-            PreparedStatement stmtUser = conn.prepareStatement(sqlUser, Statement.RETURN_GENERATED_KEYS);
-            
-            stmtUser.setString(1, user.getUsername());
-            stmtUser.setString(2, hashPassword(user.getPassword()));
-            stmtUser.setString(3, user.getNama());
-            stmtUser.setString(4, user.getRole());
-            stmtUser.setString(5, user.getStatus());
-            
-            int affected = stmtUser.executeUpdate();
-            
-            if (affected == 0) {
-                conn.rollback();
-                return false;
-            }
-            
-            // Get generated user ID
-            ResultSet rs = stmtUser.getGeneratedKeys();
-            int userId = 0;
-            if (rs.next()) {
-                userId = rs.getInt(1);
-            }
-            
-            // Insert role-specific table
-            boolean roleInserted = false;
-            
-            if ("peminjam".equals(user.getRole())) {
-                String sqlPeminjam = "INSERT INTO peminjam (id_user, no_telepon) VALUES (?, ?)";
-                PreparedStatement stmtPeminjam = conn.prepareStatement(sqlPeminjam);
-                stmtPeminjam.setInt(1, userId);
-                stmtPeminjam.setString(2, noTelepon);
-                roleInserted = stmtPeminjam.executeUpdate() > 0;
-                stmtPeminjam.close();
+            return transactionManager.inTransaction(conn -> {
+                // Insert user
+                String sqlUser = "INSERT INTO user (username, password, nama, role, status) VALUES (?, ?, ?, ?, ?)";
+                int userId = 0;
                 
-            } else if ("admin".equals(user.getRole())) {
-                String sqlAdmin = "INSERT INTO admin (id_user) VALUES (?)";
-                PreparedStatement stmtAdmin = conn.prepareStatement(sqlAdmin);
-                stmtAdmin.setInt(1, userId);
-                roleInserted = stmtAdmin.executeUpdate() > 0;
-                stmtAdmin.close();
+                try (PreparedStatement stmtUser = conn.prepareStatement(sqlUser, Statement.RETURN_GENERATED_KEYS)) {
+                    stmtUser.setString(1, user.getUsername());
+                    stmtUser.setString(2, hashPassword(user.getPassword()));
+                    stmtUser.setString(3, user.getNama());
+                    stmtUser.setString(4, user.getRole());
+                    stmtUser.setString(5, user.getStatus());
+                    
+                    if (stmtUser.executeUpdate() == 0) {
+                        return false;
+                    }
+                    
+                    // Get generated user ID
+                    try (ResultSet rs = stmtUser.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            userId = rs.getInt(1);
+                        }
+                    }
+                }
                 
-            } else if ("instansi".equals(user.getRole())) {
-                String sqlInstansi = "INSERT INTO instansi (id_user, nama_instansi) VALUES (?, ?)";
-                PreparedStatement stmtInstansi = conn.prepareStatement(sqlInstansi);
-                stmtInstansi.setInt(1, userId);
-                stmtInstansi.setString(2, namaInstansi);
-                roleInserted = stmtInstansi.executeUpdate() > 0;
-                stmtInstansi.close();
-            }
-            
-            if (roleInserted) {
-                conn.commit();
+                // Insert role-specific table
+                try (PreparedStatement stmtRole = conn.prepareStatement(sqlRole)) {
+                    stmtRole.setInt(1, userId);
+                    if ("peminjam".equals(user.getRole())) {
+                        stmtRole.setString(2, noTelepon);
+                    } else if ("instansi".equals(user.getRole())) {
+                        stmtRole.setString(2, namaInstansi);
+                    }
+                    
+                    if (stmtRole.executeUpdate() == 0) {
+                        // Batalkan insert user juga
+                        throw new SQLException("Role row not inserted for user " + user.getUsername());
+                    }
+                }
+                
+                DataVersionDAO.bump(DataVersionDAO.USER);
                 return true;
-            } else {
-                conn.rollback();
-                return false;
-            }
+            });
             
         } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                }
-            }
             System.err.println("Error registering user: " + e.getMessage());
             e.printStackTrace();
             return false;
-            
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                }
-            }
         }
     }
     
@@ -168,6 +157,31 @@ public class UserDAO {
      * @return User object if found, null otherwise
      */
     public User getUserById(int id) {
+        return userDirectory.getUser(id, this::queryUserById);
+    }
+    
+    /**
+     * Get user by username
+     * 
+     * @param username Username
+     * @return User object if found, null otherwise
+     */
+    public User getUserByUsername(String username) {
+        return userDirectory.getUserByUsername(username, this::queryUserByUsername);
+    }
+    
+    /**
+     * Get role-specific ID (id_peminjam, id_admin, id_instansi)
+     * 
+     * @param user User yang sudah login
+     * @return ID sesuai role, null jika tidak ditemukan
+     */
+    public Integer getRoleId(User user) {
+        return userDirectory.getRoleId(user, this::queryRoleId);
+    }
+    
+    // Query langsung tanpa cache (loader UserDirectory)
+    private User queryUserById(int id) {
         String sql = "SELECT * FROM user WHERE id_user = ?";
         
         try (Connection conn = dbConfig.getConnection();
@@ -188,13 +202,7 @@ public class UserDAO {
         return null;
     }
     
-    /**
-     * Get user by username
-     * 
-     * @param username Username
-     * @return User object if found, null otherwise
-     */
-    public User getUserByUsername(String username) {
+    private User queryUserByUsername(String username) {
         String sql = "SELECT * FROM user WHERE username = ?";
         
         try (Connection conn = dbConfig.getConnection();
@@ -215,6 +223,101 @@ public class UserDAO {
         return null;
     }
     
+    private Integer queryRoleId(User user) {
+        String sql;
+        switch (user.getRole()) {
+            case "peminjam":
+                sql = "SELECT id_peminjam FROM peminjam WHERE id_user = ?";
+                break;
+            case "admin":
+                sql = "SELECT id_admin FROM admin WHERE id_user = ?";
+                break;
+            case "instansi":
+                sql = "SELECT id_instansi FROM instansi WHERE id_user = ?";
+                break;
+            default:
+                return null;
+        }
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, user.getIdUser());
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting role ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Muat nama & no telepon peminjam tertentu (untuk UserDirectory)
+     * 
+     * @param idPeminjams ID peminjam yang belum ada di cache
+     * @return Map id_peminjam ke PeminjamInfo, null jika gagal
+     */
+    Map<Integer, UserDirectory.PeminjamInfo> loadPeminjam(Collection<Integer> idPeminjams) {
+        String sql = "SELECT p.id_peminjam, p.id_user, p.no_telepon, u.nama " +
+                     "FROM peminjam p JOIN user u ON p.id_user = u.id_user " +
+                     "WHERE p.id_peminjam IN (" + String.join(", ", Collections.nCopies(idPeminjams.size(), "?")) + ")";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (Integer id : idPeminjams) {
+                stmt.setInt(index++, id);
+            }
+            ResultSet rs = stmt.executeQuery();
+            
+            Map<Integer, UserDirectory.PeminjamInfo> peminjam = new HashMap<>();
+            while (rs.next()) {
+                int idPeminjam = rs.getInt("id_peminjam");
+                peminjam.put(idPeminjam, new UserDirectory.PeminjamInfo(
+                    idPeminjam, rs.getInt("id_user"), rs.getString("nama"), rs.getString("no_telepon")));
+            }
+            return peminjam;
+            
+        } catch (SQLException e) {
+            System.err.println("Error loading peminjam: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    /**
+     * Muat username, nama dan role semua user (untuk QuickOpenIndex)
+     * 
+     * @return Entry quick-open, null jika gagal
+     */
+    List<QuickOpenIndex.Entry> loadQuickOpenEntries() {
+        String sql = "SELECT username, nama, role FROM user";
+        
+        try (Connection conn = dbConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            List<QuickOpenIndex.Entry> entries = new ArrayList<>();
+            while (rs.next()) {
+                entries.add(QuickOpenIndex.userEntry(
+                    rs.getString("username"), rs.getString("nama"), rs.getString("role")));
+            }
+            return entries;
+            
+        } catch (SQLException e) {
+            System.err.println("Error loading quick-open users: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
     /**
      * Get all users
      * 
@@ -240,6 +343,138 @@ public class UserDAO {
         return users;
     }
     
+    /**
+     * Get satu halaman user, terbaru dulu (keyset pagination)
+     * Memakai idx_user_created (created_at, id_user).
+     * 
+     * @param after Cursor dari halaman sebelumnya, null untuk halaman pertama
+     * @param limit Ukuran halaman
+     * @return Page of users
+     */
+    public Page<User> getUsersPage(PageCursor after, int limit) {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT * FROM user " +
+                     (after != null ? "WHERE " + KeysetSql.after("created_at", "id_user") + " " : "") +
+                     "ORDER BY created_at DESC, id_user DESC " +
+                     "LIMIT ?";
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (after != null) {
+                index = KeysetSql.bind(stmt, index, after);
+            }
+            stmt.setInt(index, limit + 1);
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                users.add(extractUserFromResultSet(rs));
+            }
+            
+        } catch (SQLException e) {
+            System.err.println("Error getting users page: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return Page.of(users, limit, u -> new PageCursor(u.getCreatedAt(), u.getIdUser()));
+    }
+    
+    /**
+     * Search user per halaman (keyset pagination)
+     * Keyword dicocokkan sebagai prefix username atau nama. Kedua prefix
+     * dijalankan sebagai dua SELECT yang digabung UNION, masing-masing dengan
+     * range scan di index username / idx_user_nama dan LIMIT sendiri; urutan
+     * dan LIMIT halaman diterapkan setelah UNION (user yang cocok di keduanya
+     * hanya muncul sekali).
+     * 
+     * @param keyword Prefix username/nama
+     * @param role Filter role, null untuk semua
+     * @param status Filter status, null untuk semua
+     * @param after Cursor baris terakhir halaman sebelumnya, null untuk halaman pertama
+     * @param limit Jumlah baris per halaman
+     * @return Page berisi user dan cursor halaman berikutnya
+     */
+    public Page<User> searchUsers(String keyword, String role, String status, PageCursor after, int limit) {
+        return searchUsers(keyword, role, status, after, limit, null);
+    }
+    
+    /**
+     * Search user per halaman, dapat dibatalkan
+     * Statement didaftarkan ke cancellation, sehingga search yang sudah
+     * digantikan keyword baru dihentikan di MySQL (Statement.cancel).
+     * 
+     * @param cancellation Token pembatalan, null jika tidak perlu
+     */
+    public Page<User> searchUsers(String keyword, String role, String status, PageCursor after, int limit,
+                                  QueryCancellation cancellation) {
+        List<User> users = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (role != null) {
+            conditions.add("role = ?");
+        }
+        if (status != null) {
+            conditions.add("status = ?");
+        }
+        if (after != null) {
+            conditions.add(KeysetSql.after("created_at", "id_user"));
+        }
+        String filters = conditions.isEmpty() ? "" : " AND " + String.join(" AND ", conditions);
+        String order = " ORDER BY created_at DESC, id_user DESC LIMIT ?";
+        String sql = "(SELECT * FROM user WHERE username LIKE ?" + filters + order + ") " +
+                     "UNION " +
+                     "(SELECT * FROM user WHERE nama LIKE ?" + filters + order + ")" +
+                     order;
+        
+        try (Connection conn = dbConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            String prefix = escapeLike(keyword) + "%";
+            int index = 1;
+            // Parameter yang sama untuk cabang username dan nama
+            for (int branch = 0; branch < 2; branch++) {
+                stmt.setString(index++, prefix);
+                if (role != null) {
+                    stmt.setString(index++, role);
+                }
+                if (status != null) {
+                    stmt.setString(index++, status);
+                }
+                if (after != null) {
+                    index = KeysetSql.bind(stmt, index, after);
+                }
+                stmt.setInt(index++, limit + 1);
+            }
+            stmt.setInt(index, limit + 1);
+            stmt.setQueryTimeout(SEARCH_TIMEOUT_SECONDS);
+            
+            if (cancellation != null && !cancellation.register(stmt)) {
+                return Page.of(users, limit, u -> new PageCursor(u.getCreatedAt(), u.getIdUser()));
+            }
+            try {
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    users.add(extractUserFromResultSet(rs));
+                }
+            } finally {
+                if (cancellation != null) {
+                    cancellation.unregister(stmt);
+                }
+            }
+            
+        } catch (SQLException e) {
+            if (cancellation != null && cancellation.isCancelled()) {
+                // Digantikan search baru, bukan error
+                users.clear();
+            } else {
+                System.err.println("Error searching users: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        
+        return Page.of(users, limit, u -> new PageCursor(u.getCreatedAt(), u.getIdUser()));
+    }
+    
     /**
      * Get users by role
      * 
@@ -277,14 +512,21 @@ public class UserDAO {
     public boolean updateUser(User user) {
         String sql = "UPDATE user SET nama = ?, status = ? WHERE id_user = ?";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, user.getNama());
-            stmt.setString(2, user.getStatus());
-            stmt.setInt(3, user.getIdUser());
-            
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, user.getNama());
+                    stmt.setString(2, user.getStatus());
+                    stmt.setInt(3, user.getIdUser());
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        DataVersionDAO.bump(DataVersionDAO.USER);
+                        transactionManager.afterCommit(() -> userDirectory.evict(user.getIdUser()));
+                    }
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error updating user: " + e.getMessage());
@@ -302,14 +544,23 @@ public class UserDAO {
      */
     public boolean changePassword(int userId, String newPassword) {
         String sql = "UPDATE user SET password = ? WHERE id_user = ?";
+        // Hash di luar transaksi; BCrypt sengaja lambat
+        String hashed = hashPassword(newPassword);
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, hashPassword(newPassword));
-            stmt.setInt(2, userId);
-            
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, hashed);
+                    stmt.setInt(2, userId);
+                    
+                    boolean updated = stmt.executeUpdate() > 0;
+                    if (updated) {
+                        DataVersionDAO.bump(DataVersionDAO.USER);
+                        transactionManager.afterCommit(() -> userDirectory.evict(userId));
+                    }
+                    return updated;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error changing password: " + e.getMessage());
@@ -320,18 +571,46 @@ public class UserDAO {
     
     /**
      * Delete user
+     * Barang milik instansi yang dihapus ikut berubah (id_instansi di-set NULL
+     * oleh foreign key), jadi barang tersebut juga dibuang dari BarangCache.
      * 
      * @param userId User ID
      * @return true if successful, false otherwise
      */
     public boolean deleteUser(int userId) {
+        String sqlOwned = "SELECT b.kode_barang FROM barang b " +
+                          "JOIN instansi i ON b.id_instansi = i.id_instansi WHERE i.id_user = ?";
         String sql = "DELETE FROM user WHERE id_user = ?";
         
-        try (Connection conn = dbConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, userId);
-            return stmt.executeUpdate() > 0;
+        try {
+            return transactionManager.inTransaction(conn -> {
+                List<String> ownedKodes = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(sqlOwned)) {
+                    stmt.setInt(1, userId);
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        ownedKodes.add(rs.getString("kode_barang"));
+                    }
+                }
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, userId);
+                    
+                    boolean deleted = stmt.executeUpdate() > 0;
+                    if (deleted) {
+                        if (ownedKodes.isEmpty()) {
+                            DataVersionDAO.bump(DataVersionDAO.USER);
+                        } else {
+                            DataVersionDAO.bump(DataVersionDAO.USER, DataVersionDAO.BARANG);
+                        }
+                        transactionManager.afterCommit(() -> {
+                            userDirectory.evict(userId);
+                            ownedKodes.forEach(BarangCache.getInstance()::invalidate);
+                        });
+                    }
+                    return deleted;
+                }
+            });
             
         } catch (SQLException e) {
             System.err.println("Error deleting user: " + e.getMessage());
@@ -367,6 +646,63 @@ public class UserDAO {
         return false;
     }
     
+    // ============================================================
+    // ASYNC VARIANTS (dijalankan di DbExecutor)
+    // ============================================================
+
+    public CompletableFuture<User> authenticateAsync(String username, String password) {
+        return DbExecutor.supply(() -> authenticate(username, password));
+    }
+    
+    public CompletableFuture<Boolean> registerAsync(User user, String noTelepon, String namaInstansi) {
+        return DbExecutor.supply(() -> register(user, noTelepon, namaInstansi));
+    }
+    
+    public CompletableFuture<User> getUserByIdAsync(int id) {
+        return DbExecutor.supply(() -> getUserById(id));
+    }
+    
+    public CompletableFuture<User> getUserByUsernameAsync(String username) {
+        return DbExecutor.supply(() -> getUserByUsername(username));
+    }
+    
+    public CompletableFuture<Integer> getRoleIdAsync(User user) {
+        return DbExecutor.supply(() -> getRoleId(user));
+    }
+    
+    public CompletableFuture<List<User>> getAllUsersAsync() {
+        return DbExecutor.supply(() -> getAllUsers());
+    }
+    
+    public CompletableFuture<List<User>> getUsersByRoleAsync(String role) {
+        return DbExecutor.supply(() -> getUsersByRole(role));
+    }
+    
+    public CompletableFuture<Boolean> updateUserAsync(User user) {
+        return DbExecutor.supply(() -> updateUser(user));
+    }
+    
+    public CompletableFuture<Boolean> changePasswordAsync(int userId, String newPassword) {
+        return DbExecutor.supply(() -> changePassword(userId, newPassword));
+    }
+    
+    public CompletableFuture<Boolean> deleteUserAsync(int userId) {
+        return DbExecutor.supply(() -> deleteUser(userId));
+    }
+    
+    public CompletableFuture<Boolean> usernameExistsAsync(String username) {
+        return DbExecutor.supply(() -> usernameExists(username));
+    }
+    
+    public CompletableFuture<Page<User>> getUsersPageAsync(PageCursor after, int limit) {
+        return DbExecutor.supply(() -> getUsersPage(after, limit));
+    }
+    
+    public CompletableFuture<Page<User>> searchUsersAsync(String keyword, String role, String status,
+                                                          PageCursor after, int limit) {
+        return DbExecutor.supply(() -> searchUsers(keyword, role, status, after, limit));
+    }
+    
     // ============================================================
     // HELPER METHODS
     // ============================================================
@@ -400,4 +736,11 @@ public class UserDAO {
     private String hashPassword(String password) {
         return BCrypt.hashpw(password, BCrypt.gensalt());
     }
+    
+    /**
+     * Escape wildcard LIKE (% dan _) pada input user
+     */
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,228 @@
+// ================================================================
+// File: src/main/java/com/inventaris/dao/UserDirectory.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.TransactionManager;
+import com.inventaris.model.User;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * UserDirectory - Cache user, role ID dan nama peminjam
+ * Read-through dari UserDAO (getUserById, getUserByUsername, getRoleId).
+ * Nama & no telepon peminjam di-resolve per list: DAO mengumpulkan id_peminjam
+ * setelah ResultSet ditutup, lalu semua id yang belum ada di cache dimuat
+ * dalam satu query. Id yang tidak ditemukan juga di-cache (negatif), agar
+ * tidak di-query ulang setiap refresh. Hasil load di dalam unit of work tidak
+ * disimpan, karena bisa berisi baris yang belum commit.
+ * Dibuang per user oleh updateUser/changePassword/deleteUser, dan seluruhnya
+ * saat QueryCache melihat versi tabel user berubah.
+ * Menggunakan Singleton Pattern
+ */
+public class UserDirectory {
+    
+    private static volatile UserDirectory instance;
+    
+    /**
+     * Data peminjam yang ditampilkan di list borrow/lapor
+     */
+    public record PeminjamInfo(int idPeminjam, int idUser, String nama, String noTelepon) {
+    }
+    
+    private final Map<Integer, User> byId = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idByUsername = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> roleIdByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, PeminjamInfo> peminjamById = new ConcurrentHashMap<>();
+    private final Set<Integer> missingPeminjam = ConcurrentHashMap.newKeySet();
+    
+    // Naik setiap eviction; hasil load yang dimulai sebelumnya tidak disimpan
+    private final AtomicLong generation = new AtomicLong();
+    
+    private UserDirectory() {
+        QueryCache.getInstance().addInvalidationListener(tables -> {
+            for (String table : tables) {
+                if (DataVersionDAO.USER.equals(table)) {
+                    clear();
+                    return;
+                }
+            }
+        });
+    }
+    
+    public static UserDirectory getInstance() {
+        if (instance == null) {
+            synchronized (UserDirectory.class) {
+                if (instance == null) {
+                    instance = new UserDirectory();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Get user by ID, memuat lewat loader saat miss
+     * 
+     * @return Salinan user, null jika tidak ditemukan
+     */
+    public User getUser(int id, IntFunction<User> loader) {
+        User cached = byId.get(id);
+        if (cached != null) {
+            return new User(cached);
+        }
+        
+        long startGeneration = generation.get();
+        User loaded = loader.apply(id);
+        if (loaded != null) {
+            put(loaded, startGeneration);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Get user by username, memuat lewat loader saat miss
+     * 
+     * @return Salinan user, null jika tidak ditemukan
+     */
+    public User getUserByUsername(String username, Function<String, User> loader) {
+        Integer id = idByUsername.get(username);
+        User cached = id != null ? byId.get(id) : null;
+        if (cached != null) {
+            return new User(cached);
+        }
+        
+        long startGeneration = generation.get();
+        User loaded = loader.apply(username);
+        if (loaded != null) {
+            put(loaded, startGeneration);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Get role ID (id_peminjam/id_admin/id_instansi), memuat lewat loader saat miss
+     */
+    public Integer getRoleId(User user, Function<User, Integer> loader) {
+        Integer cached = roleIdByUser.get(user.getIdUser());
+        if (cached != null) {
+            return cached;
+        }
+        
+        long startGeneration = generation.get();
+        Integer loaded = loader.apply(user);
+        if (loaded != null) {
+            synchronized (this) {
+                if (canStore(startGeneration)) {
+                    roleIdByUser.put(user.getIdUser(), loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * Get data peminjam untuk ditampilkan di list
+     * Dipanggil setelah ResultSet list ditutup; semua id yang belum di-cache
+     * dimuat dengan satu query.
+     * 
+     * @param idPeminjams ID peminjam dari baris list
+     * @return Map ID peminjam ke PeminjamInfo; id yang tidak ditemukan tidak ada di map
+     */
+    public Map<Integer, PeminjamInfo> getPeminjams(Collection<Integer> idPeminjams) {
+        Map<Integer, PeminjamInfo> result = new HashMap<>();
+        Set<Integer> misses = new HashSet<>();
+        for (Integer id : idPeminjams) {
+            if (id == null) {
+                continue;
+            }
+            PeminjamInfo cached = peminjamById.get(id);
+            if (cached != null) {
+                result.put(id, cached);
+            } else if (!missingPeminjam.contains(id)) {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+        
+        long startGeneration = generation.get();
+        Map<Integer, PeminjamInfo> loaded = new UserDAO().loadPeminjam(misses);
+        if (loaded == null) {
+            return result;
+        }
+        synchronized (this) {
+            if (canStore(startGeneration)) {
+                peminjamById.putAll(loaded);
+                for (Integer id : misses) {
+                    if (!loaded.containsKey(id)) {
+                        missingPeminjam.add(id);
+                    }
+                }
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+    
+    /**
+     * Buang satu user (setelah update, ganti password, atau hapus)
+     */
+    public void evict(int userId) {
+        synchronized (this) {
+            generation.incrementAndGet();
+            User removed = byId.remove(userId);
+            if (removed != null) {
+                idByUsername.remove(removed.getUsername());
+            }
+            roleIdByUser.remove(userId);
+            // Nama peminjam ikut berubah
+            peminjamById.values().removeIf(info -> info.idUser() == userId);
+        }
+    }
+    
+    /**
+     * Kosongkan seluruh direktori
+     */
+    public void clear() {
+        synchronized (this) {
+            generation.incrementAndGet();
+            byId.clear();
+            idByUsername.clear();
+            roleIdByUser.clear();
+            peminjamById.clear();
+            missingPeminjam.clear();
+        }
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private void put(User user, long startGeneration) {
+        synchronized (this) {
+            if (!canStore(startGeneration)) {
+                return;
+            }
+            byId.put(user.getIdUser(), new User(user));
+            idByUsername.put(user.getUsername(), user.getIdUser());
+        }
+    }
+    
+    /**
+     * Hasil load boleh disimpan: tidak ada eviction sejak load dimulai dan
+     * load tidak berjalan di dalam unit of work (bisa membaca baris yang belum commit)
+     */
+    private boolean canStore(long startGeneration) {
+        return generation.get() == startGeneration && !TransactionManager.getInstance().isActive();
+    }
+}
@@ -29,6 +29,9 @@ public class Barang {
     // Extended property
     private String namaPemilik; // Nama instansi pemilik (from JOIN)
     
+    // false jika dimuat lewat projection ringkas (tanpa deskripsi & foto)
+    private boolean detailLoaded = true;
+    
     // ============================================================
     // CONSTRUCTORS
     // ============================================================
@@ -76,6 +79,27 @@ public class Barang {
         this.updatedAt = updatedAt;
     }
     
+    /**
+     * Copy constructor (dipakai BarangCache agar objek cache tidak ikut diubah)
+     */
+    public Barang(Barang other) {
+        this.idBarang = other.idBarang;
+        this.idInstansi = other.idInstansi;
+        this.kodeBarang = other.kodeBarang;
+        this.namaBarang = other.namaBarang;
+        this.lokasiBarang = other.lokasiBarang;
+        this.jumlahTotal = other.jumlahTotal;
+        this.jumlahTersedia = other.jumlahTersedia;
+        this.deskripsi = other.deskripsi;
+        this.kondisiBarang = other.kondisiBarang;
+        this.status = other.status;
+        this.foto = other.foto;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.namaPemilik = other.namaPemilik;
+        this.detailLoaded = other.detailLoaded;
+    }
+    
     // ============================================================
     // GETTERS AND SETTERS
     // ============================================================
@@ -202,6 +226,26 @@ public class Barang {
         return ((double) jumlahTersedia / jumlahTotal) * 100;
     }
     
+    /**
+     * Apakah kolom berat (deskripsi, foto) sudah dimuat
+     */
+    public boolean isDetailLoaded() {
+        return detailLoaded;
+    }
+    
+    public void setDetailLoaded(boolean detailLoaded) {
+        this.detailLoaded = detailLoaded;
+    }
+    
+    /**
+     * Salin kolom berat dari hasil query detail (lazy loading)
+     */
+    public void applyDetail(Barang detail) {
+        this.deskripsi = detail.deskripsi;
+        this.foto = detail.foto;
+        this.detailLoaded = true;
+    }
+    
     // ============================================================
     // OVERRIDE METHODS
     // ============================================================
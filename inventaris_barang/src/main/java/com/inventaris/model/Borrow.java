@@ -27,6 +27,7 @@ public class Borrow {
     private String fotoPengembalian;
     private String statusBarang; // dipinjam, dikembalikan, hilang, rusak, pending
     private Timestamp createdAt;
+    private Timestamp updatedAt;
     
     // Extended properties (from JOIN queries)
     private String namaPeminjam;
@@ -167,6 +168,14 @@ public class Borrow {
         this.createdAt = createdAt;
     }
     
+    public Timestamp getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(Timestamp updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
     // Extended properties
     
     public String getNamaPeminjam() {
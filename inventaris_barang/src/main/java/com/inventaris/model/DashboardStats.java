@@ -0,0 +1,20 @@
+// ================================================================
+// File: src/main/java/com/inventaris/model/DashboardStats.java
+// ================================================================
+package com.inventaris.model;
+
+/**
+ * DashboardStats - Ringkasan angka untuk kartu statistik dashboard
+ * Immutable; dibuat oleh StatsDAO. Tiga angka pertama dibaca dari counter
+ * inventory_summary (diperbarui di transaksi yang sama dengan datanya), hanya
+ * overdue yang dihitung per query karena bergantung tanggal hari ini.
+ * 
+ * @param totalBarang Jumlah jenis barang
+ * @param barangTersedia Jenis barang dengan stok > 0 dan status tersedia
+ * @param dipinjam Peminjaman aktif (borrow_aktif)
+ * @param overdue Peminjaman aktif yang melewati deadline
+ */
+public record DashboardStats(int totalBarang, int barangTersedia, int dipinjam, int overdue) {
+    
+    public static final DashboardStats EMPTY = new DashboardStats(0, 0, 0, 0);
+}
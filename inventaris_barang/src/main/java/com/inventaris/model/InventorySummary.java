@@ -0,0 +1,24 @@
+// ================================================================
+// File: src/main/java/com/inventaris/model/InventorySummary.java
+// ================================================================
+package com.inventaris.model;
+
+/**
+ * InventorySummary - Isi tabel inventory_summary (SUM semua slot)
+ * Counter dipelihara secara transaksional oleh DAO; immutable.
+ */
+public record InventorySummary(
+        int totalBarang,
+        int barangTersedia,
+        int unitTersedia,
+        int borrowTotal,
+        int borrowPending,
+        int borrowAktif,
+        int borrowSelesai,
+        int borrowHilang,
+        int borrowRusak,
+        int laporTotal,
+        int laporDiproses,
+        int laporSelesai,
+        int laporDitolak) {
+}
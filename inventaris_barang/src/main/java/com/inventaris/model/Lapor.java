@@ -22,6 +22,7 @@ public class Lapor {
     private Timestamp createdAt;
     
     // Extended properties (from JOIN queries)
+    private Integer idPeminjam;
     private String namaPeminjam;
     private String namaBarang;
     
@@ -122,6 +123,14 @@ public class Lapor {
     
     // Extended properties
     
+    public Integer getIdPeminjam() {
+        return idPeminjam;
+    }
+    
+    public void setIdPeminjam(Integer idPeminjam) {
+        this.idPeminjam = idPeminjam;
+    }
+    
     public String getNamaPeminjam() {
         return namaPeminjam;
     }
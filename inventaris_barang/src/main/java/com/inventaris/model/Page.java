@@ -0,0 +1,35 @@
+// ================================================================
+// File: src/main/java/com/inventaris/model/Page.java
+// ================================================================
+package com.inventaris.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page - Satu halaman hasil keyset pagination
+ * next berisi cursor untuk halaman berikutnya, null jika sudah halaman terakhir.
+ */
+public record Page<T>(List<T> items, PageCursor next) {
+    
+    public boolean hasMore() {
+        return next != null;
+    }
+    
+    /**
+     * Bentuk halaman dari hasil query LIMIT (limit + 1)
+     * Baris ekstra hanya penanda masih ada halaman berikutnya, tidak ikut dikembalikan.
+     * 
+     * @param rows Hasil query, maksimal limit + 1 baris
+     * @param limit Ukuran halaman
+     * @param cursorOf Ambil (created_at, id) dari satu baris
+     */
+    public static <T> Page<T> of(List<T> rows, int limit, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+}
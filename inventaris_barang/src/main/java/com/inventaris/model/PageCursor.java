@@ -0,0 +1,22 @@
+// ================================================================
+// File: src/main/java/com/inventaris/model/PageCursor.java
+// ================================================================
+package com.inventaris.model;
+
+import java.sql.Timestamp;
+
+/**
+ * PageCursor - Posisi keyset (created_at, id) dari baris terakhir di satu halaman
+ * Urutan list: created_at DESC, id DESC; halaman berikutnya dimulai setelah cursor.
+ */
+public record PageCursor(Timestamp createdAt, int id) implements Comparable<PageCursor> {
+    
+    /**
+     * Urutan tampilan: cursor yang lebih baru lebih "kecil" (tampil lebih atas)
+     */
+    @Override
+    public int compareTo(PageCursor other) {
+        int byTime = other.createdAt.compareTo(createdAt);
+        return byTime != 0 ? byTime : Integer.compare(other.id, id);
+    }
+}
@@ -0,0 +1,66 @@
+// ================================================================
+// File: src/main/java/com/inventaris/model/ReservationResult.java
+// ================================================================
+package com.inventaris.model;
+
+/**
+ * ReservationResult - Hasil reservasi stok saat peminjaman diajukan
+ * Immutable; dibuat oleh BorrowDAO.reserve() dan reserveAll(). Saat gagal,
+ * status menjelaskan alasannya dan available berisi stok tersedia yang
+ * terbaca saat itu.
+ * 
+ * @param status Hasil reservasi
+ * @param available Stok tersedia setelah reservasi (berhasil) atau saat ditolak
+ * @param borrowId ID peminjaman yang dibuat, 0 jika gagal atau untuk keranjang
+ * @param kodeBarang Barang keranjang yang membuat reservasi gagal, null jika tidak ada
+ */
+public record ReservationResult(Status status, int available, int borrowId, String kodeBarang) {
+    
+    public enum Status {
+        RESERVED,
+        INSUFFICIENT_STOCK,
+        BARANG_NOT_FOUND,
+        INVALID_QUANTITY,
+        ERROR
+    }
+    
+    public static ReservationResult reserved(int borrowId, int available) {
+        return new ReservationResult(Status.RESERVED, available, borrowId, null);
+    }
+    
+    /**
+     * Seluruh isi keranjang berhasil direservasi (ID diisi ke tiap Borrow)
+     */
+    public static ReservationResult reservedAll() {
+        return new ReservationResult(Status.RESERVED, 0, 0, null);
+    }
+    
+    public static ReservationResult failed(Status status, int available) {
+        return new ReservationResult(status, available, 0, null);
+    }
+    
+    public static ReservationResult failed(Status status, int available, String kodeBarang) {
+        return new ReservationResult(status, available, 0, kodeBarang);
+    }
+    
+    public boolean isSuccess() {
+        return status == Status.RESERVED;
+    }
+    
+    /**
+     * Pesan untuk ditampilkan ke user
+     */
+    public String getMessage() {
+        switch (status) {
+            case RESERVED: return "Stok berhasil direservasi";
+            case INSUFFICIENT_STOCK: return "Stok " + barangLabel() + "tidak cukup! Tersedia: " + available;
+            case BARANG_NOT_FOUND: return "Barang " + barangLabel() + "tidak ditemukan!";
+            case INVALID_QUANTITY: return "Jumlah pinjam harus lebih dari 0!";
+            default: return "Terjadi kesalahan database!";
+        }
+    }
+    
+    private String barangLabel() {
+        return kodeBarang != null ? kodeBarang + " " : "";
+    }
+}
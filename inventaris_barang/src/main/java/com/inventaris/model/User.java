@@ -58,6 +58,20 @@ public class User {
         this.updatedAt = updatedAt;
     }
     
+    /**
+     * Copy constructor (dipakai UserDirectory agar objek cache tidak ikut diubah)
+     */
+    public User(User other) {
+        this.idUser = other.idUser;
+        this.username = other.username;
+        this.password = other.password;
+        this.nama = other.nama;
+        this.role = other.role;
+        this.status = other.status;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+    
     // ============================================================
     // GETTERS AND SETTERS
     // ============================================================
@@ -0,0 +1,28 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/AutoRefreshable.java
+// ================================================================
+package com.inventaris.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AutoRefreshable - Kontrak controller yang datanya di-refresh berkala oleh RefreshScheduler
+ * Controller mendaftar lewat RefreshScheduler.register(this) saat initialize,
+ * dan otomatis dilepas oleh Main ketika layar diganti.
+ */
+public interface AutoRefreshable {
+    
+    /**
+     * Interval refresh saat window aktif
+     */
+    Duration getRefreshInterval();
+    
+    /**
+     * Mulai refresh data
+     * Query harus berjalan di luar FX thread (DbExecutor) dan UI di-update lewat FxAsync.
+     * Future selesai ketika data sudah diterapkan ke UI; selama belum selesai,
+     * tick berikutnya dilewati.
+     */
+    CompletableFuture<?> refreshAsync();
+}
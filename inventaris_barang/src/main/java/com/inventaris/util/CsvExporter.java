@@ -0,0 +1,74 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/CsvExporter.java
+// ================================================================
+package com.inventaris.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * CsvExporter - Menulis baris ke file CSV satu per satu
+ * Dipakai bersama Stream dari DAO, sehingga export tidak menampung seluruh data di memori.
+ */
+public class CsvExporter {
+    
+    private CsvExporter() {}
+    
+    /**
+     * Tulis header dan semua baris ke file CSV (UTF-8 dengan BOM agar terbaca Excel)
+     * 
+     * @param file File tujuan
+     * @param header Nama kolom
+     * @param rows Baris yang akan ditulis (tidak ditutup di sini)
+     * @param columns Nilai kolom untuk satu baris
+     * @return Jumlah baris yang ditulis
+     */
+    public static <T> long export(Path file, String[] header, Stream<T> rows,
+                                  Function<T, Object[]> columns) throws IOException {
+        long count = 0;
+        
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write('\uFEFF');
+            writeLine(writer, header);
+            
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeLine(writer, columns.apply(iterator.next()));
+                count++;
+            }
+        
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        return count;
+    }
+    
+    private static void writeLine(BufferedWriter writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values[i]));
+        }
+        writer.write("\r\n");
+    }
+    
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
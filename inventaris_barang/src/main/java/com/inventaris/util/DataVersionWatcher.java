@@ -0,0 +1,82 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/DataVersionWatcher.java
+// ================================================================
+package com.inventaris.util;
+
+import com.inventaris.dao.DataVersionDAO;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * DataVersionWatcher - Mendeteksi perubahan data lewat tabel data_version
+ * Dipakai controller auto-refresh: query berat hanya dijalankan jika versi
+ * salah satu tabel yang dipantau berubah sejak reload terakhir yang berhasil.
+ * check() tidak mengubah state; versi baru dicatat lewat markSeen() setelah
+ * reload selesai, sehingga reload yang gagal diulang pada pemeriksaan berikutnya.
+ */
+public class DataVersionWatcher {
+    
+    /**
+     * Hasil satu pemeriksaan
+     * 
+     * @param changedTables Tabel yang berubah sejak markSeen() terakhir
+     * @param versions Versi yang dibaca, null jika gagal dibaca
+     */
+    public record Check(Set<String> changedTables, Map<String, Long> versions) {
+        
+        public boolean hasChanged() {
+            return !changedTables.isEmpty();
+        }
+    }
+    
+    private final DataVersionDAO dataVersionDAO = new DataVersionDAO();
+    private final List<String> tables;
+    private Map<String, Long> lastSeen;
+    
+    /**
+     * @param tables Nama tabel yang dipantau (lihat konstanta DataVersionDAO)
+     */
+    public DataVersionWatcher(String... tables) {
+        this.tables = Arrays.asList(tables);
+    }
+    
+    /**
+     * Tabel yang versinya berubah sejak reload terakhir yang berhasil
+     * Sebelum markSeen() pertama, atau jika versi gagal dibaca, berisi semua tabel yang dipantau.
+     */
+    public synchronized Check check() {
+        Map<String, Long> current = dataVersionDAO.getVersions();
+        if (current == null) {
+            return new Check(new HashSet<>(tables), null);
+        }
+        
+        Set<String> changed = new HashSet<>();
+        for (String table : tables) {
+            if (lastSeen == null || !Objects.equals(lastSeen.get(table), current.get(table))) {
+                changed.add(table);
+            }
+        }
+        return new Check(changed, current);
+    }
+    
+    /**
+     * Catat versi dari check() setelah reload-nya berhasil
+     */
+    public synchronized void markSeen(Check check) {
+        if (check.versions() != null) {
+            lastSeen = check.versions();
+        }
+    }
+    
+    /**
+     * Paksa pemeriksaan berikutnya dianggap berubah
+     */
+    public synchronized void reset() {
+        lastSeen = null;
+    }
+}
@@ -0,0 +1,90 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/DebouncedSearch.java
+// ================================================================
+package com.inventaris.util;
+
+import com.inventaris.config.QueryCancellation;
+import javafx.animation.PauseTransition;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * DebouncedSearch - Search-as-you-type untuk TextField
+ * Query baru dijalankan setelah user berhenti mengetik selama jeda debounce.
+ * Query sebelumnya yang masih berjalan dibatalkan lewat QueryCancellation,
+ * dan hanya hasil query terakhir yang ditampilkan.
+ * Semua method dipanggil di FX thread.
+ */
+public class DebouncedSearch<T> {
+    
+    public static final Duration DEFAULT_DELAY = Duration.millis(300);
+    
+    /**
+     * Pencarian async; cancellation diteruskan ke DAO agar Statement bisa di-cancel
+     */
+    @FunctionalInterface
+    public interface Search<T> {
+        CompletableFuture<T> run(String keyword, QueryCancellation cancellation);
+    }
+    
+    private final TextField field;
+    private final PauseTransition pause;
+    private final Search<T> search;
+    private final Consumer<T> onResult;
+    
+    private QueryCancellation current;
+    private int generation;
+    
+    public DebouncedSearch(TextField field, Search<T> search, Consumer<T> onResult) {
+        this(field, DEFAULT_DELAY, search, onResult);
+    }
+    
+    public DebouncedSearch(TextField field, Duration delay, Search<T> search, Consumer<T> onResult) {
+        this.field = field;
+        this.search = search;
+        this.onResult = onResult;
+        this.pause = new PauseTransition(delay);
+        this.pause.setOnFinished(event -> runNow());
+        
+        field.textProperty().addListener((obs, oldText, newText) -> pause.playFromStart());
+    }
+    
+    /**
+     * Jalankan pencarian sekarang (mis. tombol Cari / Enter), tanpa menunggu debounce
+     */
+    public void runNow() {
+        pause.stop();
+        cancel();
+        
+        int requestGeneration = ++generation;
+        QueryCancellation cancellation = new QueryCancellation();
+        current = cancellation;
+        
+        String keyword = field.getText() == null ? "" : field.getText().trim();
+        FxAsync.onFx(search.run(keyword, cancellation), result -> {
+            if (requestGeneration == generation) {
+                current = null;
+                onResult.accept(result);
+            }
+        }, e -> {
+            if (!cancellation.isCancelled()) {
+                System.err.println("Error searching: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Batalkan debounce dan query yang sedang berjalan
+     */
+    public void cancel() {
+        pause.stop();
+        generation++;
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
+    }
+}
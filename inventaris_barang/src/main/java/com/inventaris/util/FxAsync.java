@@ -0,0 +1,80 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/FxAsync.java
+// ================================================================
+package com.inventaris.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * FxAsync - Helper untuk mengembalikan hasil CompletableFuture ke JavaFX Application Thread
+ * Query dijalankan di DbExecutor, lalu UI di-update lewat Platform.runLater.
+ */
+public class FxAsync {
+    
+    private FxAsync() {}
+    
+    /**
+     * Terapkan hasil future ke UI; error hanya dicatat ke log
+     * 
+     * @param future Future dari DAO async
+     * @param onSuccess Dipanggil di FX thread dengan hasil future
+     */
+    public static <T> CompletableFuture<Void> onFx(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        return onFx(future, onSuccess, error -> {
+            System.err.println("Async task failed: " + error.getMessage());
+            error.printStackTrace();
+        });
+    }
+    
+    /**
+     * Terapkan hasil atau error future ke UI
+     * Future yang dikembalikan selesai setelah callback selesai dijalankan di FX thread,
+     * dan ikut gagal jika future sumber gagal (setelah onError dijalankan), sehingga
+     * pemanggil bisa tahu reload tidak berhasil.
+     * 
+     * @param future Future dari DAO async
+     * @param onSuccess Dipanggil di FX thread dengan hasil future
+     * @param onError Dipanggil di FX thread jika future gagal
+     */
+    public static <T> CompletableFuture<Void> onFx(CompletableFuture<T> future,
+                                                   Consumer<T> onSuccess,
+                                                   Consumer<Throwable> onError) {
+        CompletableFuture<Void> applied = new CompletableFuture<>();
+        future.whenComplete((result, error) -> runOnFx(() -> {
+            try {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    onError.accept(cause);
+                    applied.completeExceptionally(cause);
+                } else {
+                    onSuccess.accept(result);
+                    applied.complete(null);
+                }
+            } catch (RuntimeException e) {
+                applied.completeExceptionally(e);
+            }
+        }));
+        return applied;
+    }
+    
+    /**
+     * Jalankan langsung jika sudah di FX thread, selain itu lewat Platform.runLater
+     */
+    public static void runOnFx(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+    }
+}
@@ -0,0 +1,63 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/ListMerger.java
+// ================================================================
+package com.inventaris.util;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * ListMerger - Menggabungkan baris hasil delta fetch ke list yang sudah tampil
+ * Baris yang sudah ada diganti di tempat, baris yang tidak lagi cocok dengan
+ * filter tabel dihapus, dan baris baru disisipkan sesuai urutan tabel.
+ * Harus dipanggil di FX thread jika list terpasang di TableView/ComboBox.
+ */
+public class ListMerger {
+    
+    private ListMerger() {}
+    
+    /**
+     * @param target List yang sedang tampil
+     * @param changed Baris yang berubah (boleh berisi duplikat, yang terakhir menang)
+     * @param key Identitas baris (mis. id_peminjaman)
+     * @param belongs Apakah baris termasuk dalam list ini
+     * @param order Urutan list, dipakai untuk menyisipkan baris baru
+     */
+    public static <T, K> void merge(List<T> target, List<T> changed, Function<T, K> key,
+                                    Predicate<T> belongs, Comparator<T> order) {
+        Map<K, T> latest = new HashMap<>();
+        for (T item : changed) {
+            latest.put(key.apply(item), item);
+        }
+        
+        // Ganti atau hapus baris yang sudah ada
+        for (int i = target.size() - 1; i >= 0; i--) {
+            K id = key.apply(target.get(i));
+            T update = latest.remove(id);
+            if (update == null) {
+                continue;
+            }
+            if (belongs.test(update)) {
+                target.set(i, update);
+            } else {
+                target.remove(i);
+            }
+        }
+        
+        // Sisipkan baris baru pada posisinya
+        for (T item : latest.values()) {
+            if (!belongs.test(item)) {
+                continue;
+            }
+            int index = 0;
+            while (index < target.size() && order.compare(target.get(index), item) <= 0) {
+                index++;
+            }
+            target.add(index, item);
+        }
+    }
+}
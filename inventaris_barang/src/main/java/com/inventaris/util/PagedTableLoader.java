@@ -0,0 +1,160 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/PagedTableLoader.java
+// ================================================================
+package com.inventaris.util;
+
+import com.inventaris.config.DbExecutor;
+import com.inventaris.model.Page;
+import com.inventaris.model.PageCursor;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PagedTableLoader - Mengisi TableView per halaman (keyset pagination)
+ * Halaman pertama dimuat saat reload(); halaman berikutnya diambil di DbExecutor
+ * ketika scrollbar mendekati bawah, sehingga memori dan latensi tetap datar
+ * berapapun jumlah baris di database.
+ * Jika tabel diisi list lain (mis. hasil search), loader berhenti sampai reload() berikutnya.
+ * Selain reload(), semua method harus dipanggil di FX thread.
+ */
+public class PagedTableLoader<T> {
+    
+    // Lebih besar dari jumlah baris yang terlihat, agar scrollbar selalu muncul
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    
+    // Halaman berikutnya diminta saat posisi scroll melewati batas ini
+    private static final double PREFETCH_THRESHOLD = 0.85;
+    
+    /**
+     * Sumber halaman, dipanggil di DbExecutor
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        Page<T> fetch(PageCursor after, int limit);
+    }
+    
+    private final TableView<T> table;
+    private final int pageSize;
+    private PageFetcher<T> fetcher;
+    
+    private ObservableList<T> items;
+    private PageCursor nextCursor;
+    private boolean hasMore;
+    private boolean loading;
+    private int generation;
+    private ScrollBar verticalBar;
+    
+    public PagedTableLoader(TableView<T> table, PageFetcher<T> fetcher) {
+        this(table, DEFAULT_PAGE_SIZE, fetcher);
+    }
+    
+    public PagedTableLoader(TableView<T> table, int pageSize, PageFetcher<T> fetcher) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+        
+        // ScrollBar baru ada setelah skin dibuat
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> FxAsync.runOnFx(this::bindScrollBar));
+        if (table.getSkin() != null) {
+            bindScrollBar();
+        }
+    }
+    
+    /**
+     * Ganti sumber halaman (mis. filter berubah); panggil reload() sesudahnya
+     */
+    public void setFetcher(PageFetcher<T> fetcher) {
+        this.fetcher = fetcher;
+    }
+    
+    /**
+     * Kosongkan tabel lalu muat halaman pertama
+     * Halaman yang masih dalam perjalanan dari reload sebelumnya diabaikan.
+     * Boleh dipanggil dari thread mana saja (mis. dari refreshAsync).
+     */
+    public CompletableFuture<Void> reload() {
+        if (!Platform.isFxApplicationThread()) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            Platform.runLater(() -> reload().whenComplete((result, error) -> done.complete(null)));
+            return done;
+        }
+        
+        generation++;
+        nextCursor = null;
+        hasMore = true;
+        loading = false;
+        items = FXCollections.observableArrayList();
+        table.setItems(items);
+        return loadNextPage();
+    }
+    
+    /**
+     * Muat halaman berikutnya (diabaikan jika sedang memuat atau sudah habis)
+     */
+    public CompletableFuture<Void> loadNextPage() {
+        if (loading || !hasMore || items == null || table.getItems() != items) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        loading = true;
+        int requestGeneration = generation;
+        PageCursor after = nextCursor;
+        PageFetcher<T> source = fetcher;
+        
+        return FxAsync.onFx(DbExecutor.supply(() -> source.fetch(after, pageSize)), page -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            items.addAll(page.items());
+            nextCursor = page.next();
+            hasMore = page.hasMore();
+        }, e -> {
+            if (requestGeneration == generation) {
+                loading = false;
+            }
+            System.err.println("Error loading page: " + e.getMessage());
+        });
+    }
+    
+    /**
+     * Apakah baris dengan cursor ini berada di rentang yang sudah dimuat
+     * Dipakai saat menggabungkan delta, agar baris lama di luar halaman tidak
+     * disisipkan ke ujung tabel dan membuat celah.
+     */
+    public boolean isLoaded(PageCursor cursor) {
+        return !hasMore || nextCursor == null || cursor.compareTo(nextCursor) <= 0;
+    }
+    
+    public boolean hasMore() {
+        return hasMore;
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private void bindScrollBar() {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                if (node == verticalBar) {
+                    return;
+                }
+                verticalBar = (ScrollBar) node;
+                verticalBar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= verticalBar.getMax() * PREFETCH_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/QuickOpenPalette.java
+// ================================================================
+package com.inventaris.util;
+
+import com.inventaris.Main;
+import com.inventaris.config.DbExecutor;
+import com.inventaris.dao.QuickOpenIndex;
+import javafx.scene.Scene;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.layout.VBox;
+import javafx.stage.Popup;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * QuickOpenPalette - Palette "go to" (Ctrl+K) untuk admin
+ * Mencari barang, user, peminjaman dan laporan sekaligus dari QuickOpenIndex
+ * di memori, lalu membuka layar terkait dan menampilkan record terpilih
+ * tanpa menunggu tabel dimuat penuh.
+ */
+public class QuickOpenPalette {
+    
+    public static final KeyCombination SHORTCUT =
+        new KeyCodeCombination(KeyCode.K, KeyCombination.SHORTCUT_DOWN);
+    
+    private static final int MAX_RESULTS = 20;
+    private static final Duration SEARCH_DELAY = Duration.millis(100);
+    
+    private final Popup popup = new Popup();
+    private final TextField searchField = new TextField();
+    private final ListView<QuickOpenIndex.Item> resultList = new ListView<>();
+    private final DebouncedSearch<List<QuickOpenIndex.Item>> search;
+    
+    private QuickOpenPalette() {
+        searchField.setPromptText("Cari barang, user, #peminjaman, no laporan...");
+        resultList.setPrefSize(520, 320);
+        resultList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(QuickOpenIndex.Item item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null
+                    : iconOf(item.kind()) + "  " + item.title() + "   —   " + item.subtitle());
+            }
+        });
+        
+        VBox box = new VBox(8, searchField, resultList);
+        box.getStyleClass().add("card");
+        box.setStyle("-fx-background-color: white; -fx-padding: 10;");
+        popup.getContent().add(box);
+        popup.setAutoHide(true);
+        
+        search = new DebouncedSearch<>(searchField, SEARCH_DELAY,
+            (keyword, cancellation) -> keyword.isEmpty()
+                ? CompletableFuture.completedFuture(List.of())
+                : DbExecutor.supply(() -> QuickOpenIndex.getInstance().search(keyword, MAX_RESULTS)),
+            items -> {
+                resultList.getItems().setAll(items);
+                if (!items.isEmpty()) {
+                    resultList.getSelectionModel().selectFirst();
+                }
+            });
+        
+        searchField.setOnKeyPressed(event -> {
+            switch (event.getCode()) {
+                case DOWN:
+                    resultList.getSelectionModel().selectNext();
+                    event.consume();
+                    break;
+                case UP:
+                    resultList.getSelectionModel().selectPrevious();
+                    event.consume();
+                    break;
+                case ENTER:
+                    openSelected();
+                    event.consume();
+                    break;
+                case ESCAPE:
+                    popup.hide();
+                    event.consume();
+                    break;
+                default:
+                    break;
+            }
+        });
+        resultList.setOnMouseClicked(event -> openSelected());
+    }
+    
+    /**
+     * Pasang shortcut Ctrl+K (Cmd+K di macOS) pada scene
+     */
+    public static void install(Scene scene) {
+        QuickOpenPalette palette = new QuickOpenPalette();
+        scene.getAccelerators().put(SHORTCUT, () -> palette.show(scene.getWindow()));
+    }
+    
+    /**
+     * Tampilkan palette di bagian atas window
+     */
+    public void show(Window owner) {
+        if (popup.isShowing()) {
+            searchField.selectAll();
+            return;
+        }
+        search.cancel();
+        searchField.clear();
+        resultList.getItems().clear();
+        
+        double x = owner.getX() + (owner.getWidth() - resultList.getPrefWidth()) / 2;
+        double y = owner.getY() + 80;
+        popup.show(owner, x, y);
+        searchField.requestFocus();
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private void openSelected() {
+        QuickOpenIndex.Item item = resultList.getSelectionModel().getSelectedItem();
+        if (item == null) {
+            return;
+        }
+        search.cancel();
+        popup.hide();
+        
+        Main.loadContent(screenOf(item.kind()));
+        Object controller = Main.getCurrentController();
+        if (controller instanceof QuickOpenTarget) {
+            ((QuickOpenTarget) controller).reveal(item);
+        }
+    }
+    
+    private static String screenOf(QuickOpenIndex.Kind kind) {
+        switch (kind) {
+            case BARANG: return "Barang.fxml";
+            default: return "User.fxml";
+        }
+    }
+    
+    private static String iconOf(QuickOpenIndex.Kind kind) {
+        switch (kind) {
+            case BARANG: return "📦";
+            case USER: return "👤";
+            case PEMINJAMAN: return "📋";
+            case LAPORAN: return "📝";
+            default: return "";
+        }
+    }
+}
@@ -0,0 +1,20 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/QuickOpenTarget.java
+// ================================================================
+package com.inventaris.util;
+
+import com.inventaris.dao.QuickOpenIndex;
+
+/**
+ * QuickOpenTarget - Kontrak controller yang bisa menampilkan record dari palette quick-open
+ * Setelah QuickOpenPalette memuat layar lewat Main.loadContent, controller
+ * yang mengimplementasikan interface ini diminta menampilkan record terpilih.
+ */
+public interface QuickOpenTarget {
+    
+    /**
+     * Tampilkan dan pilih record di layar ini
+     * Dipanggil di FX thread tepat setelah layar dimuat.
+     */
+    void reveal(QuickOpenIndex.Item item);
+}
@@ -0,0 +1,180 @@
+// ================================================================
+// File: src/main/java/com/inventaris/util/RefreshScheduler.java
+// ================================================================
+package com.inventaris.util;
+
+import javafx.stage.Stage;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RefreshScheduler - Penjadwal auto-refresh bersama untuk semua controller
+ * Menggantikan Timeline per controller:
+ * - tick berjalan di thread background, bukan di FX thread
+ * - tick yang datang saat refresh sebelumnya belum selesai dilewati
+ * - interval diperlambat saat window tidak fokus, dan berhenti saat diminimize
+ * Menggunakan Singleton Pattern
+ */
+public class RefreshScheduler {
+    
+    /** Pengali interval saat window tidak fokus */
+    private static final int UNFOCUSED_BACKOFF = 4;
+    
+    private static volatile RefreshScheduler instance;
+    
+    private final ScheduledExecutorService scheduler;
+    private final Map<AutoRefreshable, Registration> registrations = new ConcurrentHashMap<>();
+    
+    private volatile boolean focused = true;
+    private volatile boolean iconified = false;
+    
+    private RefreshScheduler() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public static RefreshScheduler getInstance() {
+        if (instance == null) {
+            synchronized (RefreshScheduler.class) {
+                if (instance == null) {
+                    instance = new RefreshScheduler();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Pantau status fokus/minimize window utama untuk backoff polling
+     */
+    public void attachStage(Stage stage) {
+        focused = stage.isFocused();
+        iconified = stage.isIconified();
+        
+        stage.focusedProperty().addListener((obs, oldValue, newValue) -> {
+            focused = newValue;
+            // Kembali fokus: langsung refresh agar data tidak terlihat basi
+            if (newValue) {
+                refreshAllNow();
+            }
+        });
+        stage.iconifiedProperty().addListener((obs, oldValue, newValue) -> {
+            iconified = newValue;
+            if (!newValue) {
+                refreshAllNow();
+            }
+        });
+    }
+    
+    /**
+     * Daftarkan controller untuk auto-refresh
+     */
+    public void register(AutoRefreshable target) {
+        unregister(target);
+        
+        Registration registration = new Registration(target);
+        long intervalMs = registration.intervalMs;
+        registration.future = scheduler.scheduleWithFixedDelay(
+            registration::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS
+        );
+        registrations.put(target, registration);
+        
+        System.out.println("✅ Auto-refresh registered: " + target.getClass().getSimpleName()
+                + " (every " + intervalMs + " ms)");
+    }
+    
+    /**
+     * Lepas controller dari auto-refresh
+     */
+    public void unregister(AutoRefreshable target) {
+        Registration registration = registrations.remove(target);
+        if (registration != null) {
+            registration.cancel();
+            System.out.println("⏹️ Auto-refresh stopped: " + target.getClass().getSimpleName());
+        }
+    }
+    
+    /**
+     * Minta refresh segera untuk semua controller terdaftar
+     */
+    public void refreshAllNow() {
+        for (Registration registration : registrations.values()) {
+            scheduler.execute(() -> registration.run(true));
+        }
+    }
+    
+    /**
+     * Hentikan scheduler (dipanggil saat aplikasi ditutup)
+     */
+    public void shutdown() {
+        for (AutoRefreshable target : registrations.keySet()) {
+            unregister(target);
+        }
+        scheduler.shutdownNow();
+    }
+    
+    // ============================================================
+    // REGISTRATION
+    // ============================================================
+    
+    private final class Registration {
+        
+        private final AutoRefreshable target;
+        private final long intervalMs;
+        private volatile ScheduledFuture<?> future;
+        private volatile CompletableFuture<?> inFlight;
+        private volatile boolean cancelled = false;
+        private long lastStartNanos = System.nanoTime();
+        
+        private Registration(AutoRefreshable target) {
+            this.target = target;
+            this.intervalMs = Math.max(100, target.getRefreshInterval().toMillis());
+        }
+        
+        private void tick() {
+            run(false);
+        }
+        
+        private void run(boolean force) {
+            if (cancelled || iconified) {
+                return;
+            }
+            
+            // Coalesce: refresh sebelumnya masih berjalan
+            CompletableFuture<?> previous = inFlight;
+            if (previous != null && !previous.isDone()) {
+                return;
+            }
+            
+            long effectiveIntervalMs = focused ? intervalMs : intervalMs * UNFOCUSED_BACKOFF;
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastStartNanos);
+            if (!force && elapsedMs < effectiveIntervalMs) {
+                return;
+            }
+            
+            lastStartNanos = System.nanoTime();
+            try {
+                inFlight = target.refreshAsync();
+            } catch (Exception e) {
+                System.err.println("Error refreshing " + target.getClass().getSimpleName() + ": " + e.getMessage());
+                inFlight = null;
+            }
+        }
+        
+        private void cancel() {
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
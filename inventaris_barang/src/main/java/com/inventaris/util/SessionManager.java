@@ -11,7 +11,7 @@ import com.inventaris.model.User;
  */
 public class SessionManager {
     
-    private static SessionManager instance;
+    private static volatile SessionManager instance;
     private User currentUser;
     private Integer currentRoleId; // id_peminjam, id_admin, atau id_instansi
     
@@ -0,0 +1,199 @@
+// ================================================================
+// File: src/test/java/com/inventaris/dao/BorrowDAOReservationTest.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.DatabaseConfig;
+import com.inventaris.model.Borrow;
+import com.inventaris.model.ReservationResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.inventaris.dao.TestDatabase.countBorrows;
+import static com.inventaris.dao.TestDatabase.insertBarang;
+import static com.inventaris.dao.TestDatabase.readStock;
+import static com.inventaris.dao.TestDatabase.sumReservedUnits;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reservasi stok bersamaan lewat BorrowDAO.reserve() (H2, mode MySQL)
+ * Stok tidak boleh minus, jumlah reservasi yang berhasil harus sama dengan stok
+ * awal, dan counter inventory_summary harus cocok dengan tabel dasar.
+ * Skenario stress menjalankan ribuan reservasi dalam beberapa putaran atas
+ * stok kecil dan memeriksa invarian stok setelah setiap putaran.
+ * rejectAll() harus mengembalikan stok dengan counter yang tetap cocok.
+ */
+class BorrowDAOReservationTest {
+    
+    private static final int THREADS = 16;
+    
+    // Stress: ROUNDS x RESERVATIONS_PER_ROUND reservasi, stok kecil per putaran
+    private static final int ROUNDS = 40;
+    private static final int RESERVATIONS_PER_ROUND = 100;
+    private static final int STRESS_STOCK = 7;
+    
+    private final BorrowDAO borrowDAO = new BorrowDAO();
+    
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        TestDatabase.createSchema();
+    }
+    
+    @BeforeEach
+    void resetData() throws SQLException {
+        TestDatabase.reset();
+    }
+    
+    @Test
+    void concurrentReservationsOnSameItemNeverOversell() throws Exception {
+        insertBarang("BRG-001", 5);
+        
+        List<ReservationResult> results = reserveConcurrently(i -> "BRG-001");
+        
+        assertEquals(5, countStatus(results, ReservationResult.Status.RESERVED));
+        assertEquals(THREADS - 5, countStatus(results, ReservationResult.Status.INSUFFICIENT_STOCK));
+        assertEquals(0, readStock("BRG-001"));
+        assertEquals(5, countBorrows("BRG-001"));
+        assertCountersMatch();
+    }
+    
+    @Test
+    void concurrentReservationsOnDifferentItemsNeverOversell() throws Exception {
+        String[] kodes = {"BRG-101", "BRG-102", "BRG-103", "BRG-104"};
+        for (String kode : kodes) {
+            insertBarang(kode, 3);
+        }
+        
+        List<ReservationResult> results = reserveConcurrently(i -> kodes[i % kodes.length]);
+        
+        assertEquals(kodes.length * 3, countStatus(results, ReservationResult.Status.RESERVED));
+        for (String kode : kodes) {
+            int stock = readStock(kode);
+            assertTrue(stock >= 0, "Stok " + kode + " minus: " + stock);
+            assertEquals(0, stock);
+            assertEquals(3, countBorrows(kode));
+        }
+        assertCountersMatch();
+    }
+    
+    @Test
+    void repeatedRoundsAtHighRateNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String kode = "BRG-R" + round;
+                insertBarang(kode, STRESS_STOCK);
+                
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> futures = new ArrayList<>();
+                for (int i = 0; i < RESERVATIONS_PER_ROUND; i++) {
+                    int jumlah = 1 + (i % 2);
+                    int peminjam = i + 1;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        Borrow borrow = new Borrow(peminjam, kode, jumlah, LocalDate.now(), LocalDate.now().plusDays(7));
+                        ReservationResult result = borrowDAO.reserve(borrow);
+                        if (!result.isSuccess() && result.status() != ReservationResult.Status.INSUFFICIENT_STOCK) {
+                            throw new AssertionError("Reservasi gagal: " + result.status());
+                        }
+                        return result.isSuccess() ? jumlah : 0;
+                    }));
+                }
+                start.countDown();
+                
+                int reserved = 0;
+                for (Future<Integer> future : futures) {
+                    reserved += future.get();
+                }
+                int remaining = readStock(kode);
+                
+                assertTrue(remaining >= 0, "Putaran " + round + ": stok minus " + remaining);
+                assertEquals(STRESS_STOCK, reserved + remaining, "Putaran " + round + ": reserved + sisa != stok awal");
+                assertEquals(reserved, sumReservedUnits(kode), "Putaran " + round + ": unit di tabel borrow");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertCountersMatch();
+        assertTrue(DatabaseConfig.getInstance().getPoolStats().getStatementCacheHits() > 0,
+            "Statement cache pool tidak terpakai");
+    }
+    
+    @Test
+    void rejectAllRestoresStockAndCounters() throws Exception {
+        String[] kodes = {"BRG-201", "BRG-202"};
+        for (String kode : kodes) {
+            insertBarang(kode, 4);
+        }
+        List<ReservationResult> results = reserveConcurrently(i -> kodes[i % kodes.length]);
+        List<Integer> reservedIds = new ArrayList<>();
+        for (ReservationResult result : results) {
+            if (result.isSuccess()) {
+                reservedIds.add(result.borrowId());
+            }
+        }
+        
+        List<Integer> rejected = borrowDAO.rejectAll(reservedIds);
+        
+        assertEquals(reservedIds.size(), rejected.size());
+        for (String kode : kodes) {
+            assertEquals(4, readStock(kode));
+        }
+        assertCountersMatch();
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private interface KodeForThread {
+        String kode(int thread);
+    }
+    
+    private List<ReservationResult> reserveConcurrently(KodeForThread kodeForThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ReservationResult>> futures = new ArrayList<>();
+        
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                String kode = kodeForThread.kode(i);
+                int peminjam = i + 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    Borrow borrow = new Borrow(peminjam, kode, 1, LocalDate.now(), LocalDate.now().plusDays(7));
+                    return borrowDAO.reserve(borrow);
+                }));
+            }
+            start.countDown();
+            
+            List<ReservationResult> results = new ArrayList<>();
+            for (Future<ReservationResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static long countStatus(List<ReservationResult> results, ReservationResult.Status status) {
+        return results.stream().filter(result -> result.status() == status).count();
+    }
+    
+    private static void assertCountersMatch() {
+        assertTrue(new InventorySummaryDAO().reconcile(), "Counter inventory_summary tidak cocok");
+    }
+}
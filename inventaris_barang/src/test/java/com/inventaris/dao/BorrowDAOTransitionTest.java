@@ -0,0 +1,134 @@
+// ================================================================
+// File: src/test/java/com/inventaris/dao/BorrowDAOTransitionTest.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.model.Borrow;
+import com.inventaris.model.InventorySummary;
+import com.inventaris.model.ReservationResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static com.inventaris.dao.TestDatabase.insertBarang;
+import static com.inventaris.dao.TestDatabase.readStatus;
+import static com.inventaris.dao.TestDatabase.readStock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transisi status peminjaman lewat UPDATE bersyarat (H2, mode MySQL)
+ * Transisi kedua atas baris yang sama harus gagal tanpa mengubah stok,
+ * status, maupun counter inventory_summary.
+ */
+class BorrowDAOTransitionTest {
+    
+    private static final String KODE = "BRG-T01";
+    private static final int STOK = 5;
+    private static final int JUMLAH = 2;
+    private static final int ADMIN_ID = 1;
+    
+    private final BorrowDAO borrowDAO = new BorrowDAO();
+    private final InventorySummaryDAO summaryDAO = new InventorySummaryDAO();
+    
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        TestDatabase.createSchema();
+    }
+    
+    @BeforeEach
+    void resetData() throws SQLException {
+        TestDatabase.reset();
+        insertBarang(KODE, STOK);
+    }
+    
+    @Test
+    void secondApproveChangesNothing() throws Exception {
+        int borrowId = reservePending();
+        assertTrue(borrowDAO.approve(borrowId, ADMIN_ID));
+        InventorySummary before = summaryDAO.getSummary();
+        
+        assertFalse(borrowDAO.approve(borrowId, ADMIN_ID));
+        
+        assertEquals("dipinjam", readStatus(borrowId));
+        assertEquals(STOK - JUMLAH, readStock(KODE));
+        assertEquals(before, summaryDAO.getSummary());
+        assertCountersMatch();
+    }
+    
+    @Test
+    void secondRejectChangesNothing() throws Exception {
+        int borrowId = reservePending();
+        assertTrue(borrowDAO.reject(borrowId));
+        assertEquals(STOK, readStock(KODE));
+        InventorySummary before = summaryDAO.getSummary();
+        
+        assertFalse(borrowDAO.reject(borrowId));
+        assertFalse(borrowDAO.approve(borrowId, ADMIN_ID));
+        
+        assertEquals("ditolak", readStatus(borrowId));
+        assertEquals(STOK, readStock(KODE));
+        assertEquals(before, summaryDAO.getSummary());
+        assertCountersMatch();
+    }
+    
+    @Test
+    void secondReturnChangesNothing() throws Exception {
+        int borrowId = reservePending();
+        assertTrue(borrowDAO.approve(borrowId, ADMIN_ID));
+        assertTrue(borrowDAO.returnItem(borrowId, "baik", null));
+        assertEquals(STOK, readStock(KODE));
+        InventorySummary before = summaryDAO.getSummary();
+        
+        assertFalse(borrowDAO.returnItem(borrowId, "baik", null));
+        assertFalse(borrowDAO.reject(borrowId));
+        
+        assertEquals("dikembalikan", readStatus(borrowId));
+        assertEquals(STOK, readStock(KODE));
+        assertEquals(before, summaryDAO.getSummary());
+        assertCountersMatch();
+    }
+    
+    @Test
+    void returnBeforeApproveChangesNothing() throws Exception {
+        int borrowId = reservePending();
+        InventorySummary before = summaryDAO.getSummary();
+        
+        assertFalse(borrowDAO.returnItem(borrowId, "baik", null));
+        
+        assertEquals("pending", readStatus(borrowId));
+        assertEquals(STOK - JUMLAH, readStock(KODE));
+        assertEquals(before, summaryDAO.getSummary());
+    }
+    
+    @Test
+    void damagedReturnRestoresStockAsBefore() throws Exception {
+        int borrowId = reservePending();
+        assertTrue(borrowDAO.approve(borrowId, ADMIN_ID));
+        
+        assertTrue(borrowDAO.returnItem(borrowId, "rusak berat", null));
+        
+        assertEquals("dikembalikan", readStatus(borrowId));
+        assertEquals(STOK, readStock(KODE));
+        assertCountersMatch();
+    }
+    
+    // ============================================================
+    // HELPER METHODS
+    // ============================================================
+    
+    private int reservePending() {
+        Borrow borrow = new Borrow(1, KODE, JUMLAH, LocalDate.now(), LocalDate.now().plusDays(7));
+        ReservationResult result = borrowDAO.reserve(borrow);
+        assertTrue(result.isSuccess(), "Reservasi gagal: " + result.status());
+        return result.borrowId();
+    }
+    
+    private void assertCountersMatch() {
+        assertTrue(summaryDAO.reconcile(), "Counter inventory_summary tidak cocok");
+    }
+}
@@ -0,0 +1,62 @@
+// ================================================================
+// File: src/test/java/com/inventaris/dao/ReadThroughCacheTest.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.TransactionManager;
+import com.inventaris.model.Barang;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cache read-through tidak boleh menyimpan hasil load dari dalam unit of work
+ * Load di dalam transaksi bisa membaca baris yang belum commit; setelah
+ * rollback, entry itu tidak boleh tersisa di cache.
+ */
+class ReadThroughCacheTest {
+    
+    private final TransactionManager transactionManager = TransactionManager.getInstance();
+    
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        TestDatabase.createSchema();
+    }
+    
+    @Test
+    void queryCacheSkipsLoadsInsideUnitOfWork() throws SQLException {
+        QueryCache queryCache = QueryCache.getInstance();
+        String key = QueryCache.key("test.uncommitted");
+        String[] tags = {DataVersionDAO.BORROW};
+        AtomicInteger loads = new AtomicInteger();
+        
+        assertThrows(SQLException.class, () -> transactionManager.inTransaction(conn -> {
+            queryCache.getList(key, tags, () -> List.of("belum commit " + loads.incrementAndGet()));
+            throw new SQLException("rollback");
+        }));
+        
+        List<String> rows = queryCache.getList(key, tags, () -> List.of("commit " + loads.incrementAndGet()));
+        assertEquals(List.of("commit 2"), rows);
+    }
+    
+    @Test
+    void barangCacheSkipsLoadsInsideUnitOfWork() {
+        BarangCache barangCache = BarangCache.getInstance();
+        Barang uncommitted = new Barang("BRG-C01", "Belum commit", "Gudang", 1, null);
+        uncommitted.setDetailLoaded(true);
+        
+        assertThrows(SQLException.class, () -> transactionManager.inTransaction(conn -> {
+            barangCache.get("BRG-C01", kode -> uncommitted);
+            throw new SQLException("rollback");
+        }));
+        
+        assertNull(barangCache.peek("BRG-C01"));
+    }
+}
@@ -0,0 +1,122 @@
+// ================================================================
+// File: src/test/java/com/inventaris/dao/TestDatabase.java
+// ================================================================
+package com.inventaris.dao;
+
+import com.inventaris.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * TestDatabase - Skema dan helper data untuk test DAO (H2, mode MySQL)
+ * Hanya tabel dan kolom yang dipakai BorrowDAO beserta counter-nya.
+ */
+final class TestDatabase {
+    
+    private TestDatabase() {
+    }
+    
+    static void createSchema() throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS barang (" +
+                "id_barang INT AUTO_INCREMENT PRIMARY KEY, " +
+                "kode_barang VARCHAR(50) NOT NULL UNIQUE, " +
+                "nama_barang VARCHAR(100) NOT NULL, " +
+                "jumlah_total INT DEFAULT 0, " +
+                "jumlah_tersedia INT DEFAULT 0, " +
+                "status VARCHAR(20) DEFAULT 'tersedia')");
+            stmt.execute("CREATE TABLE IF NOT EXISTS borrow (" +
+                "id_peminjaman INT AUTO_INCREMENT PRIMARY KEY, " +
+                "id_peminjam INT NOT NULL, " +
+                "id_admin INT, " +
+                "kode_barang VARCHAR(50) NOT NULL, " +
+                "jumlah_pinjam INT NOT NULL, " +
+                "kondisi_barang VARCHAR(50), " +
+                "tgl_peminjaman DATE NOT NULL, " +
+                "tgl_pinjam DATE NOT NULL, " +
+                "tgl_kembali DATE, " +
+                "dl_kembali DATE NOT NULL, " +
+                "foto_pengembalian VARCHAR(255), " +
+                "status_barang VARCHAR(20) DEFAULT 'pending')");
+            stmt.execute("CREATE TABLE IF NOT EXISTS lapor (" +
+                "id_lapor INT AUTO_INCREMENT PRIMARY KEY, " +
+                "status VARCHAR(20))");
+            stmt.execute("CREATE TABLE IF NOT EXISTS data_version (" +
+                "table_name VARCHAR(50) PRIMARY KEY, " +
+                "version BIGINT NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS inventory_summary (" +
+                "id TINYINT PRIMARY KEY, " +
+                "total_barang INT NOT NULL DEFAULT 0, barang_tersedia INT NOT NULL DEFAULT 0, " +
+                "unit_tersedia INT NOT NULL DEFAULT 0, borrow_total INT NOT NULL DEFAULT 0, " +
+                "borrow_pending INT NOT NULL DEFAULT 0, borrow_aktif INT NOT NULL DEFAULT 0, " +
+                "borrow_selesai INT NOT NULL DEFAULT 0, borrow_hilang INT NOT NULL DEFAULT 0, " +
+                "borrow_rusak INT NOT NULL DEFAULT 0, lapor_total INT NOT NULL DEFAULT 0, " +
+                "lapor_diproses INT NOT NULL DEFAULT 0, lapor_selesai INT NOT NULL DEFAULT 0, " +
+                "lapor_ditolak INT NOT NULL DEFAULT 0)");
+        }
+    }
+    
+    /**
+     * Kosongkan borrow dan barang, lalu cocokkan counter
+     */
+    static void reset() throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM borrow");
+            stmt.execute("DELETE FROM barang");
+        }
+        new InventorySummaryDAO().reconcile();
+    }
+    
+    static void insertBarang(String kode, int stok) throws SQLException {
+        String sql = "INSERT INTO barang (kode_barang, nama_barang, jumlah_total, jumlah_tersedia, status) " +
+                     "VALUES (?, ?, ?, ?, 'tersedia')";
+        
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, kode);
+            stmt.setString(2, "Barang " + kode);
+            stmt.setInt(3, stok);
+            stmt.setInt(4, stok);
+            stmt.executeUpdate();
+        }
+        new InventorySummaryDAO().reconcile();
+    }
+    
+    static int readStock(String kode) throws SQLException {
+        return queryInt("SELECT jumlah_tersedia FROM barang WHERE kode_barang = ?", kode);
+    }
+    
+    static int countBorrows(String kode) throws SQLException {
+        return queryInt("SELECT COUNT(*) FROM borrow WHERE kode_barang = ?", kode);
+    }
+    
+    static int sumReservedUnits(String kode) throws SQLException {
+        return queryInt("SELECT COALESCE(SUM(jumlah_pinjam), 0) FROM borrow WHERE kode_barang = ?", kode);
+    }
+    
+    static String readStatus(int borrowId) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT status_barang FROM borrow WHERE id_peminjaman = ?")) {
+            stmt.setInt(1, borrowId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+    
+    private static int queryInt(String sql, String kode) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, kode);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}